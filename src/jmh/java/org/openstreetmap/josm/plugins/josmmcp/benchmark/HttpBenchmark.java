@@ -0,0 +1,117 @@
+/*
+ * JosmMCPPlugin - JOSM plugin to integrate JOSM with the Model Context Protocol
+ * Copyright (C) 2025-2026 Pengunaria.dev
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.openstreetmap.josm.plugins.josmmcp.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openstreetmap.josm.gui.layer.OsmDataLayer;
+import org.openstreetmap.josm.plugins.josmmcp.JosmMCPPlugin;
+import org.openstreetmap.josm.plugins.josmmcp.server.McpHttpServer;
+
+/**
+ * Calls the tools through the whole HTTP path: JSON-RPC over an in-process
+ * Jetty serving the stateless MCP transport.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx8g", "-Djava.awt.headless=true" })
+public class HttpBenchmark {
+
+	@Param({ "10000", "1000000" })
+	public int size;
+
+	private SyntheticData data;
+	private OsmDataLayer layer;
+	private McpHttpServer server;
+	private HttpClient client;
+	private URI endpoint;
+	private final AtomicLong requestId = new AtomicLong();
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		SyntheticData.initJosm();
+		data = SyntheticData.generate(size, 42);
+		layer = data.install();
+		server = new McpHttpServer(0, JosmMCPPlugin.createTools());
+		server.start();
+		endpoint = URI.create("http://localhost:" + server.getPort() + "/mcp");
+		client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception {
+		server.stop();
+		SyntheticData.uninstall(layer);
+	}
+
+	private String callTool(String name, String arguments) throws Exception {
+		String body = "{\"jsonrpc\":\"2.0\",\"id\":" + requestId.incrementAndGet()
+				+ ",\"method\":\"tools/call\",\"params\":{\"name\":\"" + name + "\",\"arguments\":" + arguments + "}}";
+		HttpRequest request = HttpRequest.newBuilder(endpoint).header("Content-Type", "application/json")
+				.header("Accept", "application/json, text/event-stream")
+				.POST(HttpRequest.BodyPublishers.ofString(body)).build();
+		HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+		if (response.statusCode() != 200) {
+			throw new IllegalStateException("HTTP " + response.statusCode() + ": " + response.body());
+		}
+		return response.body();
+	}
+
+	@Benchmark
+	public String search() throws Exception {
+		return callTool("search_elements", "{\"query\":\"highway=residential\",\"max_results\":50}");
+	}
+
+	@Benchmark
+	@Threads(8)
+	public String searchConcurrent() throws Exception {
+		return callTool("search_elements", "{\"query\":\"highway=residential\",\"max_results\":50}");
+	}
+
+	@Benchmark
+	public String readWay() throws Exception {
+		return callTool("read_way", "{\"id\":" + data.wayId((int) requestId.get() * 7919) + "}");
+	}
+
+	@Benchmark
+	public String state() throws Exception {
+		return callTool("get_josm_state", "{}");
+	}
+}
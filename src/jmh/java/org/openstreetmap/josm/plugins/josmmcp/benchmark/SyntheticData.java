@@ -0,0 +1,176 @@
+/*
+ * JosmMCPPlugin - JOSM plugin to integrate JOSM with the Model Context Protocol
+ * Copyright (C) 2025-2026 Pengunaria.dev
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.openstreetmap.josm.plugins.josmmcp.benchmark;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.openstreetmap.josm.data.Preferences;
+import org.openstreetmap.josm.data.UndoRedoHandler;
+import org.openstreetmap.josm.data.coor.LatLon;
+import org.openstreetmap.josm.data.osm.DataSet;
+import org.openstreetmap.josm.data.osm.Node;
+import org.openstreetmap.josm.data.osm.Way;
+import org.openstreetmap.josm.data.preferences.JosmBaseDirectories;
+import org.openstreetmap.josm.data.preferences.JosmUrls;
+import org.openstreetmap.josm.data.projection.ProjectionRegistry;
+import org.openstreetmap.josm.data.projection.Projections;
+import org.openstreetmap.josm.gui.MainApplication;
+import org.openstreetmap.josm.gui.layer.OsmDataLayer;
+import org.openstreetmap.josm.spi.preferences.Config;
+
+/**
+ * Generates reproducible datasets that look like an urban OSM extract: ways of
+ * a few nodes tagged as highways or buildings, and scattered POI nodes.
+ */
+public final class SyntheticData {
+
+	private static final String[] HIGHWAYS = { "residential", "residential", "residential", "residential", "service",
+			"service", "footway", "footway", "tertiary", "secondary", "primary", "track" };
+	private static final String[] AMENITIES = { "restaurant", "cafe", "bench", "parking", "bar", "pharmacy",
+			"school", "fuel", "bank", "waste_basket" };
+	private static final String[] STREET_NAMES = { "Via Roma", "Via Milano", "Corso Italia", "Via Garibaldi",
+			"Via Dante", "Via Verdi", "Piazza del Duomo", "Via Mazzini" };
+
+	private static boolean initialized;
+
+	private final DataSet ds = new DataSet();
+	private final List<Long> nodeIds = new ArrayList<>();
+	private final List<Long> wayIds = new ArrayList<>();
+
+	private SyntheticData() {
+	}
+
+	/**
+	 * Initializes the parts of JOSM the tools depend on, with preferences in a
+	 * temporary directory.
+	 */
+	public static synchronized void initJosm() throws Exception {
+		if (initialized) {
+			return;
+		}
+		File home = Files.createTempDirectory("josmmcp-benchmark").toFile();
+		System.setProperty("josm.home", home.getAbsolutePath());
+		System.setProperty("java.awt.headless", "true");
+		Preferences pref = Preferences.main();
+		Config.setPreferencesInstance(pref);
+		Config.setBaseDirectoriesProvider(JosmBaseDirectories.getInstance());
+		Config.setUrlsProvider(JosmUrls.getInstance());
+		pref.enableSaveOnPut(false);
+		ProjectionRegistry.setProjection(Projections.getProjectionByCode("EPSG:3857"));
+		initialized = true;
+	}
+
+	/**
+	 * Generates a dataset of about <code>size</code> primitives.
+	 */
+	public static SyntheticData generate(int size, long seed) {
+		SyntheticData data = new SyntheticData();
+		Random rnd = new Random(seed);
+		long nextNodeId = 1;
+		long nextWayId = 1;
+		int primitives = 0;
+		while (primitives < size) {
+			double lat = 45 + rnd.nextDouble();
+			double lon = 9 + rnd.nextDouble();
+			if (rnd.nextInt(10) == 0) {
+				// POI
+				Node poi = data.node(nextNodeId++, lat, lon);
+				poi.put("amenity", AMENITIES[rnd.nextInt(AMENITIES.length)]);
+				if (rnd.nextBoolean()) {
+					poi.put("name", "POI " + poi.getUniqueId());
+				}
+				primitives++;
+				continue;
+			}
+			boolean building = rnd.nextInt(5) < 2;
+			int count = building ? 4 : 2 + rnd.nextInt(10);
+			List<Node> nodes = new ArrayList<>(count + 1);
+			for (int i = 0; i < count; i++) {
+				if (building) {
+					// square of about 10 m
+					nodes.add(data.node(nextNodeId++, lat + (i == 1 || i == 2 ? 0.0001 : 0),
+							lon + (i >= 2 ? 0.0001 : 0)));
+				} else {
+					nodes.add(data.node(nextNodeId++, lat, lon));
+					lat += (rnd.nextDouble() - 0.5) * 0.001;
+					lon += (rnd.nextDouble() - 0.5) * 0.001;
+				}
+			}
+			Way w = new Way(nextWayId++, 1);
+			if (building) {
+				nodes.add(nodes.get(0));
+				w.put("building", "yes");
+				if (rnd.nextInt(5) == 0) {
+					w.put("addr:housenumber", Integer.toString(1 + rnd.nextInt(200)));
+					w.put("addr:street", STREET_NAMES[rnd.nextInt(STREET_NAMES.length)]);
+				}
+			} else {
+				w.put("highway", HIGHWAYS[rnd.nextInt(HIGHWAYS.length)]);
+				if (rnd.nextInt(3) == 0) {
+					w.put("name", STREET_NAMES[rnd.nextInt(STREET_NAMES.length)]);
+				}
+				if (rnd.nextInt(4) == 0) {
+					w.put("maxspeed", rnd.nextBoolean() ? "30" : "50");
+				}
+			}
+			w.setNodes(nodes);
+			data.ds.addPrimitive(w);
+			data.wayIds.add(w.getUniqueId());
+			primitives += count + 1;
+		}
+		return data;
+	}
+
+	private Node node(long id, double lat, double lon) {
+		Node n = new Node(id, 1);
+		n.setCoor(new LatLon(lat, lon));
+		ds.addPrimitive(n);
+		nodeIds.add(id);
+		return n;
+	}
+
+	public DataSet getDataSet() {
+		return ds;
+	}
+
+	public long nodeId(int i) {
+		return nodeIds.get(Math.floorMod(i, nodeIds.size()));
+	}
+
+	public long wayId(int i) {
+		return wayIds.get(Math.floorMod(i, wayIds.size()));
+	}
+
+	/**
+	 * Adds the dataset as the edit layer of JOSM.
+	 */
+	public OsmDataLayer install() {
+		OsmDataLayer layer = new OsmDataLayer(ds, "benchmark", null);
+		MainApplication.getLayerManager().addLayer(layer);
+		return layer;
+	}
+
+	public static void uninstall(OsmDataLayer layer) {
+		UndoRedoHandler.getInstance().clean();
+		MainApplication.getLayerManager().removeLayer(layer);
+	}
+}
@@ -0,0 +1,215 @@
+/*
+ * JosmMCPPlugin - JOSM plugin to integrate JOSM with the Model Context Protocol
+ * Copyright (C) 2025-2026 Pengunaria.dev
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.openstreetmap.josm.plugins.josmmcp.benchmark;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openstreetmap.josm.data.UndoRedoHandler;
+import org.openstreetmap.josm.gui.layer.OsmDataLayer;
+import org.openstreetmap.josm.plugins.josmmcp.server.ResponseCache;
+import org.openstreetmap.josm.plugins.josmmcp.tools.BaseTool;
+import org.openstreetmap.josm.plugins.josmmcp.tools.CreateNode;
+import org.openstreetmap.josm.plugins.josmmcp.tools.CreateWay;
+import org.openstreetmap.josm.plugins.josmmcp.tools.ElementsContaining;
+import org.openstreetmap.josm.plugins.josmmcp.tools.Measure;
+import org.openstreetmap.josm.plugins.josmmcp.tools.ModifyTags;
+import org.openstreetmap.josm.plugins.josmmcp.tools.NearestElements;
+import org.openstreetmap.josm.plugins.josmmcp.tools.ReadNode;
+import org.openstreetmap.josm.plugins.josmmcp.tools.ReadWay;
+import org.openstreetmap.josm.plugins.josmmcp.tools.RetagElements;
+import org.openstreetmap.josm.plugins.josmmcp.tools.SearchCache;
+import org.openstreetmap.josm.plugins.josmmcp.tools.SearchTool;
+import org.openstreetmap.josm.plugins.josmmcp.tools.StateTool;
+
+import io.modelcontextprotocol.common.McpTransportContext;
+import io.modelcontextprotocol.spec.McpSchema.CallToolRequest;
+import io.modelcontextprotocol.spec.McpSchema.CallToolResult;
+import io.modelcontextprotocol.spec.McpSchema.TextContent;
+
+/**
+ * Calls the tools through their MCP specification, as the server does: on the
+ * {@link org.openstreetmap.josm.plugins.josmmcp.server.ToolExecutor} threads
+ * and with the DataSet read lock held by the read-only tools, against
+ * synthetic datasets of growing size. The search and response caches are
+ * cleared before each call, so repeated identical calls measure the tools and
+ * not a cache lookup. Mutating tools are undone after each call so every
+ * invocation sees the same data.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx8g", "-Djava.awt.headless=true" })
+public class ToolBenchmark {
+
+	@Param({ "10000", "100000", "1000000", "5000000" })
+	public int size;
+
+	private SyntheticData data;
+	private OsmDataLayer layer;
+	private int counter;
+
+	private final BaseTool search = new SearchTool();
+	private final BaseTool readNode = new ReadNode();
+	private final BaseTool readWay = new ReadWay();
+	private final BaseTool state = new StateTool();
+	private final BaseTool modifyTags = new ModifyTags();
+	private final BaseTool createNode = new CreateNode();
+	private final BaseTool createWay = new CreateWay();
+	private final BaseTool retag = new RetagElements();
+	private final BaseTool nearest = new NearestElements();
+	private final BaseTool containing = new ElementsContaining();
+	private final BaseTool measure = new Measure();
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		SyntheticData.initJosm();
+		data = SyntheticData.generate(size, 42);
+		layer = data.install();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		SyntheticData.uninstall(layer);
+	}
+
+	@Setup(Level.Invocation)
+	public void clearCaches() {
+		SearchCache.getInstance().clear();
+		ResponseCache.getInstance().clear();
+	}
+
+	private static String call(BaseTool tool, Map<String, Object> args) throws Exception {
+		CallToolResult result = tool.getSpec().callHandler()
+				.apply(McpTransportContext.EMPTY, new CallToolRequest(tool.getName(), args)).block();
+		String text = ((TextContent) result.content().get(0)).text();
+		if (Boolean.TRUE.equals(result.isError())) {
+			throw new Exception(tool.getName() + ": " + text);
+		}
+		return text;
+	}
+
+	@Benchmark
+	public String searchFirstPage() throws Exception {
+		return call(search, Map.of("query", "highway=residential", "max_results", 50));
+	}
+
+	@Benchmark
+	public String searchFirstPageJson() throws Exception {
+		return call(search, Map.of("query", "highway=residential", "max_results", 50, "format", "json"));
+	}
+
+	@Benchmark
+	public String searchRare() throws Exception {
+		return call(search, Map.of("query", "amenity=pharmacy name=*", "max_results", 10));
+	}
+
+	@Benchmark
+	public String searchCount() throws Exception {
+		return call(search, Map.of("query", "building=yes", "count_only", true));
+	}
+
+	@Benchmark
+	public String searchBbox() throws Exception {
+		return call(search, Map.of("query", "highway", "bbox",
+				Map.of("min_lat", 45.4, "min_lon", 9.4, "max_lat", 45.41, "max_lon", 9.41)));
+	}
+
+	@Benchmark
+	public String readNode() throws Exception {
+		return call(readNode, Map.of("id", data.nodeId(counter++ * 7919)));
+	}
+
+	@Benchmark
+	public String readWay() throws Exception {
+		return call(readWay, Map.of("id", data.wayId(counter++ * 7919)));
+	}
+
+	@Benchmark
+	public String state() throws Exception {
+		return call(state, Map.of());
+	}
+
+	@Benchmark
+	public String nearestPoi() throws Exception {
+		int i = counter++;
+		return call(nearest, Map.of("latitude", 45 + (i * 0.618034) % 1, "longitude", 9 + (i * 0.414214) % 1, "k",
+				5, "query", "amenity=pharmacy"));
+	}
+
+	@Benchmark
+	public String elementsContaining() throws Exception {
+		int i = counter++;
+		return call(containing,
+				Map.of("latitude", 45 + (i * 0.618034) % 1, "longitude", 9 + (i * 0.414214) % 1));
+	}
+
+	@Benchmark
+	public String measureBuildings() throws Exception {
+		return call(measure, Map.of("query", "building", "bbox",
+				Map.of("min_lat", 45.4, "min_lon", 9.4, "max_lat", 45.5, "max_lon", 9.5), "max_details", 0));
+	}
+
+	@Benchmark
+	public String retagDryRun() throws Exception {
+		return call(retag, Map.of("query", "highway=track", "set", Map.of("tracktype", "grade1"), "dry_run", true));
+	}
+
+	@Benchmark
+	public String modifyTagsAndUndo() throws Exception {
+		HashMap<String, String> tags = new HashMap<>();
+		tags.put("note", "benchmark");
+		String result = call(modifyTags,
+				Map.of("element_type", "node", "element_id", data.nodeId(counter++ * 7919), "tags", tags));
+		UndoRedoHandler.getInstance().undo();
+		return result;
+	}
+
+	@Benchmark
+	public String createNodeAndUndo() throws Exception {
+		String result = call(createNode, Map.of("latitude", 45.5, "longitude", 9.5));
+		UndoRedoHandler.getInstance().undo();
+		return result;
+	}
+
+	@Benchmark
+	public String createWayAndUndo() throws Exception {
+		int i = counter++ * 7919;
+		String result = call(createWay,
+				Map.of("node_ids", Arrays.asList(data.nodeId(i), data.nodeId(i + 1), data.nodeId(i + 2))));
+		UndoRedoHandler.getInstance().undo();
+		return result;
+	}
+}
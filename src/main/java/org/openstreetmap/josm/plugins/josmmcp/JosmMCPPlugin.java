@@ -20,66 +20,91 @@ package org.openstreetmap.josm.plugins.josmmcp;
 import java.util.ArrayList;
 import java.util.List;
 
-import org.eclipse.jetty.server.Server;
-import org.eclipse.jetty.servlet.ServletContextHandler;
-import org.eclipse.jetty.servlet.ServletHolder;
 import org.openstreetmap.josm.plugins.Plugin;
 import org.openstreetmap.josm.plugins.PluginInformation;
+import org.openstreetmap.josm.plugins.josmmcp.server.McpHttpServer;
+import org.openstreetmap.josm.plugins.josmmcp.server.TransportConfig;
+import org.openstreetmap.josm.plugins.josmmcp.tools.AggregateTags;
+import org.openstreetmap.josm.plugins.josmmcp.tools.ApplyBatch;
+import org.openstreetmap.josm.plugins.josmmcp.tools.BaseTool;
 import org.openstreetmap.josm.plugins.josmmcp.tools.CreateNode;
 import org.openstreetmap.josm.plugins.josmmcp.tools.CreateWay;
 import org.openstreetmap.josm.plugins.josmmcp.tools.DeleteNode;
 import org.openstreetmap.josm.plugins.josmmcp.tools.DeleteWay;
+import org.openstreetmap.josm.plugins.josmmcp.tools.ElementsContaining;
+import org.openstreetmap.josm.plugins.josmmcp.tools.ExportRegion;
+import org.openstreetmap.josm.plugins.josmmcp.tools.GetChangesSince;
+import org.openstreetmap.josm.plugins.josmmcp.tools.GetServerMetrics;
+import org.openstreetmap.josm.plugins.josmmcp.tools.ImportFile;
+import org.openstreetmap.josm.plugins.josmmcp.tools.Measure;
 import org.openstreetmap.josm.plugins.josmmcp.tools.ModifyTags;
+import org.openstreetmap.josm.plugins.josmmcp.tools.NearestElements;
+import org.openstreetmap.josm.plugins.josmmcp.tools.ReadElements;
 import org.openstreetmap.josm.plugins.josmmcp.tools.ReadNode;
 import org.openstreetmap.josm.plugins.josmmcp.tools.ReadWay;
+import org.openstreetmap.josm.plugins.josmmcp.tools.RetagElements;
 import org.openstreetmap.josm.plugins.josmmcp.tools.SearchTool;
 import org.openstreetmap.josm.plugins.josmmcp.tools.StateTool;
 import org.openstreetmap.josm.plugins.josmmcp.tools.UpdateNode;
+import org.openstreetmap.josm.plugins.josmmcp.tools.UpdateWay;
+import org.openstreetmap.josm.plugins.josmmcp.tools.Validate;
+import org.openstreetmap.josm.spi.preferences.Config;
 import org.openstreetmap.josm.tools.Logging;
 
-import io.modelcontextprotocol.server.McpServer;
-import io.modelcontextprotocol.server.McpStatelessAsyncServer;
-import io.modelcontextprotocol.server.McpStatelessServerFeatures;
-import io.modelcontextprotocol.server.transport.HttpServletStatelessServerTransport;
-
 public class JosmMCPPlugin extends Plugin {
-	private Server jettyServer;
+	private McpHttpServer mcpServer;
 
 	public JosmMCPPlugin(PluginInformation info) {
 		super(info);
 
 		Logging.info("JosmMCPPlugin initialization");
 		try {
-			this.jettyServer = new Server(3000);
-			ServletContextHandler context = new ServletContextHandler();
-			context.setContextPath("/");
-			jettyServer.setHandler(context);
+			TransportConfig config = TransportConfig.fromPreferences(Config.getPref());
+			this.mcpServer = new McpHttpServer(config, createTools());
+			mcpServer.start();
+			Logging.info("MCP HTTP server started on port " + mcpServer.getPort());
+		} catch (Exception e) {
+			Logging.error("Failed to start MCP server: " + e.getMessage(), e);
+		}
+	}
 
-			List<McpStatelessServerFeatures.AsyncToolSpecification> toolSpecs = new ArrayList<McpStatelessServerFeatures.AsyncToolSpecification>();
-			toolSpecs.add(new SearchTool().getSpec());
-			toolSpecs.add(new ModifyTags().getSpec());
-			toolSpecs.add(new StateTool().getSpec());
+	/**
+	 * Returns all the tools exposed by the server.
+	 */
+	public static List<BaseTool> createTools() {
+		List<BaseTool> tools = new ArrayList<BaseTool>();
+		tools.add(new SearchTool());
+		tools.add(new ModifyTags());
+		tools.add(new StateTool());
+		tools.add(new GetChangesSince());
+		tools.add(new AggregateTags());
+		tools.add(new Validate());
 
-			// CRUD Operations on Nodes
-			toolSpecs.add(new CreateNode().getSpec());
-			toolSpecs.add(new ReadNode().getSpec());
-			toolSpecs.add(new UpdateNode().getSpec());
-			toolSpecs.add(new DeleteNode().getSpec());
+		// CRUD Operations on Nodes
+		tools.add(new CreateNode());
+		tools.add(new ReadNode());
+		tools.add(new UpdateNode());
+		tools.add(new DeleteNode());
 
-			// CRUD Operations on Ways
-			toolSpecs.add(new CreateWay().getSpec());
-			toolSpecs.add(new ReadWay().getSpec());
-			//toolSpecs.add(new UpdateWay().getSpec());
-			toolSpecs.add(new DeleteWay().getSpec());
+		// CRUD Operations on Ways
+		tools.add(new CreateWay());
+		tools.add(new ReadWay());
+		tools.add(new ReadElements());
+		tools.add(new UpdateWay());
+		tools.add(new DeleteWay());
 
-			HttpServletStatelessServerTransport servlet = HttpServletStatelessServerTransport.builder().build();
-			McpStatelessAsyncServer server = McpServer.async(servlet).serverInfo("JOSM MCP Server", "1.0.0")
-					.tools(toolSpecs).build();
-			context.addServlet(new ServletHolder(servlet), "/mcp");
-			jettyServer.start();
-			Logging.info("MCP HTTP server started on port 3000");
-		} catch (Exception e) {
-			Logging.error("Failed to start MCP server: " + e.getMessage(), e);
-		}
+		// Bulk operations
+		tools.add(new ApplyBatch());
+		tools.add(new RetagElements());
+		tools.add(new ImportFile());
+		tools.add(new ExportRegion());
+
+		// Spatial queries
+		tools.add(new NearestElements());
+		tools.add(new ElementsContaining());
+		tools.add(new Measure());
+
+		tools.add(new GetServerMetrics());
+		return tools;
 	}
 }
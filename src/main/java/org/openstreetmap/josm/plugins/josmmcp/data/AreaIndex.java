@@ -0,0 +1,367 @@
+/*
+ * JosmMCPPlugin - JOSM plugin to integrate JOSM with the Model Context Protocol
+ * Copyright (C) 2025-2026 Pengunaria.dev
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.openstreetmap.josm.plugins.josmmcp.data;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.openstreetmap.josm.data.osm.BBox;
+import org.openstreetmap.josm.data.osm.DataSet;
+import org.openstreetmap.josm.data.osm.Node;
+import org.openstreetmap.josm.data.osm.OsmPrimitive;
+import org.openstreetmap.josm.data.osm.OsmPrimitiveType;
+import org.openstreetmap.josm.data.osm.Relation;
+import org.openstreetmap.josm.data.osm.RelationMember;
+import org.openstreetmap.josm.data.osm.Way;
+import org.openstreetmap.josm.data.osm.event.AbstractDatasetChangedEvent;
+import org.openstreetmap.josm.data.osm.event.DataChangedEvent;
+import org.openstreetmap.josm.data.osm.event.DataSetListener;
+import org.openstreetmap.josm.data.osm.event.NodeMovedEvent;
+import org.openstreetmap.josm.data.osm.event.PrimitivesAddedEvent;
+import org.openstreetmap.josm.data.osm.event.PrimitivesRemovedEvent;
+import org.openstreetmap.josm.data.osm.event.RelationMembersChangedEvent;
+import org.openstreetmap.josm.data.osm.event.TagsChangedEvent;
+import org.openstreetmap.josm.data.osm.event.WayNodesChangedEvent;
+
+/**
+ * Index of the areas of a DataSet, the closed ways and the multipolygon and
+ * boundary relations, answering which of them contain a point.
+ *
+ * The bounding boxes are packed in an R-tree with the Sort-Tile-Recursive
+ * algorithm. The index is built on first use and rebuilt on the first use
+ * after a change of the geometry; tag changes only matter on relations. All
+ * the methods must be called with the DataSet read lock held.
+ */
+public final class AreaIndex {
+
+	private static final Map<DataSet, Holder> HOLDERS = new WeakHashMap<>();
+	private static final OsmPrimitiveType[] TYPES = OsmPrimitiveType.values();
+	// children per tree node
+	private static final int FANOUT = 16;
+
+	// The areas are kept as (unique id << 2 | type) codes: a primitive would
+	// hold its DataSet, the key of HOLDERS, and keep closed layers alive
+	private final WeakReference<DataSet> dataSet;
+	private final long[] areas;
+	// boxes of each level as minLon, minLat, maxLon, maxLat; level 0 are the areas
+	private final double[][] levels;
+
+	private AreaIndex(DataSet ds, List<OsmPrimitive> list) {
+		this.dataSet = new WeakReference<>(ds);
+		int n = list.size();
+		double[] boxes = new double[4 * n];
+		for (int i = 0; i < n; i++) {
+			BBox b = list.get(i).getBBox();
+			boxes[4 * i] = b.getTopLeftLon();
+			boxes[4 * i + 1] = b.getBottomRightLat();
+			boxes[4 * i + 2] = b.getBottomRightLon();
+			boxes[4 * i + 3] = b.getTopLeftLat();
+		}
+		Integer[] order = strOrder(boxes, n);
+		this.areas = new long[n];
+		double[] leaves = new double[4 * n];
+		for (int i = 0; i < n; i++) {
+			OsmPrimitive area = list.get(order[i]);
+			areas[i] = (area.getUniqueId() << 2) | area.getType().ordinal();
+			System.arraycopy(boxes, 4 * order[i], leaves, 4 * i, 4);
+		}
+		List<double[]> built = new ArrayList<>();
+		built.add(leaves);
+		double[] level = leaves;
+		while (level.length > 4) {
+			level = parents(level);
+			built.add(level);
+		}
+		this.levels = built.toArray(new double[0][]);
+	}
+
+	/**
+	 * Returns the index of a DataSet, building it if needed.
+	 */
+	public static AreaIndex get(DataSet ds) {
+		Holder holder;
+		synchronized (HOLDERS) {
+			holder = HOLDERS.get(ds);
+			if (holder == null) {
+				holder = new Holder();
+				ds.addDataSetListener(holder);
+				HOLDERS.put(ds, holder);
+			}
+		}
+		return holder.get(ds);
+	}
+
+	/**
+	 * Returns the number of indexed areas.
+	 */
+	public int size() {
+		return areas.length;
+	}
+
+	/**
+	 * Returns the areas containing a point, smallest bounding box first.
+	 */
+	public List<OsmPrimitive> containing(double lat, double lon) {
+		List<OsmPrimitive> result = new ArrayList<>();
+		DataSet ds = dataSet.get();
+		if (areas.length == 0 || ds == null) {
+			return result;
+		}
+		List<double[]> boxes = new ArrayList<>();
+		int top = levels.length - 1;
+		// pending tree nodes as (level, index) pairs
+		int[] stack = new int[2 * FANOUT * levels.length + 2];
+		int sp = 0;
+		stack[sp++] = top;
+		stack[sp++] = 0;
+		while (sp > 0) {
+			int index = stack[--sp];
+			int level = stack[--sp];
+			double[] box = levels[level];
+			if (!contains(box, index, lat, lon)) {
+				continue;
+			}
+			if (level == 0) {
+				long code = areas[index];
+				OsmPrimitive area = ds.getPrimitiveById(code >> 2, TYPES[(int) (code & 3)]);
+				if (area != null && !area.isDeleted() && contains(area, lat, lon)) {
+					result.add(area);
+					boxes.add(Arrays.copyOfRange(box, 4 * index, 4 * index + 4));
+				}
+				continue;
+			}
+			int below = levels[level - 1].length / 4;
+			for (int child = index * FANOUT, end = Math.min(below, child + FANOUT); child < end; child++) {
+				stack[sp++] = level - 1;
+				stack[sp++] = child;
+			}
+		}
+		if (result.size() > 1) {
+			Integer[] order = new Integer[result.size()];
+			for (int i = 0; i < order.length; i++) {
+				order[i] = i;
+			}
+			Arrays.sort(order, Comparator.comparingDouble(i -> area(boxes.get(i), 0)));
+			List<OsmPrimitive> sorted = new ArrayList<>(order.length);
+			for (Integer i : order) {
+				sorted.add(result.get(i));
+			}
+			return sorted;
+		}
+		return result;
+	}
+
+	private static double area(double[] box, int index) {
+		return (box[4 * index + 2] - box[4 * index]) * (box[4 * index + 3] - box[4 * index + 1]);
+	}
+
+	private static boolean contains(double[] box, int index, double lat, double lon) {
+		return lon >= box[4 * index] && lat >= box[4 * index + 1] && lon <= box[4 * index + 2]
+				&& lat <= box[4 * index + 3];
+	}
+
+	/**
+	 * Tells if an area contains a point with the even-odd rule over all the
+	 * segments of its ways. For multipolygons this needs no ring assembly:
+	 * inner rings and split outer ways count the same.
+	 */
+	public static boolean contains(OsmPrimitive area, double lat, double lon) {
+		if (area instanceof Way) {
+			return crossings((Way) area, lat, lon, false);
+		}
+		boolean inside = false;
+		for (RelationMember m : ((Relation) area).getMembers()) {
+			if (m.isWay()) {
+				inside = crossings(m.getWay(), lat, lon, inside);
+			}
+		}
+		return inside;
+	}
+
+	private static boolean crossings(Way w, double lat, double lon, boolean inside) {
+		Node prev = null;
+		for (int i = 0, n = w.getNodesCount(); i < n; i++) {
+			Node nd = w.getNode(i);
+			if (!nd.isLatLonKnown()) {
+				prev = null;
+				continue;
+			}
+			if (prev != null) {
+				double y1 = prev.lat();
+				double y2 = nd.lat();
+				if ((y1 > lat) != (y2 > lat)) {
+					double x1 = prev.lon();
+					double x = x1 + (nd.lon() - x1) * (lat - y1) / (y2 - y1);
+					if (lon < x) {
+						inside = !inside;
+					}
+				}
+			}
+			prev = nd;
+		}
+		return inside;
+	}
+
+	private static boolean isArea(OsmPrimitive prim) {
+		if (prim.isDeleted() || prim.isIncomplete()) {
+			return false;
+		}
+		if (prim instanceof Way) {
+			Way w = (Way) prim;
+			return w.getNodesCount() >= 4 && w.isClosed();
+		}
+		if (prim instanceof Relation) {
+			String type = prim.get("type");
+			return "multipolygon".equals(type) || "boundary".equals(type);
+		}
+		return false;
+	}
+
+	/**
+	 * Orders the boxes in vertical slices by center longitude, each slice by
+	 * center latitude, so that consecutive runs of {@link #FANOUT} boxes are
+	 * spatially close.
+	 */
+	private static Integer[] strOrder(double[] boxes, int n) {
+		Integer[] order = new Integer[n];
+		for (int i = 0; i < n; i++) {
+			order[i] = i;
+		}
+		Arrays.sort(order, Comparator.comparingDouble(i -> boxes[4 * i] + boxes[4 * i + 2]));
+		int leaves = (n + FANOUT - 1) / FANOUT;
+		int sliceSize = (int) Math.ceil(Math.sqrt(leaves)) * FANOUT;
+		for (int from = 0; from < n; from += sliceSize) {
+			Arrays.sort(order, from, Math.min(n, from + sliceSize),
+					Comparator.comparingDouble(i -> boxes[4 * i + 1] + boxes[4 * i + 3]));
+		}
+		return order;
+	}
+
+	private static double[] parents(double[] level) {
+		int n = level.length / 4;
+		int count = (n + FANOUT - 1) / FANOUT;
+		double[] parents = new double[4 * count];
+		for (int p = 0; p < count; p++) {
+			double minX = Double.POSITIVE_INFINITY;
+			double minY = Double.POSITIVE_INFINITY;
+			double maxX = Double.NEGATIVE_INFINITY;
+			double maxY = Double.NEGATIVE_INFINITY;
+			for (int c = p * FANOUT, end = Math.min(n, c + FANOUT); c < end; c++) {
+				minX = Math.min(minX, level[4 * c]);
+				minY = Math.min(minY, level[4 * c + 1]);
+				maxX = Math.max(maxX, level[4 * c + 2]);
+				maxY = Math.max(maxY, level[4 * c + 3]);
+			}
+			parents[4 * p] = minX;
+			parents[4 * p + 1] = minY;
+			parents[4 * p + 2] = maxX;
+			parents[4 * p + 3] = maxY;
+		}
+		return parents;
+	}
+
+	/**
+	 * Keeps the index of a DataSet and counts the changes of its geometry.
+	 */
+	private static class Holder implements DataSetListener {
+		private volatile long geometryVersion;
+		private AreaIndex index;
+		private long builtAt;
+
+		private synchronized AreaIndex get(DataSet ds) {
+			long version = geometryVersion;
+			if (index == null || builtAt != version) {
+				List<OsmPrimitive> list = new ArrayList<>();
+				for (Way w : ds.getWays()) {
+					if (isArea(w)) {
+						list.add(w);
+					}
+				}
+				for (Relation r : ds.getRelations()) {
+					if (isArea(r)) {
+						list.add(r);
+					}
+				}
+				index = new AreaIndex(ds, list);
+				builtAt = version;
+			}
+			return index;
+		}
+
+		private void changed() {
+			geometryVersion++;
+		}
+
+		private void changed(AbstractDatasetChangedEvent event) {
+			for (OsmPrimitive prim : event.getPrimitives()) {
+				if (!(prim instanceof Node)) {
+					changed();
+					return;
+				}
+			}
+		}
+
+		@Override
+		public void primitivesAdded(PrimitivesAddedEvent event) {
+			changed(event);
+		}
+
+		@Override
+		public void primitivesRemoved(PrimitivesRemovedEvent event) {
+			changed(event);
+		}
+
+		@Override
+		public void tagsChanged(TagsChangedEvent event) {
+			if (event.getPrimitive() instanceof Relation) {
+				changed();
+			}
+		}
+
+		@Override
+		public void nodeMoved(NodeMovedEvent event) {
+			if (!event.getNode().getReferrers().isEmpty()) {
+				changed();
+			}
+		}
+
+		@Override
+		public void wayNodesChanged(WayNodesChangedEvent event) {
+			changed();
+		}
+
+		@Override
+		public void relationMembersChanged(RelationMembersChangedEvent event) {
+			changed();
+		}
+
+		@Override
+		public void otherDatasetChange(AbstractDatasetChangedEvent event) {
+		}
+
+		@Override
+		public void dataChanged(DataChangedEvent event) {
+			changed();
+		}
+	}
+}
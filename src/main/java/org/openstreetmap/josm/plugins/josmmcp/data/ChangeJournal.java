@@ -0,0 +1,258 @@
+/*
+ * JosmMCPPlugin - JOSM plugin to integrate JOSM with the Model Context Protocol
+ * Copyright (C) 2025-2026 Pengunaria.dev
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.openstreetmap.josm.plugins.josmmcp.data;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openstreetmap.josm.data.osm.DataSet;
+import org.openstreetmap.josm.data.osm.OsmPrimitive;
+import org.openstreetmap.josm.data.osm.OsmPrimitiveType;
+import org.openstreetmap.josm.data.osm.event.AbstractDatasetChangedEvent;
+import org.openstreetmap.josm.data.osm.event.DataChangedEvent;
+import org.openstreetmap.josm.data.osm.event.DataSetListener;
+import org.openstreetmap.josm.data.osm.event.NodeMovedEvent;
+import org.openstreetmap.josm.data.osm.event.PrimitivesAddedEvent;
+import org.openstreetmap.josm.data.osm.event.PrimitivesRemovedEvent;
+import org.openstreetmap.josm.data.osm.event.RelationMembersChangedEvent;
+import org.openstreetmap.josm.data.osm.event.TagsChangedEvent;
+import org.openstreetmap.josm.data.osm.event.WayNodesChangedEvent;
+import org.openstreetmap.josm.spi.preferences.Config;
+
+/**
+ * Bounded journal of the changes of a DataSet.
+ *
+ * Every primitive touched by a change event is recorded with a sequence number
+ * that grows by one per record. The records are kept in a ring buffer: a
+ * reader that asks for changes older than the oldest record left, or that were
+ * reported by JOSM without details, must resync. Like
+ * {@link DataSetVersions}, the journal starts recording the first time it is
+ * asked for.
+ */
+public final class ChangeJournal {
+
+	public static final int ADDED = 1;
+	public static final int REMOVED = 2;
+	public static final int TAGS = 4;
+	public static final int MOVED = 8;
+	public static final int WAY_NODES = 16;
+	public static final int MEMBERS = 32;
+
+	private static final String[] KIND_NAMES = { "added", "removed", "tags", "moved", "way_nodes", "members" };
+
+	private static final Map<DataSet, ChangeJournal> JOURNALS = new WeakHashMap<>();
+	private static final AtomicInteger IDS = new AtomicInteger();
+	private static final OsmPrimitiveType[] TYPES = OsmPrimitiveType.values();
+
+	private final String id = "j" + IDS.incrementAndGet();
+	private final int capacity = Math.max(16, Config.getPref().getInt("josmmcp.journal.capacity", 100_000));
+	private final long[] ids = new long[capacity];
+	private final byte[] types = new byte[capacity];
+	private final byte[] kinds = new byte[capacity];
+	private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+	private long seq;
+	// changes up to this sequence number are unknown
+	private long resyncBefore;
+
+	private ChangeJournal() {
+	}
+
+	/**
+	 * Returns the journal of the given DataSet.
+	 */
+	public static ChangeJournal get(DataSet ds) {
+		synchronized (JOURNALS) {
+			ChangeJournal journal = JOURNALS.get(ds);
+			if (journal == null) {
+				journal = new ChangeJournal();
+				ds.addDataSetListener(journal.new Recorder());
+				JOURNALS.put(ds, journal);
+			}
+			return journal;
+		}
+	}
+
+	/**
+	 * Returns the names of the kinds of change in a bit mask.
+	 */
+	public static List<String> kindNames(int kinds) {
+		List<String> names = new ArrayList<>(KIND_NAMES.length);
+		for (int i = 0; i < KIND_NAMES.length; i++) {
+			if ((kinds & (1 << i)) != 0) {
+				names.add(KIND_NAMES[i]);
+			}
+		}
+		return names;
+	}
+
+	/**
+	 * Returns the names of all the kinds of change.
+	 */
+	public static List<String> kindNames() {
+		return kindNames((1 << KIND_NAMES.length) - 1);
+	}
+
+	/**
+	 * Identifies the journal, so clients can tell when the edit layer changed.
+	 */
+	public String getId() {
+		return id;
+	}
+
+	/**
+	 * Returns the sequence number of the last change.
+	 */
+	public synchronized long getSequence() {
+		return seq;
+	}
+
+	/**
+	 * Returns the changes following the sequence number <code>since</code>, at
+	 * most <code>max</code> of them, or <code>null</code> when they are no
+	 * longer known and the client must resync.
+	 */
+	public synchronized List<Change> since(long since, int max) {
+		if (since < resyncBefore || since < seq - capacity || since > seq) {
+			return null;
+		}
+		int n = (int) Math.min(max, seq - since);
+		List<Change> changes = new ArrayList<>(n);
+		for (long s = since + 1; s <= since + n; s++) {
+			int i = (int) (s % capacity);
+			changes.add(new Change(s, kinds[i], TYPES[types[i]], ids[i]));
+		}
+		return changes;
+	}
+
+	/**
+	 * Adds a listener called after each change event, on the thread that fired
+	 * it and with the DataSet read lock held: it must return quickly. JOSM has
+	 * already released the write lock then, so a reader may see a change before
+	 * it is recorded; see {@link DataSetVersions} for how the writes of the
+	 * tools are awaited.
+	 */
+	public void addListener(Runnable listener) {
+		listeners.add(listener);
+	}
+
+	public void removeListener(Runnable listener) {
+		listeners.remove(listener);
+	}
+
+	private void fireChanged() {
+		for (Runnable listener : listeners) {
+			listener.run();
+		}
+	}
+
+	private synchronized void record(int kind, OsmPrimitive prim) {
+		int i = (int) (++seq % capacity);
+		ids[i] = prim.getUniqueId();
+		types[i] = (byte) prim.getType().ordinal();
+		kinds[i] = (byte) kind;
+	}
+
+	private void record(int kind, Iterable<? extends OsmPrimitive> prims) {
+		for (OsmPrimitive prim : prims) {
+			record(kind, prim);
+		}
+	}
+
+	private synchronized void invalidate() {
+		resyncBefore = ++seq;
+	}
+
+	/**
+	 * A change of a primitive.
+	 */
+	public static final class Change {
+		public final long seq;
+		/** one of the {@link ChangeJournal#ADDED ADDED}, ... constants */
+		public final int kind;
+		public final OsmPrimitiveType type;
+		public final long id;
+
+		private Change(long seq, int kind, OsmPrimitiveType type, long id) {
+			this.seq = seq;
+			this.kind = kind;
+			this.type = type;
+			this.id = id;
+		}
+	}
+
+	private class Recorder implements DataSetListener {
+		@Override
+		public void primitivesAdded(PrimitivesAddedEvent event) {
+			record(ADDED, event.getPrimitives());
+			fireChanged();
+		}
+
+		@Override
+		public void primitivesRemoved(PrimitivesRemovedEvent event) {
+			record(REMOVED, event.getPrimitives());
+			fireChanged();
+		}
+
+		@Override
+		public void tagsChanged(TagsChangedEvent event) {
+			record(TAGS, event.getPrimitive());
+			fireChanged();
+		}
+
+		@Override
+		public void nodeMoved(NodeMovedEvent event) {
+			record(MOVED, event.getNode());
+			fireChanged();
+		}
+
+		@Override
+		public void wayNodesChanged(WayNodesChangedEvent event) {
+			record(WAY_NODES, event.getChangedWay());
+			fireChanged();
+		}
+
+		@Override
+		public void relationMembersChanged(RelationMembersChangedEvent event) {
+			record(MEMBERS, event.getRelation());
+			fireChanged();
+		}
+
+		@Override
+		public void otherDatasetChange(AbstractDatasetChangedEvent event) {
+			// flags, changeset ids, data sources: not part of the journal
+		}
+
+		@Override
+		public void dataChanged(DataChangedEvent event) {
+			// Events cumulated during an update are delivered together
+			List<AbstractDatasetChangedEvent> events = event.getEvents();
+			if (events == null) {
+				invalidate();
+				fireChanged();
+			} else {
+				for (AbstractDatasetChangedEvent e : events) {
+					e.fire(this);
+				}
+			}
+		}
+	}
+}
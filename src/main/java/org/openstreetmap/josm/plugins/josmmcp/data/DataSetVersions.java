@@ -0,0 +1,169 @@
+/*
+ * JosmMCPPlugin - JOSM plugin to integrate JOSM with the Model Context Protocol
+ * Copyright (C) 2025-2026 Pengunaria.dev
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.openstreetmap.josm.plugins.josmmcp.data;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openstreetmap.josm.data.osm.DataSet;
+import org.openstreetmap.josm.data.osm.event.AbstractDatasetChangedEvent;
+import org.openstreetmap.josm.data.osm.event.DataChangedEvent;
+import org.openstreetmap.josm.data.osm.event.DataSetListener;
+import org.openstreetmap.josm.data.osm.event.NodeMovedEvent;
+import org.openstreetmap.josm.data.osm.event.PrimitivesAddedEvent;
+import org.openstreetmap.josm.data.osm.event.PrimitivesRemovedEvent;
+import org.openstreetmap.josm.data.osm.event.RelationMembersChangedEvent;
+import org.openstreetmap.josm.data.osm.event.TagsChangedEvent;
+import org.openstreetmap.josm.data.osm.event.WayNodesChangedEvent;
+
+/**
+ * Modification counters of the DataSets, used as cache keys.
+ *
+ * A listener is attached to a DataSet the first time its version is asked
+ * for, and every change event increments the counter. JOSM fires the events
+ * after downgrading the write lock to the read lock, so a reader can see the
+ * new data while the version, and the indexes kept current by events, still
+ * describe the old one. The writes of the tools close that window: they
+ * increment the version while the write lock is held and are
+ * {@link #awaitSettled(DataSet) awaited} by the readers until their events are
+ * delivered. Edits made in JOSM itself remain visible to a reader that takes
+ * the read lock between the write and its events.
+ */
+public final class DataSetVersions {
+
+	private static final Map<DataSet, Tracker> TRACKERS = new WeakHashMap<>();
+	// a write whose events take longer is not waited for
+	private static final long SETTLE_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+	private DataSetVersions() {
+	}
+
+	/**
+	 * Returns the current modification counter of the given DataSet.
+	 */
+	public static long get(DataSet ds) {
+		return tracker(ds).version.get();
+	}
+
+	private static Tracker tracker(DataSet ds) {
+		synchronized (TRACKERS) {
+			Tracker tracker = TRACKERS.get(ds);
+			if (tracker == null) {
+				tracker = new Tracker();
+				ds.addDataSetListener(tracker);
+				TRACKERS.put(ds, tracker);
+			}
+			return tracker;
+		}
+	}
+
+	/**
+	 * Marks the start of a write of the tools. Must be called with the write
+	 * lock held, and followed by {@link #writeSettled(DataSet)} once the
+	 * update has ended and its events were fired.
+	 */
+	public static void writeStarted(DataSet ds) {
+		Tracker tracker = tracker(ds);
+		tracker.version.incrementAndGet();
+		synchronized (tracker) {
+			tracker.unsettled++;
+		}
+	}
+
+	public static void writeSettled(DataSet ds) {
+		Tracker tracker = tracker(ds);
+		synchronized (tracker) {
+			tracker.unsettled--;
+			tracker.notifyAll();
+		}
+	}
+
+	/**
+	 * Waits until the events of the writes of the tools are delivered. Called
+	 * with the read lock held, which the thread firing the events holds too.
+	 */
+	public static void awaitSettled(DataSet ds) {
+		Tracker tracker;
+		synchronized (TRACKERS) {
+			tracker = TRACKERS.get(ds);
+		}
+		if (tracker == null) {
+			return;
+		}
+		synchronized (tracker) {
+			long deadline = System.nanoTime() + SETTLE_TIMEOUT_NANOS;
+			long remaining = SETTLE_TIMEOUT_NANOS;
+			try {
+				while (tracker.unsettled > 0 && remaining > 0) {
+					TimeUnit.NANOSECONDS.timedWait(tracker, remaining);
+					remaining = deadline - System.nanoTime();
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	private static class Tracker implements DataSetListener {
+		private final AtomicLong version = new AtomicLong();
+		// writes of the tools whose events are not delivered yet
+		private int unsettled;
+
+		@Override
+		public void primitivesAdded(PrimitivesAddedEvent event) {
+			version.incrementAndGet();
+		}
+
+		@Override
+		public void primitivesRemoved(PrimitivesRemovedEvent event) {
+			version.incrementAndGet();
+		}
+
+		@Override
+		public void tagsChanged(TagsChangedEvent event) {
+			version.incrementAndGet();
+		}
+
+		@Override
+		public void nodeMoved(NodeMovedEvent event) {
+			version.incrementAndGet();
+		}
+
+		@Override
+		public void wayNodesChanged(WayNodesChangedEvent event) {
+			version.incrementAndGet();
+		}
+
+		@Override
+		public void relationMembersChanged(RelationMembersChangedEvent event) {
+			version.incrementAndGet();
+		}
+
+		@Override
+		public void otherDatasetChange(AbstractDatasetChangedEvent event) {
+			version.incrementAndGet();
+		}
+
+		@Override
+		public void dataChanged(DataChangedEvent event) {
+			version.incrementAndGet();
+		}
+	}
+}
@@ -0,0 +1,312 @@
+/*
+ * JosmMCPPlugin - JOSM plugin to integrate JOSM with the Model Context Protocol
+ * Copyright (C) 2025-2026 Pengunaria.dev
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.openstreetmap.josm.plugins.josmmcp.data;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.openstreetmap.josm.data.coor.EastNorth;
+import org.openstreetmap.josm.data.coor.LatLon;
+import org.openstreetmap.josm.data.osm.DataSet;
+import org.openstreetmap.josm.data.osm.Node;
+import org.openstreetmap.josm.data.osm.OsmPrimitive;
+import org.openstreetmap.josm.data.osm.Way;
+import org.openstreetmap.josm.data.osm.event.AbstractDatasetChangedEvent;
+import org.openstreetmap.josm.data.osm.event.DataChangedEvent;
+import org.openstreetmap.josm.data.osm.event.DataSetListener;
+import org.openstreetmap.josm.data.osm.event.NodeMovedEvent;
+import org.openstreetmap.josm.data.osm.event.PrimitivesAddedEvent;
+import org.openstreetmap.josm.data.osm.event.PrimitivesRemovedEvent;
+import org.openstreetmap.josm.data.osm.event.RelationMembersChangedEvent;
+import org.openstreetmap.josm.data.osm.event.TagsChangedEvent;
+import org.openstreetmap.josm.data.osm.event.WayNodesChangedEvent;
+import org.openstreetmap.josm.data.projection.Projection;
+import org.openstreetmap.josm.data.projection.Projections;
+import org.openstreetmap.josm.tools.Geometry;
+
+/**
+ * Length, area, centroid and bounds of the ways of a DataSet, computed once
+ * and kept until the way or one of its nodes changes.
+ *
+ * OSM versions do not change with local edits, so the entries are dropped
+ * from the change events instead: a moved node drops the ways using it, a
+ * changed node list drops the way. Entries are keyed by unique id so the cache
+ * does not keep the primitives, nor the DataSet, reachable. {@link #get(Way)}
+ * may be called concurrently by threads working under the read lock.
+ */
+public final class GeometryCache {
+
+	private static final Map<DataSet, GeometryCache> CACHES = new WeakHashMap<>();
+	// Areas are computed in Web Mercator and scaled back at the centroid latitude
+	private static final Projection MERCATOR = Projections.getProjectionByCode("EPSG:3857");
+
+	private final Map<Long, WayGeometry> ways = new ConcurrentHashMap<>();
+	private final Listener listener = new Listener();
+
+	private GeometryCache() {
+	}
+
+	/**
+	 * Returns the cache of a DataSet.
+	 */
+	public static GeometryCache of(DataSet ds) {
+		synchronized (CACHES) {
+			GeometryCache cache = CACHES.get(ds);
+			if (cache == null) {
+				cache = new GeometryCache();
+				ds.addDataSetListener(cache.listener);
+				CACHES.put(ds, cache);
+			}
+			return cache;
+		}
+	}
+
+	/**
+	 * Returns the geometry of a way of the DataSet, computing it if needed.
+	 * Must be called with the DataSet read lock held.
+	 */
+	public WayGeometry get(Way w) {
+		WayGeometry g = ways.get(w.getUniqueId());
+		if (g == null) {
+			g = compute(w);
+			ways.put(w.getUniqueId(), g);
+		}
+		return g;
+	}
+
+	/**
+	 * Number of ways whose geometry is cached.
+	 */
+	public int size() {
+		return ways.size();
+	}
+
+	static WayGeometry compute(Way w) {
+		List<Node> nodes = new ArrayList<>(w.getNodesCount());
+		double minLat = Double.NaN;
+		double minLon = Double.NaN;
+		double maxLat = Double.NaN;
+		double maxLon = Double.NaN;
+		for (int i = 0, n = w.getNodesCount(); i < n; i++) {
+			Node nd = w.getNode(i);
+			if (!nd.isLatLonKnown()) {
+				continue;
+			}
+			nodes.add(nd);
+			double lat = nd.lat();
+			double lon = nd.lon();
+			if (nodes.size() == 1) {
+				minLat = maxLat = lat;
+				minLon = maxLon = lon;
+			} else {
+				minLat = Math.min(minLat, lat);
+				maxLat = Math.max(maxLat, lat);
+				minLon = Math.min(minLon, lon);
+				maxLon = Math.max(maxLon, lon);
+			}
+		}
+
+		// length-weighted mean of the segment midpoints, the centroid of a line
+		double length = 0;
+		double sumLat = 0;
+		double sumLon = 0;
+		for (int i = 1; i < nodes.size(); i++) {
+			Node a = nodes.get(i - 1);
+			Node b = nodes.get(i);
+			double d = a.greatCircleDistance(b);
+			length += d;
+			sumLat += d * (a.lat() + b.lat()) / 2;
+			sumLon += d * (a.lon() + b.lon()) / 2;
+		}
+		double lat = length > 0 ? sumLat / length : minLat;
+		double lon = length > 0 ? sumLon / length : minLon;
+
+		double area = 0;
+		if (w.isClosed() && nodes.size() >= 4) {
+			LatLon c = centroid(nodes);
+			if (c != null) {
+				lat = c.lat();
+				lon = c.lon();
+			}
+			area = area(nodes, lat);
+		}
+		return new WayGeometry(length, area, lat, lon, minLat, minLon, maxLat, maxLon);
+	}
+
+	/**
+	 * Returns the area in square meters of a ring of nodes, closed or not, like
+	 * the rings assembled from the ways of a multipolygon.
+	 */
+	public static double ringArea(List<Node> ring) {
+		List<Node> nodes = new ArrayList<>(ring.size() + 1);
+		for (Node nd : ring) {
+			if (nd.isLatLonKnown()) {
+				nodes.add(nd);
+			}
+		}
+		if (!nodes.isEmpty() && nodes.get(0) != nodes.get(nodes.size() - 1)) {
+			nodes.add(nodes.get(0));
+		}
+		if (nodes.size() < 4) {
+			return 0;
+		}
+		LatLon c = centroid(nodes);
+		return area(nodes, c != null ? c.lat() : nodes.get(0).lat());
+	}
+
+	private static LatLon centroid(List<Node> nodes) {
+		List<EastNorth> en = new ArrayList<>(nodes.size());
+		for (Node nd : nodes) {
+			en.add(MERCATOR.latlon2eastNorth(nd));
+		}
+		EastNorth c = Geometry.getCentroidEN(en);
+		if (c == null || Double.isNaN(c.east()) || Double.isNaN(c.north())) {
+			return null;
+		}
+		return MERCATOR.eastNorth2latlon(c);
+	}
+
+	private static double area(List<Node> closedRing, double lat) {
+		double scale = Math.cos(Math.toRadians(lat));
+		return Geometry.getAreaAndPerimeter(closedRing, MERCATOR).getArea() * scale * scale;
+	}
+
+	/**
+	 * Measures of a way: length and area in meters and square meters (the area
+	 * is 0 unless the way is closed), centroid and bounds in degrees (NaN when
+	 * no node has coordinates).
+	 */
+	public static final class WayGeometry {
+		private final double length;
+		private final double area;
+		private final double lat;
+		private final double lon;
+		private final double minLat;
+		private final double minLon;
+		private final double maxLat;
+		private final double maxLon;
+
+		WayGeometry(double length, double area, double lat, double lon, double minLat, double minLon,
+				double maxLat, double maxLon) {
+			this.length = length;
+			this.area = area;
+			this.lat = lat;
+			this.lon = lon;
+			this.minLat = minLat;
+			this.minLon = minLon;
+			this.maxLat = maxLat;
+			this.maxLon = maxLon;
+		}
+
+		public double getLength() {
+			return length;
+		}
+
+		public double getArea() {
+			return area;
+		}
+
+		public double getLat() {
+			return lat;
+		}
+
+		public double getLon() {
+			return lon;
+		}
+
+		public double getMinLat() {
+			return minLat;
+		}
+
+		public double getMinLon() {
+			return minLon;
+		}
+
+		public double getMaxLat() {
+			return maxLat;
+		}
+
+		public double getMaxLon() {
+			return maxLon;
+		}
+	}
+
+	private class Listener implements DataSetListener {
+
+		private void drop(OsmPrimitive prim) {
+			if (prim instanceof Way) {
+				ways.remove(prim.getUniqueId());
+			}
+		}
+
+		@Override
+		public void primitivesAdded(PrimitivesAddedEvent event) {
+			// a new primitive has no entry yet
+		}
+
+		@Override
+		public void primitivesRemoved(PrimitivesRemovedEvent event) {
+			for (OsmPrimitive prim : event.getPrimitives()) {
+				drop(prim);
+			}
+		}
+
+		@Override
+		public void tagsChanged(TagsChangedEvent event) {
+			// tags do not change the geometry
+		}
+
+		@Override
+		public void nodeMoved(NodeMovedEvent event) {
+			for (OsmPrimitive referrer : event.getNode().getReferrers()) {
+				drop(referrer);
+			}
+		}
+
+		@Override
+		public void wayNodesChanged(WayNodesChangedEvent event) {
+			drop(event.getChangedWay());
+		}
+
+		@Override
+		public void relationMembersChanged(RelationMembersChangedEvent event) {
+			// relations are measured from their member ways, never cached
+		}
+
+		@Override
+		public void otherDatasetChange(AbstractDatasetChangedEvent event) {
+			// flags and changeset ids do not change the geometry
+		}
+
+		@Override
+		public void dataChanged(DataChangedEvent event) {
+			// Events cumulated during an update are delivered together
+			List<AbstractDatasetChangedEvent> events = event.getEvents();
+			if (events == null) {
+				ways.clear();
+			} else {
+				for (AbstractDatasetChangedEvent e : events) {
+					e.fire(this);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,483 @@
+/*
+ * JosmMCPPlugin - JOSM plugin to integrate JOSM with the Model Context Protocol
+ * Copyright (C) 2025-2026 Pengunaria.dev
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.openstreetmap.josm.plugins.josmmcp.data;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.openstreetmap.josm.data.osm.DataSet;
+import org.openstreetmap.josm.data.osm.OsmPrimitive;
+import org.openstreetmap.josm.data.osm.OsmPrimitiveType;
+import org.openstreetmap.josm.data.osm.event.AbstractDatasetChangedEvent;
+import org.openstreetmap.josm.data.osm.event.DataChangedEvent;
+import org.openstreetmap.josm.data.osm.event.DataSetListener;
+import org.openstreetmap.josm.data.osm.event.NodeMovedEvent;
+import org.openstreetmap.josm.data.osm.event.PrimitivesAddedEvent;
+import org.openstreetmap.josm.data.osm.event.PrimitivesRemovedEvent;
+import org.openstreetmap.josm.data.osm.event.RelationMembersChangedEvent;
+import org.openstreetmap.josm.data.osm.event.TagsChangedEvent;
+import org.openstreetmap.josm.data.osm.event.WayNodesChangedEvent;
+import org.openstreetmap.josm.spi.preferences.Config;
+import org.openstreetmap.josm.tools.Logging;
+
+/**
+ * Inverted index of the tags of the edit DataSet: for each key, and each
+ * key=value pair, the sorted codes of the primitives having it. A code is the
+ * unique id shifted left by two bits, with the type in the low bits.
+ *
+ * The index is built on a background thread the first time it is asked for,
+ * from a snapshot of the primitives taken under the read lock; the change
+ * events received meanwhile are replayed once the snapshot is indexed. After
+ * that, tag and add/remove events keep it current. Only the last DataSet
+ * asked for is indexed. Enabled by <code>josmmcp.search.tag_index</code>.
+ */
+public final class TagIndex implements DataSetListener {
+
+	private static final boolean ENABLED = Config.getPref().getBoolean("josmmcp.search.tag_index", false);
+	private static final OsmPrimitiveType[] TYPES = OsmPrimitiveType.values();
+	// key=value, key=* or -key..., the key and value optionally quoted
+	private static final Pattern TERM = Pattern
+			.compile("(-)?(?:\"([^\"]+)\"|([^\\s\"=*:()|~<>!-][^\\s\"=*:()|~<>!]*))(?:=(?:(\\*)|\"([^\"]+)\"|([^\\s\"=*:()|~<>!]+)))?");
+
+	// separates the key from the value in the key=value entries
+	private static final char SEPARATOR = '\0';
+
+	private static TagIndex current;
+
+	private final WeakReference<DataSet> dataSet;
+	private final Map<String, Postings> postings = new HashMap<>();
+	// events received while building, null once built
+	private List<AbstractDatasetChangedEvent> pending = new ArrayList<>();
+	private volatile boolean ready;
+
+	private TagIndex(DataSet ds) {
+		this.dataSet = new WeakReference<>(ds);
+	}
+
+	/**
+	 * Returns the index of a DataSet, or <code>null</code> while it is being
+	 * built or when the index is disabled. Must be called with the DataSet read
+	 * lock held.
+	 */
+	public static TagIndex get(DataSet ds) {
+		if (!ENABLED) {
+			return null;
+		}
+		TagIndex index;
+		synchronized (TagIndex.class) {
+			if (current == null || current.dataSet.get() != ds) {
+				if (current != null) {
+					current.close();
+				}
+				current = new TagIndex(ds);
+				ds.addDataSetListener(current);
+				current.startBuild(ds);
+			}
+			index = current;
+		}
+		return index.ready ? index : null;
+	}
+
+	private void close() {
+		DataSet ds = dataSet.get();
+		if (ds != null) {
+			ds.removeDataSetListener(this);
+		}
+	}
+
+	/**
+	 * Indexes a snapshot of the primitives. The caller holds the read lock, so
+	 * no event can be missed between the snapshot and the listener.
+	 */
+	private void startBuild(DataSet ds) {
+		OsmPrimitive[] snapshot = ds.allPrimitives().toArray(new OsmPrimitive[0]);
+		Thread builder = new Thread(() -> build(snapshot), "josmmcp-tag-index");
+		builder.setDaemon(true);
+		builder.start();
+	}
+
+	private void build(OsmPrimitive[] snapshot) {
+		long start = System.nanoTime();
+		Map<String, Postings> built = new HashMap<>();
+		for (OsmPrimitive prim : snapshot) {
+			if (!prim.isDeleted()) {
+				long code = code(prim);
+				prim.visitKeys((p, key, value) -> {
+					built.computeIfAbsent(key, k -> new Postings()).append(code);
+					built.computeIfAbsent(key + SEPARATOR + value, k -> new Postings()).append(code);
+				});
+			}
+		}
+		for (Postings p : built.values()) {
+			p.sort();
+		}
+		synchronized (this) {
+			postings.putAll(built);
+			List<AbstractDatasetChangedEvent> events = pending;
+			pending = null;
+			for (AbstractDatasetChangedEvent e : events) {
+				e.fire(this);
+			}
+			ready = true;
+		}
+		Logging.info(String.format("Tag index of %d elements built in %d ms", snapshot.length,
+				(System.nanoTime() - start) / 1_000_000));
+	}
+
+	/**
+	 * Returns the codes of the candidate matches of a query, a superset of the
+	 * matches that the caller still has to verify, or <code>null</code> when
+	 * the query is not a conjunction of <code>key=value</code>,
+	 * <code>key=*</code> and negated terms with at least a positive term.
+	 */
+	public long[] candidates(String query) {
+		List<String> terms = terms(query);
+		if (terms == null) {
+			return null;
+		}
+		List<long[]> lists = new ArrayList<>(terms.size());
+		for (String term : terms) {
+			Postings p;
+			synchronized (this) {
+				p = postings.get(term);
+			}
+			if (p == null) {
+				return new long[0];
+			}
+			lists.add(p.snapshot());
+		}
+		lists.sort(Comparator.comparingInt(l -> l.length));
+		long[] result = lists.get(0);
+		for (int i = 1; i < lists.size() && result.length > 0; i++) {
+			result = intersect(result, lists.get(i));
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the postings keys of the positive terms of a query, or
+	 * <code>null</code> when the query is not made only of such terms and
+	 * negations. Quoted keys or values with white space are left to the
+	 * matcher too.
+	 */
+	static List<String> terms(String query) {
+		if (query == null) {
+			return null;
+		}
+		String q = query.trim();
+		List<String> terms = new ArrayList<>();
+		Matcher m = TERM.matcher(q);
+		for (int pos = 0; pos < q.length();) {
+			m.region(pos, q.length());
+			if (!m.lookingAt() || (m.end() < q.length() && !Character.isWhitespace(q.charAt(m.end())))) {
+				return null;
+			}
+			pos = m.end();
+			while (pos < q.length() && Character.isWhitespace(q.charAt(pos))) {
+				pos++;
+			}
+			String key = m.group(2) != null ? m.group(2) : m.group(3);
+			boolean hasValue = m.group(4) != null || m.group(5) != null || m.group(6) != null;
+			if (m.group(1) != null) {
+				// negations are left to the matcher
+				continue;
+			} else if (!hasValue) {
+				// a bare word searches keys and values by substring
+				return null;
+			}
+			String value = m.group(5) != null ? m.group(5) : m.group(6);
+			if (hasWhitespace(key) || (value != null && hasWhitespace(value))) {
+				return null;
+			}
+			terms.add(value == null ? key : key + SEPARATOR + value);
+		}
+		return terms.isEmpty() ? null : terms;
+	}
+
+	private static boolean hasWhitespace(String s) {
+		for (int i = 0, n = s.length(); i < n; i++) {
+			if (Character.isWhitespace(s.charAt(i))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Resolves codes to the primitives of a DataSet.
+	 */
+	public static List<OsmPrimitive> resolve(DataSet ds, long[] codes) {
+		List<OsmPrimitive> result = new ArrayList<>(codes.length);
+		for (long code : codes) {
+			OsmPrimitive prim = ds.getPrimitiveById(code >> 2, TYPES[(int) (code & 3)]);
+			if (prim != null) {
+				result.add(prim);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Intersects a short sorted list with a longer one, by binary search of
+	 * each element of the short list from the last position found.
+	 */
+	static long[] intersect(long[] small, long[] large) {
+		long[] result = new long[small.length];
+		int n = 0;
+		int from = 0;
+		for (long code : small) {
+			int pos = Arrays.binarySearch(large, from, large.length, code);
+			if (pos >= 0) {
+				result[n++] = code;
+				from = pos + 1;
+			} else {
+				from = -pos - 1;
+			}
+			if (from == large.length) {
+				break;
+			}
+		}
+		return Arrays.copyOf(result, n);
+	}
+
+	private static long code(OsmPrimitive prim) {
+		return (prim.getUniqueId() << 2) | prim.getType().ordinal();
+	}
+
+	private void add(OsmPrimitive prim, String key, String value) {
+		long code = code(prim);
+		postings.computeIfAbsent(key, k -> new Postings()).add(code);
+		postings.computeIfAbsent(key + SEPARATOR + value, k -> new Postings()).add(code);
+	}
+
+	private void remove(OsmPrimitive prim, String key, String value) {
+		long code = code(prim);
+		Postings p = postings.get(key);
+		if (p != null) {
+			p.remove(code);
+		}
+		p = postings.get(key + SEPARATOR + value);
+		if (p != null) {
+			p.remove(code);
+		}
+	}
+
+	/**
+	 * Queues the event while the index is built.
+	 */
+	private boolean deferred(AbstractDatasetChangedEvent event) {
+		if (pending != null) {
+			pending.add(event);
+			return true;
+		}
+		return false;
+	}
+
+	@Override
+	public synchronized void primitivesAdded(PrimitivesAddedEvent event) {
+		if (!deferred(event)) {
+			for (OsmPrimitive prim : event.getPrimitives()) {
+				prim.visitKeys((p, key, value) -> add(prim, key, value));
+			}
+		}
+	}
+
+	@Override
+	public synchronized void primitivesRemoved(PrimitivesRemovedEvent event) {
+		if (!deferred(event)) {
+			for (OsmPrimitive prim : event.getPrimitives()) {
+				prim.visitKeys((p, key, value) -> remove(prim, key, value));
+			}
+		}
+	}
+
+	@Override
+	public synchronized void tagsChanged(TagsChangedEvent event) {
+		if (!deferred(event)) {
+			OsmPrimitive prim = event.getPrimitive();
+			for (Map.Entry<String, String> old : event.getOriginalKeys().entrySet()) {
+				remove(prim, old.getKey(), old.getValue());
+			}
+			if (!prim.isDeleted()) {
+				prim.visitKeys((p, key, value) -> add(prim, key, value));
+			}
+		}
+	}
+
+	@Override
+	public void nodeMoved(NodeMovedEvent event) {
+	}
+
+	@Override
+	public void wayNodesChanged(WayNodesChangedEvent event) {
+	}
+
+	@Override
+	public void relationMembersChanged(RelationMembersChangedEvent event) {
+	}
+
+	@Override
+	public void otherDatasetChange(AbstractDatasetChangedEvent event) {
+	}
+
+	@Override
+	public void dataChanged(DataChangedEvent event) {
+		// Events cumulated during an update are delivered together
+		List<AbstractDatasetChangedEvent> events = event.getEvents();
+		if (events != null) {
+			for (AbstractDatasetChangedEvent e : events) {
+				e.fire(this);
+			}
+			return;
+		}
+		// rebuilt on the next search
+		synchronized (TagIndex.class) {
+			if (current == this) {
+				close();
+				current = null;
+			}
+		}
+	}
+
+	/**
+	 * Sorted codes, with the recent additions and removals kept aside and
+	 * merged in when the list is read or when they grow large.
+	 */
+	static final class Postings {
+		private long[] sorted = new long[0];
+		private int size;
+		private long[] added = new long[0];
+		private int addedSize;
+		private long[] removed = new long[0];
+		private int removedSize;
+
+		// used while building, before sort()
+		void append(long code) {
+			if (size == sorted.length) {
+				sorted = Arrays.copyOf(sorted, Math.max(4, size * 2));
+			}
+			sorted[size++] = code;
+		}
+
+		void sort() {
+			Arrays.sort(sorted, 0, size);
+			sorted = Arrays.copyOf(sorted, size);
+		}
+
+		synchronized void add(long code) {
+			if (drop(removed, removedSize, code)) {
+				removedSize--;
+			} else if (Arrays.binarySearch(sorted, 0, size, code) < 0 && !contains(added, addedSize, code)) {
+				added = push(added, addedSize++, code);
+				compactIfLarge();
+			}
+		}
+
+		synchronized void remove(long code) {
+			if (drop(added, addedSize, code)) {
+				addedSize--;
+			} else if (Arrays.binarySearch(sorted, 0, size, code) >= 0 && !contains(removed, removedSize, code)) {
+				removed = push(removed, removedSize++, code);
+				compactIfLarge();
+			}
+		}
+
+		synchronized long[] snapshot() {
+			compact();
+			return sorted;
+		}
+
+		private static long[] push(long[] array, int size, long code) {
+			if (size == array.length) {
+				array = Arrays.copyOf(array, Math.max(8, size * 2));
+			}
+			array[size] = code;
+			return array;
+		}
+
+		/**
+		 * Removes a code from an unsorted pending list, moving the last one in
+		 * its place.
+		 */
+		private static boolean drop(long[] array, int size, long code) {
+			for (int i = 0; i < size; i++) {
+				if (array[i] == code) {
+					array[i] = array[size - 1];
+					return true;
+				}
+			}
+			return false;
+		}
+
+		private static boolean contains(long[] array, int size, long code) {
+			for (int i = 0; i < size; i++) {
+				if (array[i] == code) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		private void compactIfLarge() {
+			if (addedSize + removedSize > Math.max(64, size / 8)) {
+				compact();
+			}
+		}
+
+		/**
+		 * Merges the pending changes. The additions are never in the sorted
+		 * list and the removals always are.
+		 */
+		private void compact() {
+			if (addedSize == 0 && removedSize == 0) {
+				return;
+			}
+			Arrays.sort(added, 0, addedSize);
+			Arrays.sort(removed, 0, removedSize);
+			long[] merged = new long[size + addedSize - removedSize];
+			int n = 0;
+			int a = 0;
+			int r = 0;
+			for (int i = 0; i < size; i++) {
+				long code = sorted[i];
+				if (r < removedSize && removed[r] == code) {
+					r++;
+					continue;
+				}
+				while (a < addedSize && added[a] < code) {
+					merged[n++] = added[a++];
+				}
+				merged[n++] = code;
+			}
+			while (a < addedSize) {
+				merged[n++] = added[a++];
+			}
+			sorted = merged;
+			size = n;
+			addedSize = 0;
+			removedSize = 0;
+		}
+	}
+}
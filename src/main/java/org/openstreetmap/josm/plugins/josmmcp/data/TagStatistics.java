@@ -0,0 +1,320 @@
+/*
+ * JosmMCPPlugin - JOSM plugin to integrate JOSM with the Model Context Protocol
+ * Copyright (C) 2025-2026 Pengunaria.dev
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.openstreetmap.josm.plugins.josmmcp.data;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.openstreetmap.josm.data.osm.DataSet;
+import org.openstreetmap.josm.data.osm.OsmPrimitive;
+import org.openstreetmap.josm.data.osm.OsmPrimitiveType;
+import org.openstreetmap.josm.data.osm.event.AbstractDatasetChangedEvent;
+import org.openstreetmap.josm.data.osm.event.DataChangedEvent;
+import org.openstreetmap.josm.data.osm.event.DataSetListener;
+import org.openstreetmap.josm.data.osm.event.NodeMovedEvent;
+import org.openstreetmap.josm.data.osm.event.PrimitivesAddedEvent;
+import org.openstreetmap.josm.data.osm.event.PrimitivesRemovedEvent;
+import org.openstreetmap.josm.data.osm.event.RelationMembersChangedEvent;
+import org.openstreetmap.josm.data.osm.event.TagsChangedEvent;
+import org.openstreetmap.josm.data.osm.event.WayNodesChangedEvent;
+
+/**
+ * Counts of primitives by type, of keys by type and of the values of each
+ * key, over the non-deleted primitives.
+ *
+ * The statistics of a whole DataSet are computed the first time they are
+ * asked for, then kept current from the change events, so reading them costs
+ * in the number of distinct tags rather than of primitives. Other statistics
+ * are accumulated with {@link #add(OsmPrimitive)}.
+ */
+public final class TagStatistics {
+
+	private static final Map<DataSet, Live> LIVE = new WeakHashMap<>();
+
+	private final long[] types = new long[3];
+	private final long[] untagged = new long[3];
+	// per-type counts of each key
+	private final Map<String, long[]> keys = new HashMap<>();
+	private final Map<String, Map<String, long[]>> values = new HashMap<>();
+
+	/**
+	 * Returns the statistics of a whole DataSet. Must be called with the
+	 * DataSet read lock held.
+	 */
+	public static TagStatistics of(DataSet ds) {
+		Live live;
+		synchronized (LIVE) {
+			live = LIVE.get(ds);
+			if (live == null) {
+				live = new Live();
+				ds.addDataSetListener(live);
+				LIVE.put(ds, live);
+			}
+		}
+		return live.get(ds);
+	}
+
+	public synchronized void add(OsmPrimitive prim) {
+		if (!prim.isDeleted()) {
+			count(prim, 1);
+		}
+	}
+
+	private void count(OsmPrimitive prim, int delta) {
+		int type = prim.getType().ordinal();
+		types[type] += delta;
+		if (!prim.hasKeys()) {
+			untagged[type] += delta;
+		}
+		prim.visitKeys((p, key, value) -> count(type, key, value, delta));
+	}
+
+	private void count(int type, Map<String, String> tags, int delta) {
+		types[type] += delta;
+		if (tags.isEmpty()) {
+			untagged[type] += delta;
+		}
+		for (Map.Entry<String, String> tag : tags.entrySet()) {
+			count(type, tag.getKey(), tag.getValue(), delta);
+		}
+	}
+
+	private void count(int type, String key, String value, int delta) {
+		long[] byType = keys.computeIfAbsent(key, k -> new long[3]);
+		byType[type] += delta;
+		Map<String, long[]> counts = values.computeIfAbsent(key, k -> new HashMap<>());
+		long[] count = counts.computeIfAbsent(value, v -> new long[1]);
+		count[0] += delta;
+		if (count[0] == 0) {
+			counts.remove(value);
+		}
+		if (total(byType) == 0) {
+			keys.remove(key);
+			values.remove(key);
+		}
+	}
+
+	/**
+	 * Returns the number of nodes, ways and relations.
+	 */
+	public synchronized long[] getTypeCounts() {
+		return types.clone();
+	}
+
+	/**
+	 * Returns the number of untagged nodes, ways and relations.
+	 */
+	public synchronized long[] getUntaggedCounts() {
+		return untagged.clone();
+	}
+
+	/**
+	 * Returns the number of distinct keys.
+	 */
+	public synchronized int getKeyCount() {
+		return keys.size();
+	}
+
+	/**
+	 * Returns the most used keys, with their node, way and relation counts.
+	 */
+	public synchronized List<Map.Entry<String, long[]>> topKeys(int n) {
+		List<Map.Entry<String, long[]>> result = new ArrayList<>(keys.size());
+		for (Map.Entry<String, long[]> e : keys.entrySet()) {
+			result.add(Map.entry(e.getKey(), e.getValue().clone()));
+		}
+		result.sort((a, b) -> Long.compare(total(b.getValue()), total(a.getValue())));
+		return result.size() > n ? new ArrayList<>(result.subList(0, n)) : result;
+	}
+
+	/**
+	 * Returns the most used values of a key with their counts.
+	 */
+	public synchronized List<Map.Entry<String, Long>> topValues(String key, int n) {
+		Map<String, long[]> counts = values.get(key);
+		List<Map.Entry<String, Long>> result = new ArrayList<>();
+		if (counts != null) {
+			for (Map.Entry<String, long[]> e : counts.entrySet()) {
+				result.add(Map.entry(e.getKey(), e.getValue()[0]));
+			}
+		}
+		result.sort((a, b) -> Long.compare(b.getValue(), a.getValue()));
+		return result.size() > n ? new ArrayList<>(result.subList(0, n)) : result;
+	}
+
+	/**
+	 * Returns the number of distinct values of a key.
+	 */
+	public synchronized int getValueCount(String key) {
+		Map<String, long[]> counts = values.get(key);
+		return counts != null ? counts.size() : 0;
+	}
+
+	public static long total(long[] byType) {
+		return byType[0] + byType[1] + byType[2];
+	}
+
+	/**
+	 * Keeps the statistics of a DataSet current.
+	 *
+	 * The events of an update are delivered after all its changes, so the
+	 * primitive may already be in a later state than the one an event
+	 * describes. The events only record the state each primitive had before
+	 * its first change: its tags, from the original keys of its first tag
+	 * change, and whether it was counted, from its first addition or removal.
+	 * The primitives are counted again in their current state on the next
+	 * read, which happens once the update has ended. They are kept by id so the
+	 * DataSet is not referenced.
+	 */
+	private static class Live implements DataSetListener {
+		private static final OsmPrimitiveType[] TYPES = OsmPrimitiveType.values();
+		// changed primitives kept until the next read, beyond which a full count is cheaper
+		private static final int MAX_CHANGED = 100_000;
+
+		private TagStatistics stats;
+		private final Map<Long, Before> changed = new HashMap<>();
+
+		private synchronized TagStatistics get(DataSet ds) {
+			if (stats == null) {
+				TagStatistics s = new TagStatistics();
+				for (OsmPrimitive prim : ds.allPrimitives()) {
+					s.add(prim);
+				}
+				stats = s;
+				changed.clear();
+			} else if (!changed.isEmpty()) {
+				synchronized (stats) {
+					for (Map.Entry<Long, Before> e : changed.entrySet()) {
+						long code = e.getKey();
+						OsmPrimitive prim = ds.getPrimitiveById(code >> 2, TYPES[(int) (code & 3)]);
+						e.getValue().recount(stats, (int) (code & 3), prim);
+					}
+				}
+				changed.clear();
+			}
+			return stats;
+		}
+
+		private Before before(OsmPrimitive prim) {
+			if (changed.size() >= MAX_CHANGED) {
+				// counted again on the next use
+				stats = null;
+				changed.clear();
+			}
+			return changed.computeIfAbsent((prim.getUniqueId() << 2) | prim.getType().ordinal(), k -> new Before());
+		}
+
+		@Override
+		public synchronized void primitivesAdded(PrimitivesAddedEvent event) {
+			if (stats != null) {
+				for (OsmPrimitive prim : event.getPrimitives()) {
+					Before b = before(prim);
+					if (b.counted == null) {
+						b.counted = false;
+					}
+				}
+			}
+		}
+
+		@Override
+		public synchronized void primitivesRemoved(PrimitivesRemovedEvent event) {
+			if (stats != null) {
+				for (OsmPrimitive prim : event.getPrimitives()) {
+					Before b = before(prim);
+					if (b.counted == null) {
+						// a deleted primitive is removed again when purged, out of its DataSet
+						b.counted = !prim.isDeleted() || prim.getDataSet() != null;
+						// a purged primitive cannot be found by id any more
+						b.removedTags = prim.getKeys();
+					}
+				}
+			}
+		}
+
+		@Override
+		public synchronized void tagsChanged(TagsChangedEvent event) {
+			if (stats != null) {
+				Before b = before(event.getPrimitive());
+				if (b.tags == null) {
+					b.tags = new HashMap<>(event.getOriginalKeys());
+				}
+			}
+		}
+
+		@Override
+		public void nodeMoved(NodeMovedEvent event) {
+		}
+
+		@Override
+		public void wayNodesChanged(WayNodesChangedEvent event) {
+		}
+
+		@Override
+		public void relationMembersChanged(RelationMembersChangedEvent event) {
+		}
+
+		@Override
+		public void otherDatasetChange(AbstractDatasetChangedEvent event) {
+		}
+
+		@Override
+		public synchronized void dataChanged(DataChangedEvent event) {
+			// Events cumulated during an update are delivered together
+			List<AbstractDatasetChangedEvent> events = event.getEvents();
+			if (events == null) {
+				// counted again on the next use
+				stats = null;
+				changed.clear();
+			} else {
+				for (AbstractDatasetChangedEvent e : events) {
+					e.fire(this);
+				}
+			}
+		}
+	}
+
+	/**
+	 * The state of a primitive before its first change since the last read.
+	 * Unset fields did not change, and are taken from the primitive.
+	 */
+	private static final class Before {
+		private Boolean counted;
+		private Map<String, String> tags;
+		private Map<String, String> removedTags;
+
+		private void recount(TagStatistics stats, int type, OsmPrimitive prim) {
+			boolean countedNow = prim != null && !prim.isDeleted();
+			boolean countedBefore = counted != null ? counted : countedNow;
+			if (countedBefore) {
+				if (tags != null) {
+					stats.count(type, tags, -1);
+				} else if (prim != null) {
+					stats.count(prim, -1);
+				} else {
+					stats.count(type, removedTags, -1);
+				}
+			}
+			if (countedNow) {
+				stats.count(prim, 1);
+			}
+		}
+	}
+}
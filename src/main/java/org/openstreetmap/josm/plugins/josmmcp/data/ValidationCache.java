@@ -0,0 +1,308 @@
+/*
+ * JosmMCPPlugin - JOSM plugin to integrate JOSM with the Model Context Protocol
+ * Copyright (C) 2025-2026 Pengunaria.dev
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.openstreetmap.josm.plugins.josmmcp.data;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import org.openstreetmap.josm.data.osm.DataSet;
+import org.openstreetmap.josm.data.osm.OsmPrimitive;
+import org.openstreetmap.josm.data.osm.OsmPrimitiveType;
+import org.openstreetmap.josm.data.osm.Way;
+import org.openstreetmap.josm.data.validation.OsmValidator;
+import org.openstreetmap.josm.data.validation.Severity;
+import org.openstreetmap.josm.data.validation.Test;
+import org.openstreetmap.josm.data.validation.TestError;
+import org.openstreetmap.josm.gui.progress.NullProgressMonitor;
+import org.openstreetmap.josm.spi.preferences.Config;
+import org.openstreetmap.josm.tools.Logging;
+
+/**
+ * Runs the enabled JOSM validator tests and keeps the issues found for each
+ * primitive, so that validating again only runs the tests on the primitives
+ * changed since.
+ *
+ * OSM versions do not change with local edits, so the changes are read from
+ * the {@link ChangeJournal}: a changed primitive loses its issues, together
+ * with the primitives sharing an issue with it, the ways and relations using
+ * it and, for a way, its nodes. An issue between an unchanged primitive and a
+ * changed one shows up once the changed one is validated.
+ *
+ * The tests run on private instances, not the ones of the validator dialog,
+ * and each test runs on its own thread of the common ForkJoinPool. Only the
+ * last DataSet validated is cached. Must be called with the DataSet read lock
+ * held.
+ */
+public final class ValidationCache {
+
+	private static final boolean PARALLEL = Config.getPref().getBoolean("josmmcp.validate.parallel", true);
+	private static final OsmPrimitiveType[] TYPES = OsmPrimitiveType.values();
+	private static final Comparator<Issue> ORDER = Comparator.comparing((Issue i) -> i.severity)
+			.thenComparing(i -> i.test).thenComparing(i -> i.message)
+			.thenComparingLong(i -> i.primitives.length > 0 ? i.primitives[0] : 0);
+
+	private static ValidationCache current;
+	// test instances by class, shared by the successive caches
+	private static final Map<Class<?>, Test> TESTS = new HashMap<>();
+
+	private final WeakReference<DataSet> dataSet;
+	private final String journalId;
+	private final String testSet;
+	// issues of the validated primitives, by code
+	private final Map<Long, List<Issue>> issues = new HashMap<>();
+	private long seq;
+
+	private ValidationCache(DataSet ds, ChangeJournal journal, String testSet) {
+		this.dataSet = new WeakReference<>(ds);
+		this.journalId = journal.getId();
+		this.testSet = testSet;
+		this.seq = journal.getSequence();
+	}
+
+	/**
+	 * Returns the issues of the given primitives, sorted by severity, running
+	 * the tests on those not validated since their last change.
+	 */
+	public static synchronized Result validate(DataSet ds, Collection<OsmPrimitive> primitives) {
+		List<Test> tests = tests();
+		String testSet = tests.stream().map(t -> t.getClass().getName()).collect(Collectors.joining(","));
+		ChangeJournal journal = ChangeJournal.get(ds);
+		if (current == null || current.dataSet.get() != ds || !current.journalId.equals(journal.getId())
+				|| !current.testSet.equals(testSet)) {
+			current = new ValidationCache(ds, journal, testSet);
+		} else {
+			current.update(ds, journal);
+		}
+		return current.run(tests, primitives);
+	}
+
+	private static List<Test> tests() {
+		List<Test> tests = new ArrayList<>();
+		for (Test enabled : OsmValidator.getEnabledTests(false)) {
+			Test test = TESTS.get(enabled.getClass());
+			if (test == null) {
+				try {
+					test = enabled.getClass().getDeclaredConstructor().newInstance();
+					test.initialize();
+				} catch (Exception | LinkageError e) {
+					Logging.warn("Validator test " + enabled.getName() + " skipped: " + e);
+					continue;
+				}
+				TESTS.put(enabled.getClass(), test);
+			}
+			tests.add(test);
+		}
+		tests.sort(Comparator.comparing(t -> t.getClass().getName()));
+		return tests;
+	}
+
+	/**
+	 * Drops the issues touched by the changes recorded since the last run.
+	 */
+	private void update(DataSet ds, ChangeJournal journal) {
+		long now = journal.getSequence();
+		List<ChangeJournal.Change> changes = journal.since(seq, Integer.MAX_VALUE);
+		seq = now;
+		if (changes == null) {
+			issues.clear();
+			return;
+		}
+		for (ChangeJournal.Change c : changes) {
+			drop(code(c.type, c.id));
+			OsmPrimitive prim = ds.getPrimitiveById(c.id, c.type);
+			if (prim == null) {
+				continue;
+			}
+			for (OsmPrimitive referrer : prim.getReferrers()) {
+				drop(code(referrer));
+				for (OsmPrimitive parent : referrer.getReferrers()) {
+					drop(code(parent));
+				}
+			}
+			if (prim instanceof Way) {
+				Way w = (Way) prim;
+				for (int i = 0, n = w.getNodesCount(); i < n; i++) {
+					drop(code(w.getNode(i)));
+				}
+			}
+		}
+	}
+
+	private void drop(long code) {
+		List<Issue> dropped = issues.remove(code);
+		if (dropped != null) {
+			for (Issue issue : dropped) {
+				for (long other : issue.primitives) {
+					issues.remove(other);
+				}
+			}
+		}
+	}
+
+	private Result run(List<Test> tests, Collection<OsmPrimitive> primitives) {
+		List<OsmPrimitive> misses = new ArrayList<>();
+		for (OsmPrimitive prim : primitives) {
+			if (!prim.isDeleted() && !prim.isIncomplete() && !issues.containsKey(code(prim))) {
+				misses.add(prim);
+			}
+		}
+		if (!misses.isEmpty()) {
+			for (OsmPrimitive prim : misses) {
+				issues.put(code(prim), new ArrayList<>());
+			}
+			List<List<Issue>> found = (PARALLEL ? tests.parallelStream() : tests.stream())
+					.map(test -> run(test, misses)).collect(Collectors.toList());
+			for (List<Issue> testIssues : found) {
+				for (Issue issue : testIssues) {
+					for (long code : issue.primitives) {
+						List<Issue> list = issues.get(code);
+						// primitives outside the validated ones keep their own state
+						if (list != null) {
+							list.add(issue);
+						}
+					}
+				}
+			}
+		}
+
+		Set<Issue> result = Collections.newSetFromMap(new IdentityHashMap<>());
+		int validated = 0;
+		for (OsmPrimitive prim : primitives) {
+			List<Issue> list = issues.get(code(prim));
+			if (list != null) {
+				validated++;
+				result.addAll(list);
+			}
+		}
+		List<Issue> sorted = new ArrayList<>(result);
+		sorted.sort(ORDER);
+		return new Result(sorted, validated, validated - misses.size());
+	}
+
+	private static List<Issue> run(Test test, List<OsmPrimitive> primitives) {
+		List<Issue> found = new ArrayList<>();
+		try {
+			test.setPartialSelection(true);
+			test.startTest(NullProgressMonitor.INSTANCE);
+			test.visit(primitives);
+			test.endTest();
+			for (TestError error : test.getErrors()) {
+				found.add(new Issue(error));
+			}
+		} catch (RuntimeException e) {
+			Logging.warn("Validator test " + test.getName() + " failed: " + e);
+		} finally {
+			test.clear();
+		}
+		return found;
+	}
+
+	private static long code(OsmPrimitive prim) {
+		return code(prim.getType(), prim.getUniqueId());
+	}
+
+	private static long code(OsmPrimitiveType type, long id) {
+		return (id << 2) | type.ordinal();
+	}
+
+	/**
+	 * A validation issue, detached from the primitives it refers to.
+	 */
+	public static final class Issue {
+		private final Severity severity;
+		private final String test;
+		private final int code;
+		private final String message;
+		private final String description;
+		private final long[] primitives;
+
+		private Issue(TestError error) {
+			this.severity = error.getSeverity();
+			this.test = error.getTester().getName();
+			this.code = error.getCode();
+			this.message = error.getMessage();
+			this.description = error.getDescription();
+			Set<Long> codes = new TreeSet<>();
+			for (OsmPrimitive prim : error.getPrimitives()) {
+				codes.add(code(prim));
+			}
+			this.primitives = codes.stream().mapToLong(Long::longValue).toArray();
+		}
+
+		public Severity getSeverity() {
+			return severity;
+		}
+
+		public String getTest() {
+			return test;
+		}
+
+		public int getCode() {
+			return code;
+		}
+
+		public String getMessage() {
+			return message;
+		}
+
+		/** additional text, may be <code>null</code> */
+		public String getDescription() {
+			return description;
+		}
+
+		public int getPrimitiveCount() {
+			return primitives.length;
+		}
+
+		public OsmPrimitiveType getPrimitiveType(int i) {
+			return TYPES[(int) (primitives[i] & 3)];
+		}
+
+		public long getPrimitiveId(int i) {
+			return primitives[i] >> 2;
+		}
+	}
+
+	/**
+	 * Issues of a validation, and how many of the primitives had been
+	 * validated before.
+	 */
+	public static final class Result {
+		public final List<Issue> issues;
+		/** number of primitives validated, deleted and incomplete ones excluded */
+		public final int validated;
+		/** number of those whose issues came from the cache */
+		public final int reused;
+
+		private Result(List<Issue> issues, int validated, int reused) {
+			this.issues = issues;
+			this.validated = validated;
+			this.reused = reused;
+		}
+	}
+}
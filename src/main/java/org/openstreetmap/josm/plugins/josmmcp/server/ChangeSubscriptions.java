@@ -0,0 +1,284 @@
+/*
+ * JosmMCPPlugin - JOSM plugin to integrate JOSM with the Model Context Protocol
+ * Copyright (C) 2025-2026 Pengunaria.dev
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.openstreetmap.josm.plugins.josmmcp.server;
+
+import java.lang.ref.WeakReference;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openstreetmap.josm.data.osm.DataSet;
+import org.openstreetmap.josm.data.osm.Node;
+import org.openstreetmap.josm.data.osm.OsmPrimitive;
+import org.openstreetmap.josm.data.osm.SimplePrimitiveId;
+import org.openstreetmap.josm.data.osm.Way;
+import org.openstreetmap.josm.data.osm.search.SearchCompiler;
+import org.openstreetmap.josm.plugins.josmmcp.data.ChangeJournal;
+import org.openstreetmap.josm.plugins.josmmcp.tools.JsonWriter;
+import org.openstreetmap.josm.plugins.josmmcp.tools.SearchCache;
+import org.openstreetmap.josm.plugins.josmmcp.tools.SpatialFilter;
+import org.openstreetmap.josm.spi.preferences.Config;
+import org.openstreetmap.josm.tools.Logging;
+
+import io.modelcontextprotocol.server.McpAsyncServerExchange;
+import io.modelcontextprotocol.spec.McpSchema.LoggingLevel;
+import io.modelcontextprotocol.spec.McpSchema.LoggingMessageNotification;
+
+/**
+ * Pushes the changes matching a query or an area to the MCP sessions that
+ * subscribed to them.
+ *
+ * A subscription only keeps the sequence number of the {@link ChangeJournal}
+ * it has reached: the journal is the buffer, so a slow client costs no memory.
+ * Changes are debounced, then sent as one logging notification (logger
+ * <code>josmmcp.changes</code>, JSON data) per batch, with at most one
+ * notification in flight per subscription. A client that falls behind the
+ * journal, or whose notification timed out, is told to resync; one that keeps
+ * failing is unsubscribed.
+ */
+public final class ChangeSubscriptions {
+
+	public static final String LOGGER = "josmmcp.changes";
+
+	private static final ChangeSubscriptions INSTANCE = new ChangeSubscriptions();
+	private static final int MAX_FAILURES = 3;
+
+	private final int debounceMillis = Config.getPref().getInt("josmmcp.subscriptions.debounce_ms", 250);
+	private final int maxBatch = Config.getPref().getInt("josmmcp.subscriptions.max_batch", 500);
+	private final long sendTimeout = Config.getPref().getLong("josmmcp.subscriptions.send_timeout_ms", 10_000);
+	private final int maxSubscriptions = Config.getPref().getInt("josmmcp.subscriptions.max", 100);
+
+	private final Map<String, Subscription> subscriptions = new ConcurrentHashMap<>();
+	private final AtomicInteger ids = new AtomicInteger();
+	private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+		Thread t = new Thread(r, "josmmcp-notify");
+		t.setDaemon(true);
+		return t;
+	});
+
+	private ChangeSubscriptions() {
+	}
+
+	public static ChangeSubscriptions getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Subscribes a session to the changes of the primitives of a DataSet
+	 * matching a query and an area, both optional.
+	 */
+	public Subscription subscribe(McpAsyncServerExchange session, DataSet ds, String query, SpatialFilter area)
+			throws Exception {
+		if (subscriptions.size() >= maxSubscriptions) {
+			throw new Exception("too many subscriptions");
+		}
+		SearchCompiler.Match matcher = query != null && !query.isEmpty() ? SearchCache.getInstance().matcher(query)
+				: null;
+		Subscription sub = new Subscription("s" + ids.incrementAndGet(), session, ds, matcher, area);
+		subscriptions.put(sub.id, sub);
+		sub.journal.addListener(sub.listener);
+		return sub;
+	}
+
+	/**
+	 * Removes a subscription of a session.
+	 *
+	 * @return <code>false</code> if the session has no such subscription
+	 */
+	public boolean unsubscribe(McpAsyncServerExchange session, String id) {
+		Subscription sub = subscriptions.get(id);
+		if (sub == null || !sub.session.sessionId().equals(session.sessionId())) {
+			return false;
+		}
+		remove(sub);
+		return true;
+	}
+
+	private void remove(Subscription sub) {
+		subscriptions.remove(sub.id);
+		sub.journal.removeListener(sub.listener);
+	}
+
+	/**
+	 * A subscription of a session.
+	 */
+	public final class Subscription {
+		private final String id;
+		private final McpAsyncServerExchange session;
+		private final WeakReference<DataSet> ds;
+		private final ChangeJournal journal;
+		private final SearchCompiler.Match matcher;
+		private final SpatialFilter area;
+		private final Runnable listener = this::changed;
+
+		private long seq;
+		private boolean scheduled;
+		private boolean inFlight;
+		private boolean resyncPending;
+		private int failures;
+
+		private Subscription(String id, McpAsyncServerExchange session, DataSet ds, SearchCompiler.Match matcher,
+				SpatialFilter area) {
+			this.id = id;
+			this.session = session;
+			this.ds = new WeakReference<>(ds);
+			this.journal = ChangeJournal.get(ds);
+			this.matcher = matcher;
+			this.area = area;
+			this.seq = journal.getSequence();
+		}
+
+		public String getId() {
+			return id;
+		}
+
+		public String getJournalId() {
+			return journal.getId();
+		}
+
+		public synchronized long getSequence() {
+			return seq;
+		}
+
+		private synchronized void changed() {
+			if (!scheduled && !inFlight) {
+				scheduled = true;
+				scheduler.schedule(this::flush, debounceMillis, TimeUnit.MILLISECONDS);
+			}
+		}
+
+		private void flush() {
+			DataSet data = ds.get();
+			if (data == null) {
+				remove(this);
+				return;
+			}
+			long from;
+			boolean resync;
+			synchronized (this) {
+				scheduled = false;
+				from = seq;
+				resync = resyncPending;
+			}
+			List<ChangeJournal.Change> changes = journal.since(from, maxBatch);
+			long to;
+			Map<SimplePrimitiveId, Integer> matches = new LinkedHashMap<>();
+			if (changes == null) {
+				resync = true;
+				to = journal.getSequence();
+			} else if (changes.isEmpty() && !resync) {
+				return;
+			} else {
+				to = changes.isEmpty() ? from : changes.get(changes.size() - 1).seq;
+				data.getReadLock().lock();
+				try {
+					for (ChangeJournal.Change c : changes) {
+						collect(data, c, matches);
+					}
+				} finally {
+					data.getReadLock().unlock();
+				}
+			}
+
+			synchronized (this) {
+				seq = to;
+				resyncPending = false;
+				if (matches.isEmpty() && !resync) {
+					if (journal.getSequence() > seq) {
+						changed();
+					}
+					return;
+				}
+				inFlight = true;
+			}
+			String payload = payload(to, resync, matches);
+			session.loggingNotification(new LoggingMessageNotification(LoggingLevel.INFO, LOGGER, payload))
+					.timeout(Duration.ofMillis(sendTimeout)).subscribe(null, e -> sent(e), () -> sent(null));
+		}
+
+		private void collect(DataSet data, ChangeJournal.Change c, Map<SimplePrimitiveId, Integer> matches) {
+			SimplePrimitiveId id = new SimplePrimitiveId(c.id, c.type);
+			OsmPrimitive prim = data.getPrimitiveById(id);
+			if (prim == null) {
+				// Removed from the DataSet, by undoing its creation or by a purge: its
+				// tags and position are gone, so the removal is sent to every
+				// subscription that may have seen the element
+				if (c.kind == ChangeJournal.REMOVED) {
+					matches.merge(id, c.kind, (a, b) -> a | b);
+				}
+				return;
+			}
+			if (matches(prim)) {
+				matches.merge(id, c.kind, (a, b) -> a | b);
+			} else if (c.kind == ChangeJournal.MOVED && prim instanceof Node) {
+				// moving a node changes the geometry of its ways
+				for (Way w : ((Node) prim).getParentWays()) {
+					if (matches(w)) {
+						matches.merge(new SimplePrimitiveId(w.getUniqueId(), w.getType()), c.kind, (a, b) -> a | b);
+					}
+				}
+			}
+		}
+
+		private boolean matches(OsmPrimitive prim) {
+			return (matcher == null || matcher.match(prim)) && (area == null || area.contains(prim));
+		}
+
+		private String payload(long to, boolean resync, Map<SimplePrimitiveId, Integer> matches) {
+			JsonWriter w = new JsonWriter().beginObject();
+			w.name("subscription").value(id).name("journal").value(journal.getId()).name("seq").value(to);
+			w.name("resync").value(resync);
+			w.name("changes").beginArray();
+			for (Map.Entry<SimplePrimitiveId, Integer> m : matches.entrySet()) {
+				w.beginObject().name("type").value(m.getKey().getType().getAPIName()).name("id")
+						.value(m.getKey().getUniqueId()).name("changes").beginArray();
+				for (String kind : ChangeJournal.kindNames(m.getValue())) {
+					w.value(kind);
+				}
+				w.endArray().endObject();
+			}
+			return w.endArray().endObject().toString();
+		}
+
+		private void sent(Throwable error) {
+			synchronized (this) {
+				inFlight = false;
+				if (error == null) {
+					failures = 0;
+				} else if (++failures < MAX_FAILURES) {
+					// the batch may be lost, the client has to read the data again
+					resyncPending = true;
+				} else {
+					Logging.warn("Removing change subscription " + id + " after " + MAX_FAILURES
+							+ " failed notifications: " + error.getMessage());
+					remove(this);
+					return;
+				}
+				if (resyncPending || journal.getSequence() > seq) {
+					changed();
+				}
+			}
+		}
+	}
+}
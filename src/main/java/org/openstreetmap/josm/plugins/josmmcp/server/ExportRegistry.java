@@ -0,0 +1,131 @@
+/*
+ * JosmMCPPlugin - JOSM plugin to integrate JOSM with the Model Context Protocol
+ * Copyright (C) 2025-2026 Pengunaria.dev
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.openstreetmap.josm.plugins.josmmcp.server;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.SecureRandom;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.openstreetmap.josm.spi.preferences.Config;
+import org.openstreetmap.josm.tools.Logging;
+
+/**
+ * The exported files that can be downloaded from <code>/export/{id}</code>.
+ *
+ * Ids are random, so only the client that made an export can find it. The
+ * oldest exports are forgotten once there are too many; temporary files are
+ * then deleted, the files written to a path chosen by the client are kept.
+ */
+public final class ExportRegistry {
+
+	private static final ExportRegistry INSTANCE = new ExportRegistry();
+
+	private final int maxFiles = Math.max(1, Config.getPref().getInt("josmmcp.export.max_files", 100));
+	private final SecureRandom random = new SecureRandom();
+	private final Map<String, Export> exports = new LinkedHashMap<String, Export>(16, 0.75f, false) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Export> eldest) {
+			if (size() > maxFiles) {
+				eldest.getValue().discard();
+				return true;
+			}
+			return false;
+		}
+	};
+	private Path tempDir;
+
+	private ExportRegistry() {
+	}
+
+	public static ExportRegistry getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Creates a temporary file for an export, deleted when the registry forgets
+	 * it or, with the whole temporary directory, when JOSM exits.
+	 */
+	public synchronized Path createTempFile(String suffix) throws IOException {
+		if (tempDir == null || !Files.isDirectory(tempDir)) {
+			Path dir = Files.createTempDirectory("josmmcp-export");
+			Runtime.getRuntime().addShutdownHook(new Thread(() -> deleteDirectory(dir), "josmmcp-export-cleanup"));
+			tempDir = dir;
+		}
+		return Files.createTempFile(tempDir, "export", suffix);
+	}
+
+	private static void deleteDirectory(Path dir) {
+		try (Stream<Path> files = Files.list(dir)) {
+			files.forEach(file -> file.toFile().delete());
+			Files.deleteIfExists(dir);
+		} catch (IOException e) {
+			Logging.warn("Cannot delete the exports in " + dir + ": " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Registers an exported file.
+	 *
+	 * @param temporary whether the file was created by
+	 *                  {@link #createTempFile(String)}
+	 * @return the id of the export
+	 */
+	public synchronized String register(Path file, String contentType, boolean temporary) {
+		byte[] bytes = new byte[16];
+		random.nextBytes(bytes);
+		String id = HexFormat.of().formatHex(bytes);
+		exports.put(id, new Export(file, contentType, temporary));
+		return id;
+	}
+
+	/**
+	 * Returns an export, or <code>null</code> if the id is unknown.
+	 */
+	public synchronized Export get(String id) {
+		return exports.get(id);
+	}
+
+	public static final class Export {
+		public final Path file;
+		public final String contentType;
+		private final boolean temporary;
+
+		private Export(Path file, String contentType, boolean temporary) {
+			this.file = file;
+			this.contentType = contentType;
+			this.temporary = temporary;
+		}
+
+		private void discard() {
+			if (temporary) {
+				try {
+					Files.deleteIfExists(file);
+				} catch (IOException e) {
+					Logging.warn("Cannot delete the export " + file + ": " + e.getMessage());
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,69 @@
+/*
+ * JosmMCPPlugin - JOSM plugin to integrate JOSM with the Model Context Protocol
+ * Copyright (C) 2025-2026 Pengunaria.dev
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.openstreetmap.josm.plugins.josmmcp.server;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
+
+import org.eclipse.jetty.server.HttpOutput;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Serves the files of {@link ExportRegistry} at <code>/export/{id}</code>.
+ * Files are memory-mapped and handed to Jetty, which writes them to the socket
+ * without copying them through the heap.
+ */
+public class ExportServlet extends HttpServlet {
+
+	private static final long serialVersionUID = 1L;
+
+	@Override
+	protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+		String id = req.getPathInfo() != null ? req.getPathInfo().substring(1) : "";
+		ExportRegistry.Export export = ExportRegistry.getInstance().get(id);
+		if (export == null) {
+			resp.sendError(HttpServletResponse.SC_NOT_FOUND);
+			return;
+		}
+		try (FileChannel channel = FileChannel.open(export.file, StandardOpenOption.READ)) {
+			long size = channel.size();
+			resp.setContentType(export.contentType);
+			resp.setContentLengthLong(size);
+			resp.setHeader("Content-Disposition", "attachment; filename=\"" + export.file.getFileName() + "\"");
+			ServletOutputStream out = resp.getOutputStream();
+			if (out instanceof HttpOutput && size <= Integer.MAX_VALUE) {
+				((HttpOutput) out).sendContent(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+			} else {
+				WritableByteChannel target = Channels.newChannel(out);
+				for (long pos = 0; pos < size;) {
+					pos += channel.transferTo(pos, size - pos, target);
+				}
+			}
+		} catch (NoSuchFileException e) {
+			resp.sendError(HttpServletResponse.SC_GONE);
+		}
+	}
+}
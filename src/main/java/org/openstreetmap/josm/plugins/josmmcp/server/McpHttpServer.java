@@ -0,0 +1,148 @@
+/*
+ * JosmMCPPlugin - JOSM plugin to integrate JOSM with the Model Context Protocol
+ * Copyright (C) 2025-2026 Pengunaria.dev
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.openstreetmap.josm.plugins.josmmcp.server;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.servlet.ServletContextHandler;
+import org.eclipse.jetty.servlet.ServletHolder;
+import org.openstreetmap.josm.plugins.josmmcp.tools.BaseTool;
+import org.openstreetmap.josm.plugins.josmmcp.tools.SubscribeChanges;
+import org.openstreetmap.josm.plugins.josmmcp.tools.UnsubscribeChanges;
+
+import io.modelcontextprotocol.common.McpTransportContext;
+import io.modelcontextprotocol.server.McpAsyncServer;
+import io.modelcontextprotocol.server.McpAsyncServerExchange;
+import io.modelcontextprotocol.server.McpServer;
+import io.modelcontextprotocol.server.McpServerFeatures;
+import io.modelcontextprotocol.server.McpStatelessAsyncServer;
+import io.modelcontextprotocol.server.McpStatelessServerFeatures;
+import io.modelcontextprotocol.server.McpTransportContextExtractor;
+import io.modelcontextprotocol.server.transport.HttpServletStatelessServerTransport;
+import io.modelcontextprotocol.server.transport.HttpServletStreamableServerTransportProvider;
+import io.modelcontextprotocol.spec.McpSchema.ServerCapabilities;
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Embedded Jetty serving the stateless MCP endpoint at <code>/mcp</code>, the
+ * optional session-based endpoint at <code>/mcp/session</code>, the metrics
+ * at <code>/metrics</code> and the exported files at <code>/export/</code>.
+ */
+public final class McpHttpServer {
+
+	/** Key of the client identifier in the transport context of the tool calls */
+	public static final String CLIENT_ID = "josmmcp.client";
+	/** Key of the {@link McpAsyncServerExchange} in the transport context of the session-based tool calls */
+	public static final String SESSION = "josmmcp.session";
+	public static final String SESSION_PATH = "/mcp/session";
+
+	private final Server jettyServer;
+	private final ServerConnector connector;
+	private final McpStatelessAsyncServer mcpServer;
+	private final McpAsyncServer sessionServer;
+
+	/**
+	 * @param port  port to listen on, 0 for an ephemeral port
+	 * @param tools tools exposed by the server
+	 */
+	public McpHttpServer(int port, List<BaseTool> tools) {
+		this(new TransportConfig().setPort(port), tools);
+	}
+
+	public McpHttpServer(TransportConfig config, List<BaseTool> tools) {
+		ServletContextHandler context = new ServletContextHandler();
+		context.setContextPath("/");
+		this.jettyServer = config.createServer(context);
+		this.connector = (ServerConnector) jettyServer.getConnectors()[0];
+		McpTransportContextExtractor<HttpServletRequest> contextExtractor = request -> McpTransportContext
+				.create(Map.of(CLIENT_ID, clientId(request)));
+
+		List<McpStatelessServerFeatures.AsyncToolSpecification> toolSpecs = new ArrayList<>();
+		for (BaseTool tool : tools) {
+			toolSpecs.add(tool.getSpec());
+		}
+		HttpServletStatelessServerTransport servlet = HttpServletStatelessServerTransport.builder()
+				.contextExtractor(contextExtractor).build();
+		this.mcpServer = McpServer.async(servlet).serverInfo("JOSM MCP Server", "1.0.0").tools(toolSpecs).build();
+		context.addServlet(new ServletHolder(servlet), "/mcp");
+
+		if (config.isSessions()) {
+			// Same tools, plus the ones pushing notifications to the session
+			List<McpServerFeatures.AsyncToolSpecification> sessionSpecs = new ArrayList<>();
+			for (BaseTool tool : tools) {
+				sessionSpecs.add(tool.getSessionSpec());
+			}
+			sessionSpecs.add(new SubscribeChanges().getSessionSpec());
+			sessionSpecs.add(new UnsubscribeChanges().getSessionSpec());
+			HttpServletStreamableServerTransportProvider.Builder builder = HttpServletStreamableServerTransportProvider
+					.builder().mcpEndpoint(SESSION_PATH).contextExtractor(contextExtractor);
+			if (config.getIdleTimeout() > 0) {
+				// keep the event streams from being closed as idle
+				builder.keepAliveInterval(Duration.ofMillis(Math.max(1000, config.getIdleTimeout() / 2)));
+			}
+			HttpServletStreamableServerTransportProvider sessionServlet = builder.build();
+			this.sessionServer = McpServer.async(sessionServlet).serverInfo("JOSM MCP Server", "1.0.0")
+					.capabilities(ServerCapabilities.builder().tools(true).logging().build()).tools(sessionSpecs)
+					.build();
+			ServletHolder holder = new ServletHolder(sessionServlet);
+			holder.setAsyncSupported(true);
+			context.addServlet(holder, SESSION_PATH);
+		} else {
+			this.sessionServer = null;
+		}
+
+		context.addServlet(new ServletHolder(new MetricsServlet()), "/metrics");
+		context.addServlet(new ServletHolder(new ExportServlet()), "/export/*");
+	}
+
+	/**
+	 * Identifies the client of a request by the <code>X-Client-Id</code>
+	 * header, its MCP session or its address.
+	 */
+	private static String clientId(HttpServletRequest request) {
+		String id = request.getHeader("X-Client-Id");
+		if (id == null) {
+			id = request.getHeader("Mcp-Session-Id");
+		}
+		return id != null ? id : request.getRemoteAddr();
+	}
+
+	public void start() throws Exception {
+		jettyServer.start();
+	}
+
+	public void stop() throws Exception {
+		mcpServer.close();
+		if (sessionServer != null) {
+			sessionServer.close();
+		}
+		jettyServer.stop();
+	}
+
+	/**
+	 * Returns the port the server listens on, once started.
+	 */
+	public int getPort() {
+		return connector.getLocalPort();
+	}
+}
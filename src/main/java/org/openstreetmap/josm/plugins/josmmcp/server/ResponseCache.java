@@ -0,0 +1,166 @@
+/*
+ * JosmMCPPlugin - JOSM plugin to integrate JOSM with the Model Context Protocol
+ * Copyright (C) 2025-2026 Pengunaria.dev
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.openstreetmap.josm.plugins.josmmcp.server;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.openstreetmap.josm.data.osm.DataSet;
+import org.openstreetmap.josm.gui.MainApplication;
+import org.openstreetmap.josm.gui.layer.Layer;
+import org.openstreetmap.josm.plugins.josmmcp.data.DataSetVersions;
+import org.openstreetmap.josm.plugins.josmmcp.tools.JsonWriter;
+import org.openstreetmap.josm.spi.preferences.Config;
+
+/**
+ * LRU cache of the responses of the cacheable read tools, bounded by the total
+ * size of the entries.
+ *
+ * The key holds the tool name, the arguments in a canonical form, the edit
+ * DataSet with its modification counter (see {@link DataSetVersions}) and the
+ * list of layers, so any edit makes the previous entries unreachable without
+ * explicit eviction; they age out of the LRU. Enabled by
+ * <code>josmmcp.cache.max_mb</code>.
+ */
+public final class ResponseCache {
+
+	private static final ResponseCache INSTANCE = new ResponseCache();
+	// per-entry bookkeeping added to the size of the key and of the response
+	private static final int ENTRY_OVERHEAD = 96;
+
+	private final long maxBytes = Math.max(0, Config.getPref().getInt("josmmcp.cache.max_mb", 32)) * 1024L * 1024L;
+	private final LinkedHashMap<String, String> entries = new LinkedHashMap<>(16, 0.75f, true);
+	private long bytes;
+	private long evictions;
+
+	private ResponseCache() {
+	}
+
+	public static ResponseCache getInstance() {
+		return INSTANCE;
+	}
+
+	public boolean isEnabled() {
+		return maxBytes > 0;
+	}
+
+	/**
+	 * Builds the cache key of a call. The caller should hold the read lock of
+	 * the DataSet, if any, so the version matches the data the tool sees.
+	 */
+	public String key(String tool, Map<String, Object> args, DataSet ds) {
+		StringBuilder sb = new StringBuilder(64).append(tool).append('\0');
+		canonical(new JsonWriter(sb), args);
+		sb.append('\0');
+		if (ds != null) {
+			sb.append(System.identityHashCode(ds)).append(':').append(DataSetVersions.get(ds));
+		}
+		for (Layer layer : MainApplication.getLayerManager().getLayers()) {
+			sb.append('\0').append(System.identityHashCode(layer)).append(':').append(layer.getName());
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Writes a value with the keys of the objects sorted and the integral
+	 * numbers without fraction, so equal arguments give the same text.
+	 */
+	@SuppressWarnings("unchecked")
+	private static void canonical(JsonWriter w, Object value) {
+		if (value == null) {
+			w.nullValue();
+		} else if (value instanceof Map) {
+			w.beginObject();
+			for (Map.Entry<String, Object> e : new TreeMap<>((Map<String, Object>) value).entrySet()) {
+				canonical(w.name(e.getKey()), e.getValue());
+			}
+			w.endObject();
+		} else if (value instanceof List) {
+			w.beginArray();
+			for (Object item : (List<Object>) value) {
+				canonical(w, item);
+			}
+			w.endArray();
+		} else if (value instanceof Number) {
+			double d = ((Number) value).doubleValue();
+			if (d == Math.rint(d) && Math.abs(d) < 0x1p53) {
+				w.value((long) d);
+			} else {
+				w.value(d);
+			}
+		} else if (value instanceof Boolean) {
+			w.value(((Boolean) value).booleanValue());
+		} else {
+			w.value(value.toString());
+		}
+	}
+
+	/**
+	 * Returns the cached response of a call, or <code>null</code>.
+	 */
+	public synchronized String get(String key) {
+		return entries.get(key);
+	}
+
+	/**
+	 * Stores a response, evicting the least recently used entries over the
+	 * size limit. Responses larger than a quarter of the cache are not kept.
+	 */
+	public synchronized void put(String key, String response) {
+		long size = size(key, response);
+		if (size > maxBytes / 4) {
+			return;
+		}
+		String previous = entries.put(key, response);
+		if (previous != null) {
+			bytes -= size(key, previous);
+		}
+		bytes += size;
+		Iterator<Map.Entry<String, String>> it = entries.entrySet().iterator();
+		while (bytes > maxBytes && it.hasNext()) {
+			Map.Entry<String, String> eldest = it.next();
+			bytes -= size(eldest.getKey(), eldest.getValue());
+			it.remove();
+			evictions++;
+		}
+	}
+
+	public synchronized void clear() {
+		entries.clear();
+		bytes = 0;
+	}
+
+	private static long size(String key, String response) {
+		return 2L * (key.length() + response.length()) + ENTRY_OVERHEAD;
+	}
+
+	public synchronized long getBytes() {
+		return bytes;
+	}
+
+	public synchronized int getEntries() {
+		return entries.size();
+	}
+
+	public synchronized long getEvictions() {
+		return evictions;
+	}
+}
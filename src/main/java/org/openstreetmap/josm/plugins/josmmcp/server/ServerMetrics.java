@@ -0,0 +1,156 @@
+/*
+ * JosmMCPPlugin - JOSM plugin to integrate JOSM with the Model Context Protocol
+ * Copyright (C) 2025-2026 Pengunaria.dev
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.openstreetmap.josm.plugins.josmmcp.server;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Registry of the per-tool metrics of the server.
+ */
+public final class ServerMetrics {
+
+	private static final ServerMetrics INSTANCE = new ServerMetrics();
+
+	private final long startTime = System.currentTimeMillis();
+	private final ConcurrentHashMap<String, ToolMetrics> tools = new ConcurrentHashMap<>();
+	// Metrics of the tool running on the current thread, to attribute lock waits
+	private final ThreadLocal<ToolMetrics> current = new ThreadLocal<>();
+
+	private ServerMetrics() {
+	}
+
+	public static ServerMetrics getInstance() {
+		return INSTANCE;
+	}
+
+	public ToolMetrics forTool(String name) {
+		return tools.computeIfAbsent(name, ToolMetrics::new);
+	}
+
+	/**
+	 * Returns the metrics of all the tools called so far, sorted by name.
+	 */
+	public List<ToolMetrics> getTools() {
+		List<ToolMetrics> list = new ArrayList<>(tools.values());
+		list.sort(Comparator.comparing(ToolMetrics::getName));
+		return list;
+	}
+
+	public long getUptimeMillis() {
+		return System.currentTimeMillis() - startTime;
+	}
+
+	/**
+	 * Marks the tool running on the current thread, <code>null</code> when it
+	 * returns.
+	 */
+	public void setCurrent(ToolMetrics metrics) {
+		if (metrics == null) {
+			current.remove();
+		} else {
+			current.set(metrics);
+		}
+	}
+
+	/**
+	 * Acquires a lock, accounting the time spent waiting to the tool running on
+	 * the current thread.
+	 */
+	public void lock(Lock lock) {
+		if (lock.tryLock()) {
+			return;
+		}
+		long start = System.nanoTime();
+		lock.lock();
+		recordLockWait(System.nanoTime() - start);
+	}
+
+	/**
+	 * Accounts time spent waiting for a DataSet lock to the tool running on the
+	 * current thread.
+	 */
+	public void recordLockWait(long nanos) {
+		ToolMetrics metrics = current.get();
+		if (metrics != null) {
+			metrics.recordLockWait(nanos);
+		}
+	}
+
+	/**
+	 * Writes the metrics in the Prometheus text exposition format.
+	 */
+	public void writeText(StringBuilder sb) {
+		sb.append("# TYPE josmmcp_uptime_seconds gauge\n");
+		sb.append("josmmcp_uptime_seconds ").append(getUptimeMillis() / 1000).append('\n');
+		List<ToolMetrics> list = getTools();
+		sb.append("# TYPE josmmcp_tool_calls_total counter\n");
+		for (ToolMetrics m : list) {
+			line(sb, "josmmcp_tool_calls_total", m, null).append(m.getCalls()).append('\n');
+		}
+		sb.append("# TYPE josmmcp_tool_errors_total counter\n");
+		for (ToolMetrics m : list) {
+			line(sb, "josmmcp_tool_errors_total", m, null).append(m.getErrors()).append('\n');
+		}
+		sb.append("# TYPE josmmcp_tool_latency_milliseconds summary\n");
+		for (ToolMetrics m : list) {
+			line(sb, "josmmcp_tool_latency_milliseconds", m, "0.5").append(m.getPercentileMillis(0.5)).append('\n');
+			line(sb, "josmmcp_tool_latency_milliseconds", m, "0.95").append(m.getPercentileMillis(0.95)).append('\n');
+			line(sb, "josmmcp_tool_latency_milliseconds", m, "0.99").append(m.getPercentileMillis(0.99)).append('\n');
+		}
+		sb.append("# TYPE josmmcp_tool_response_bytes_total counter\n");
+		for (ToolMetrics m : list) {
+			line(sb, "josmmcp_tool_response_bytes_total", m, null).append(m.getResponseBytes()).append('\n');
+		}
+		sb.append("# TYPE josmmcp_tool_response_bytes_max gauge\n");
+		for (ToolMetrics m : list) {
+			line(sb, "josmmcp_tool_response_bytes_max", m, null).append(m.getMaxResponseBytes()).append('\n');
+		}
+		sb.append("# TYPE josmmcp_tool_lock_wait_milliseconds_total counter\n");
+		for (ToolMetrics m : list) {
+			line(sb, "josmmcp_tool_lock_wait_milliseconds_total", m, null).append(m.getLockWaitMillis())
+					.append('\n');
+		}
+		sb.append("# TYPE josmmcp_tool_cache_hits_total counter\n");
+		for (ToolMetrics m : list) {
+			line(sb, "josmmcp_tool_cache_hits_total", m, null).append(m.getCacheHits()).append('\n');
+		}
+		sb.append("# TYPE josmmcp_tool_cache_misses_total counter\n");
+		for (ToolMetrics m : list) {
+			line(sb, "josmmcp_tool_cache_misses_total", m, null).append(m.getCacheMisses()).append('\n');
+		}
+		ResponseCache cache = ResponseCache.getInstance();
+		sb.append("# TYPE josmmcp_response_cache_bytes gauge\n");
+		sb.append("josmmcp_response_cache_bytes ").append(cache.getBytes()).append('\n');
+		sb.append("# TYPE josmmcp_response_cache_entries gauge\n");
+		sb.append("josmmcp_response_cache_entries ").append(cache.getEntries()).append('\n');
+		sb.append("# TYPE josmmcp_response_cache_evictions_total counter\n");
+		sb.append("josmmcp_response_cache_evictions_total ").append(cache.getEvictions()).append('\n');
+	}
+
+	private static StringBuilder line(StringBuilder sb, String metric, ToolMetrics m, String quantile) {
+		sb.append(metric).append("{tool=\"").append(m.getName()).append('"');
+		if (quantile != null) {
+			sb.append(",quantile=\"").append(quantile).append('"');
+		}
+		return sb.append("} ");
+	}
+}
@@ -0,0 +1,87 @@
+/*
+ * JosmMCPPlugin - JOSM plugin to integrate JOSM with the Model Context Protocol
+ * Copyright (C) 2025-2026 Pengunaria.dev
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.openstreetmap.josm.plugins.josmmcp.server;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openstreetmap.josm.spi.preferences.Config;
+import org.openstreetmap.josm.tools.Logging;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Runs the tool calls off the HTTP threads.
+ *
+ * Read-only tools run concurrently, on virtual threads when the JVM has them.
+ * Mutating tools go through a single writer thread, so they are applied one at
+ * a time in arrival order, and never delay the readers while they prepare
+ * their commands.
+ */
+public final class ToolExecutor {
+
+	private static final ToolExecutor INSTANCE = new ToolExecutor();
+
+	private final Scheduler readers;
+	private final Scheduler writer;
+
+	private ToolExecutor() {
+		this.readers = Schedulers.fromExecutorService(newReadExecutor(), "josmmcp-read");
+		this.writer = Schedulers.fromExecutorService(
+				Executors.newSingleThreadExecutor(daemonThreads("josmmcp-writer")), "josmmcp-write");
+	}
+
+	public static ToolExecutor getInstance() {
+		return INSTANCE;
+	}
+
+	private static ExecutorService newReadExecutor() {
+		if (Config.getPref().getBoolean("josmmcp.exec.virtual_threads", true)) {
+			try {
+				// Java 21+, looked up reflectively since the plugin targets Java 17
+				return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+			} catch (ReflectiveOperationException e) {
+				Logging.debug("Virtual threads not available, using a thread pool for the read tools");
+			}
+		}
+		int threads = Config.getPref().getInt("josmmcp.exec.read_threads",
+				Math.max(4, 2 * Runtime.getRuntime().availableProcessors()));
+		return Executors.newFixedThreadPool(threads, daemonThreads("josmmcp-read"));
+	}
+
+	private static ThreadFactory daemonThreads(String prefix) {
+		AtomicInteger count = new AtomicInteger();
+		return r -> {
+			Thread t = new Thread(r, prefix + "-" + count.incrementAndGet());
+			t.setDaemon(true);
+			return t;
+		};
+	}
+
+	/**
+	 * Runs a tool call on the readers or on the writer thread.
+	 */
+	public <T> Mono<T> submit(boolean readOnly, Callable<T> call) {
+		return Mono.fromCallable(call).subscribeOn(readOnly ? readers : writer);
+	}
+}
@@ -0,0 +1,153 @@
+/*
+ * JosmMCPPlugin - JOSM plugin to integrate JOSM with the Model Context Protocol
+ * Copyright (C) 2025-2026 Pengunaria.dev
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.openstreetmap.josm.plugins.josmmcp.server;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and latency histogram of a single tool.
+ *
+ * Latencies are recorded in log-scale buckets of microseconds, eight per power
+ * of two, so percentiles are accurate to about 9% with a fixed footprint and
+ * lock-free updates.
+ */
+public final class ToolMetrics {
+
+	private static final int SUB_BUCKETS = 8;
+	private static final int BUCKETS = SUB_BUCKETS * 40;
+
+	private final String name;
+	private final LongAdder calls = new LongAdder();
+	private final LongAdder errors = new LongAdder();
+	private final LongAdder totalNanos = new LongAdder();
+	private final LongAdder responseBytes = new LongAdder();
+	private final LongAccumulator maxResponseBytes = new LongAccumulator(Math::max, 0);
+	private final LongAdder lockWaitNanos = new LongAdder();
+	private final LongAdder cacheHits = new LongAdder();
+	private final LongAdder cacheMisses = new LongAdder();
+	private final AtomicLongArray latency = new AtomicLongArray(BUCKETS);
+
+	ToolMetrics(String name) {
+		this.name = name;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Records a completed call.
+	 *
+	 * @param nanos duration of the call
+	 * @param bytes size of the response, in bytes
+	 * @param error whether the call failed
+	 */
+	public void record(long nanos, long bytes, boolean error) {
+		calls.increment();
+		if (error) {
+			errors.increment();
+		}
+		totalNanos.add(nanos);
+		responseBytes.add(bytes);
+		maxResponseBytes.accumulate(bytes);
+		latency.incrementAndGet(bucket(nanos / 1000));
+	}
+
+	public void recordLockWait(long nanos) {
+		lockWaitNanos.add(nanos);
+	}
+
+	/**
+	 * Records a lookup in the response cache.
+	 */
+	public void recordCache(boolean hit) {
+		(hit ? cacheHits : cacheMisses).increment();
+	}
+
+	private static int bucket(long micros) {
+		if (micros <= 1) {
+			return 0;
+		}
+		int b = (int) (Math.log(micros) / Math.log(2) * SUB_BUCKETS);
+		return Math.min(b, BUCKETS - 1);
+	}
+
+	private static double bucketUpperMillis(int bucket) {
+		return Math.pow(2, (bucket + 1) / (double) SUB_BUCKETS) / 1000;
+	}
+
+	public long getCalls() {
+		return calls.sum();
+	}
+
+	public long getErrors() {
+		return errors.sum();
+	}
+
+	public double getMeanMillis() {
+		long n = calls.sum();
+		return n == 0 ? 0 : totalNanos.sum() / 1e6 / n;
+	}
+
+	public long getResponseBytes() {
+		return responseBytes.sum();
+	}
+
+	public long getMaxResponseBytes() {
+		return maxResponseBytes.get();
+	}
+
+	public long getCacheHits() {
+		return cacheHits.sum();
+	}
+
+	public long getCacheMisses() {
+		return cacheMisses.sum();
+	}
+
+	public double getLockWaitMillis() {
+		return lockWaitNanos.sum() / 1e6;
+	}
+
+	/**
+	 * Returns the latency below which the given fraction of the calls completed,
+	 * in milliseconds.
+	 */
+	public double getPercentileMillis(double fraction) {
+		long[] counts = new long[BUCKETS];
+		long total = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			counts[i] = latency.get(i);
+			total += counts[i];
+		}
+		if (total == 0) {
+			return 0;
+		}
+		long rank = (long) Math.ceil(fraction * total);
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += counts[i];
+			if (seen >= rank) {
+				return bucketUpperMillis(i);
+			}
+		}
+		return bucketUpperMillis(BUCKETS - 1);
+	}
+}
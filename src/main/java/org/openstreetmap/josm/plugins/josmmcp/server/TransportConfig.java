@@ -0,0 +1,171 @@
+/*
+ * JosmMCPPlugin - JOSM plugin to integrate JOSM with the Model Context Protocol
+ * Copyright (C) 2025-2026 Pengunaria.dev
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.openstreetmap.josm.plugins.josmmcp.server;
+
+import org.eclipse.jetty.http2.server.HTTP2CServerConnectionFactory;
+import org.eclipse.jetty.server.Handler;
+import org.eclipse.jetty.server.HttpConfiguration;
+import org.eclipse.jetty.server.HttpConnectionFactory;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.server.handler.gzip.GzipHandler;
+import org.eclipse.jetty.util.VirtualThreads;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.openstreetmap.josm.spi.preferences.IPreferences;
+import org.openstreetmap.josm.tools.Logging;
+
+/**
+ * Settings of the HTTP server: listening address, protocols, compression,
+ * timeouts and threads.
+ */
+public final class TransportConfig {
+
+	private int port = 3000;
+	private String bindAddress = "";
+	private boolean h2c = true;
+	private boolean gzip = true;
+	private int gzipMinSize = 1024;
+	private long idleTimeout = 30_000;
+	private int minThreads = 4;
+	private int maxThreads = 50;
+	private boolean virtualThreads;
+	private boolean sessions;
+
+	/**
+	 * Reads the settings from the <code>josmmcp.http.*</code> preferences.
+	 */
+	public static TransportConfig fromPreferences(IPreferences pref) {
+		TransportConfig c = new TransportConfig();
+		c.port = pref.getInt("josmmcp.http.port", c.port);
+		c.bindAddress = pref.get("josmmcp.http.bind_address", c.bindAddress);
+		c.h2c = pref.getBoolean("josmmcp.http.h2c", c.h2c);
+		c.gzip = pref.getBoolean("josmmcp.http.gzip", c.gzip);
+		c.gzipMinSize = pref.getInt("josmmcp.http.gzip_min_size", c.gzipMinSize);
+		c.idleTimeout = pref.getLong("josmmcp.http.idle_timeout_ms", c.idleTimeout);
+		c.minThreads = pref.getInt("josmmcp.http.min_threads", c.minThreads);
+		c.maxThreads = pref.getInt("josmmcp.http.max_threads", c.maxThreads);
+		c.virtualThreads = pref.getBoolean("josmmcp.http.virtual_threads", c.virtualThreads);
+		c.sessions = pref.getBoolean("josmmcp.http.sessions", c.sessions);
+		return c;
+	}
+
+	public int getPort() {
+		return port;
+	}
+
+	public TransportConfig setPort(int port) {
+		this.port = port;
+		return this;
+	}
+
+	public long getIdleTimeout() {
+		return idleTimeout;
+	}
+
+	/**
+	 * Tells if the session-based transport, needed by the change
+	 * subscriptions, is served next to the stateless one.
+	 */
+	public boolean isSessions() {
+		return sessions;
+	}
+
+	public TransportConfig setSessions(boolean sessions) {
+		this.sessions = sessions;
+		return this;
+	}
+
+	public TransportConfig setBindAddress(String bindAddress) {
+		this.bindAddress = bindAddress;
+		return this;
+	}
+
+	public TransportConfig setH2c(boolean h2c) {
+		this.h2c = h2c;
+		return this;
+	}
+
+	public TransportConfig setGzip(boolean gzip) {
+		this.gzip = gzip;
+		return this;
+	}
+
+	public TransportConfig setGzipMinSize(int gzipMinSize) {
+		this.gzipMinSize = gzipMinSize;
+		return this;
+	}
+
+	public TransportConfig setIdleTimeout(long idleTimeout) {
+		this.idleTimeout = idleTimeout;
+		return this;
+	}
+
+	public TransportConfig setThreads(int minThreads, int maxThreads) {
+		this.minThreads = minThreads;
+		this.maxThreads = maxThreads;
+		return this;
+	}
+
+	public TransportConfig setVirtualThreads(boolean virtualThreads) {
+		this.virtualThreads = virtualThreads;
+		return this;
+	}
+
+	/**
+	 * Creates a server serving <code>handler</code> with these settings.
+	 */
+	public Server createServer(Handler handler) {
+		QueuedThreadPool threads = new QueuedThreadPool(Math.max(maxThreads, minThreads), minThreads);
+		threads.setName("josmmcp-http");
+		threads.setDaemon(true);
+		if (virtualThreads) {
+			if (VirtualThreads.areSupported()) {
+				threads.setVirtualThreadsExecutor(VirtualThreads.getDefaultVirtualThreadsExecutor());
+			} else {
+				Logging.warn("Virtual threads are not supported by this JVM, using platform threads");
+			}
+		}
+		Server server = new Server(threads);
+
+		HttpConfiguration httpConfig = new HttpConfiguration();
+		httpConfig.setSendServerVersion(false);
+		ServerConnector connector = h2c
+				? new ServerConnector(server, new HttpConnectionFactory(httpConfig),
+						new HTTP2CServerConnectionFactory(httpConfig))
+				: new ServerConnector(server, new HttpConnectionFactory(httpConfig));
+		connector.setPort(port);
+		if (bindAddress != null && !bindAddress.isEmpty()) {
+			connector.setHost(bindAddress);
+		}
+		connector.setIdleTimeout(idleTimeout);
+		server.addConnector(connector);
+
+		if (gzip) {
+			GzipHandler gzipHandler = new GzipHandler();
+			gzipHandler.setMinGzipSize(gzipMinSize);
+			gzipHandler.setIncludedMethods("GET", "POST");
+			// compressing a stream would buffer its events
+			gzipHandler.addExcludedMimeTypes("text/event-stream");
+			gzipHandler.setHandler(handler);
+			server.setHandler(gzipHandler);
+		} else {
+			server.setHandler(handler);
+		}
+		return server;
+	}
+}
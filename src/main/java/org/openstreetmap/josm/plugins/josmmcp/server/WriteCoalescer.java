@@ -0,0 +1,295 @@
+/*
+ * JosmMCPPlugin - JOSM plugin to integrate JOSM with the Model Context Protocol
+ * Copyright (C) 2025-2026 Pengunaria.dev
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.openstreetmap.josm.plugins.josmmcp.server;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.swing.Timer;
+
+import org.openstreetmap.josm.command.Command;
+import org.openstreetmap.josm.command.PseudoCommand;
+import org.openstreetmap.josm.data.UndoRedoHandler;
+import org.openstreetmap.josm.data.UndoRedoHandler.CommandAddedEvent;
+import org.openstreetmap.josm.data.UndoRedoHandler.CommandQueueCleanedEvent;
+import org.openstreetmap.josm.data.UndoRedoHandler.CommandQueuePreciseListener;
+import org.openstreetmap.josm.data.UndoRedoHandler.CommandRedoneEvent;
+import org.openstreetmap.josm.data.UndoRedoHandler.CommandUndoneEvent;
+import org.openstreetmap.josm.data.osm.DataSet;
+import org.openstreetmap.josm.data.osm.OsmPrimitive;
+import org.openstreetmap.josm.gui.MainApplication;
+import org.openstreetmap.josm.gui.layer.OsmDataLayer;
+import org.openstreetmap.josm.plugins.josmmcp.data.DataSetVersions;
+import org.openstreetmap.josm.spi.preferences.Config;
+
+/**
+ * Merges the edits made by the tools within a time window into a single
+ * undoable command.
+ *
+ * The first edit opens the window with {@link DataSet#beginUpdate()}, and the
+ * window is closed with the matching {@link DataSet#endUpdate()}: the change
+ * events, and the repaint, are delivered once per window. The commands are
+ * executed right away, so the following calls see their effect, and are
+ * registered in the undo history when the window closes, as one command
+ * holding all of them in execution order, whichever client made them. The
+ * write lock is held for the whole window, so the read-only tools wait for it
+ * to close. All the methods run on the EDT.
+ *
+ * Any other change of the undo history (a user edit, undo or redo) first
+ * closes the window, so the order of the history always matches the order in
+ * which the commands were executed.
+ */
+public final class WriteCoalescer {
+
+	private static final WriteCoalescer INSTANCE = new WriteCoalescer(
+			Config.getPref().getInt("josmmcp.write.coalesce_ms", 0),
+			Config.getPref().getInt("josmmcp.write.coalesce_max", 100));
+
+	private final int windowMillis;
+	private final int maxCommands;
+	private Window window;
+	private boolean listening;
+	// set while the coalescer itself changes the undo history
+	private boolean updating;
+
+	WriteCoalescer(int windowMillis, int maxCommands) {
+		this.windowMillis = windowMillis;
+		this.maxCommands = Math.max(1, maxCommands);
+	}
+
+	public static WriteCoalescer getInstance() {
+		return INSTANCE;
+	}
+
+	public boolean isEnabled() {
+		return windowMillis > 0;
+	}
+
+	/**
+	 * Executes a command in the current window, opening one if needed.
+	 */
+	public void execute(String client, DataSet ds, Command command) {
+		if (!listening) {
+			UndoRedoHandler.getInstance().addCommandQueuePreciseListener(new HistoryListener());
+			listening = true;
+		}
+		if (window != null && window.ds != ds) {
+			flush();
+		}
+		if (window == null) {
+			ds.beginUpdate();
+			DataSetVersions.writeStarted(ds);
+			Window w = new Window(ds);
+			w.timer = new Timer(windowMillis, e -> flush());
+			w.timer.setRepeats(false);
+			w.timer.start();
+			window = w;
+		}
+		command.executeCommand();
+		window.commands.add(command);
+		window.clients.add(client);
+		if (window.commands.size() >= maxCommands) {
+			flush();
+		}
+	}
+
+	/**
+	 * Closes the current window, delivering its events and registering its
+	 * commands in the undo history.
+	 */
+	public void flush() {
+		Window w = window;
+		if (w == null) {
+			return;
+		}
+		window = null;
+		close(w);
+		if (!isEditable(w.ds)) {
+			// the layer was closed meanwhile, there is nothing left to undo
+			return;
+		}
+		Command c = w.commands.size() == 1 ? w.commands.get(0) : new Coalesced(w);
+		boolean wasUpdating = updating;
+		updating = true;
+		try {
+			UndoRedoHandler.getInstance().add(c, false);
+		} finally {
+			updating = wasUpdating;
+		}
+	}
+
+	private static void close(Window w) {
+		w.timer.stop();
+		try {
+			w.ds.endUpdate();
+		} finally {
+			DataSetVersions.writeSettled(w.ds);
+		}
+	}
+
+	private static boolean isEditable(DataSet ds) {
+		for (OsmDataLayer layer : MainApplication.getLayerManager().getLayersOfType(OsmDataLayer.class)) {
+			if (layer.getDataSet() == ds) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Puts the buffered commands back in front of a change of the undo history
+	 * made by someone else.
+	 */
+	private final class HistoryListener implements CommandQueuePreciseListener {
+
+		@Override
+		public void commandAdded(CommandAddedEvent e) {
+			if (updating || window == null) {
+				return;
+			}
+			// the new command was executed after the buffered ones
+			UndoRedoHandler handler = UndoRedoHandler.getInstance();
+			updating = true;
+			try {
+				handler.undo();
+				flush();
+				handler.add(e.getCommand());
+			} finally {
+				updating = false;
+			}
+		}
+
+		@Override
+		public void commandUndone(CommandUndoneEvent e) {
+			if (updating || window == null) {
+				return;
+			}
+			// the undone command is older than the buffered ones, which are the
+			// latest edits and are undone instead
+			UndoRedoHandler handler = UndoRedoHandler.getInstance();
+			updating = true;
+			try {
+				handler.redo();
+				flush();
+				handler.undo();
+			} finally {
+				updating = false;
+			}
+		}
+
+		@Override
+		public void commandRedone(CommandRedoneEvent e) {
+			if (updating || window == null) {
+				return;
+			}
+			// registering the buffered commands earlier would have cleared the
+			// redo stack, so the redo is reverted
+			UndoRedoHandler handler = UndoRedoHandler.getInstance();
+			updating = true;
+			try {
+				handler.undo();
+				flush();
+			} finally {
+				updating = false;
+			}
+		}
+
+		@Override
+		public void cleaned(CommandQueueCleanedEvent e) {
+			if (updating || window == null) {
+				return;
+			}
+			// the history was cleared, the buffered commands stay applied
+			close(window);
+			window = null;
+		}
+	}
+
+	private static final class Window {
+		private final DataSet ds;
+		private final List<Command> commands = new ArrayList<>();
+		private final Set<String> clients = new LinkedHashSet<>();
+		private Timer timer;
+
+		private Window(DataSet ds) {
+			this.ds = ds;
+		}
+	}
+
+	/**
+	 * The commands of a window, already executed when it is added to the undo
+	 * history. Undo and redo run them in reverse and in execution order.
+	 */
+	private static final class Coalesced extends Command {
+		private final List<Command> commands;
+		private final int clients;
+
+		private Coalesced(Window w) {
+			super(w.ds);
+			this.commands = w.commands;
+			this.clients = w.clients.size();
+		}
+
+		@Override
+		public boolean executeCommand() {
+			for (Command c : commands) {
+				c.executeCommand();
+			}
+			return true;
+		}
+
+		@Override
+		public void undoCommand() {
+			for (int i = commands.size() - 1; i >= 0; i--) {
+				commands.get(i).undoCommand();
+			}
+		}
+
+		@Override
+		public void fillModifiedData(Collection<OsmPrimitive> modified, Collection<OsmPrimitive> deleted,
+				Collection<OsmPrimitive> added) {
+			for (Command c : commands) {
+				c.fillModifiedData(modified, deleted, added);
+			}
+		}
+
+		@Override
+		public Collection<? extends OsmPrimitive> getParticipatingPrimitives() {
+			Set<OsmPrimitive> prims = new HashSet<>();
+			for (Command c : commands) {
+				prims.addAll(c.getParticipatingPrimitives());
+			}
+			return prims;
+		}
+
+		@Override
+		public String getDescriptionText() {
+			return "MCP edits (" + commands.size() + " commands" + (clients > 1 ? ", " + clients + " clients" : "")
+					+ ")";
+		}
+
+		@Override
+		public Collection<PseudoCommand> getChildren() {
+			return new ArrayList<>(commands);
+		}
+	}
+}
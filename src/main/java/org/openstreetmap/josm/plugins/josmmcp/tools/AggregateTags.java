@@ -0,0 +1,213 @@
+/*
+ * JosmMCPPlugin - JOSM plugin to integrate JOSM with the Model Context Protocol
+ * Copyright (C) 2025-2026 Pengunaria.dev
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.openstreetmap.josm.plugins.josmmcp.tools;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.openstreetmap.josm.data.osm.DataSet;
+import org.openstreetmap.josm.data.osm.OsmPrimitive;
+import org.openstreetmap.josm.gui.MainApplication;
+import org.openstreetmap.josm.plugins.josmmcp.data.TagStatistics;
+
+import io.modelcontextprotocol.common.McpTransportContext;
+import io.modelcontextprotocol.spec.McpSchema;
+import io.modelcontextprotocol.spec.McpSchema.CallToolRequest;
+import io.modelcontextprotocol.spec.McpSchema.JsonSchema;
+
+/**
+ * Counts elements by type and tags by key and value. Without a query or an
+ * area the counts come from the live {@link TagStatistics} of the layer.
+ */
+public class AggregateTags extends BaseTool {
+
+	private static final String[] TYPE_NAMES = { "node", "way", "relation" };
+
+	@Override
+	public String getName() {
+		return "aggregate_tags";
+	}
+
+	@Override
+	public String getDescription() {
+		return "Count the elements of the edit layer by type, the untagged ones, the most used keys and the most "
+				+ "used values of some keys, for the whole layer or only the elements matching a JOSM query and/or "
+				+ "an area. Use it instead of searching when only counts are needed";
+	}
+
+	@Override
+	public boolean isReadOnly() {
+		return true;
+	}
+
+	@Override
+	public boolean isCacheable(Map<String, Object> args) {
+		return !SearchCache.isVolatile((String) args.get("query"));
+	}
+
+	@Override
+	public JsonSchema getInputSchema() {
+		Map<String, Object> aggregateProps = new java.util.HashMap<>();
+		Map<String, Object> queryProp = new java.util.HashMap<>();
+		queryProp.put("type", "string");
+		queryProp.put("description", "Only count the elements matching this JOSM query");
+		aggregateProps.put("query", queryProp);
+		SpatialFilter.addSchema(aggregateProps);
+		Map<String, Object> keysProp = new java.util.HashMap<>();
+		keysProp.put("type", "array");
+		keysProp.put("items", Map.of("type", "string"));
+		keysProp.put("description", "Keys whose values are counted, the 5 most used keys when omitted");
+		aggregateProps.put("keys", keysProp);
+		Map<String, Object> topKeysProp = new java.util.HashMap<>();
+		topKeysProp.put("type", "integer");
+		topKeysProp.put("description", "Number of keys returned, most used first (default 20)");
+		aggregateProps.put("top_keys", topKeysProp);
+		Map<String, Object> topValuesProp = new java.util.HashMap<>();
+		topValuesProp.put("type", "integer");
+		topValuesProp.put("description", "Number of values returned per key, most used first (default 10)");
+		aggregateProps.put("top_values", topValuesProp);
+
+		McpSchema.JsonSchema aggregateSchema = new McpSchema.JsonSchema("object", aggregateProps, null, null, null,
+				null);
+		return aggregateSchema;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public String handle(McpTransportContext exchange, CallToolRequest params) throws Exception {
+		Map<String, Object> args = params.arguments();
+
+		String query = (String) args.get("query");
+		SpatialFilter area = SpatialFilter.fromArguments(args);
+		int topKeys = args.get("top_keys") != null ? ((Number) args.get("top_keys")).intValue() : 20;
+		int topValues = args.get("top_values") != null ? ((Number) args.get("top_values")).intValue() : 10;
+		if (topKeys < 0 || topValues < 0) {
+			throw new Exception("'top_keys' and 'top_values' must not be negative");
+		}
+
+		DataSet ds = MainApplication.getLayerManager().getEditDataSet();
+		if (ds == null) {
+			throw new Exception("no active dataset found");
+		}
+
+		// BaseTool holds the read lock
+		TagStatistics stats;
+		if (query == null && area == null) {
+			stats = TagStatistics.of(ds);
+		} else {
+			stats = new TagStatistics();
+			for (OsmPrimitive prim : new ElementSearch(ds, query != null ? query : "", area).all()) {
+				stats.add(prim);
+			}
+		}
+
+		long[] types = stats.getTypeCounts();
+		long[] untagged = stats.getUntaggedCounts();
+		List<Map.Entry<String, long[]>> keys = stats.topKeys(topKeys);
+		List<String> valueKeys = (List<String>) args.get("keys");
+		if (valueKeys == null) {
+			valueKeys = new ArrayList<>();
+			for (Map.Entry<String, long[]> key : keys.subList(0, Math.min(5, keys.size()))) {
+				valueKeys.add(key.getKey());
+			}
+		}
+
+		if (isJsonOutput(args)) {
+			JsonWriter w = new JsonWriter().beginObject().name("total").value(TagStatistics.total(types));
+			writeTypes(w.name("by_type"), types);
+			writeTypes(w.name("untagged"), untagged);
+			w.name("distinct_keys").value(stats.getKeyCount()).name("keys").beginArray();
+			for (Map.Entry<String, long[]> key : keys) {
+				w.beginObject().name("key").value(key.getKey()).name("count")
+						.value(TagStatistics.total(key.getValue()));
+				for (int i = 0; i < TYPE_NAMES.length; i++) {
+					w.name(TYPE_NAMES[i]).value(key.getValue()[i]);
+				}
+				w.endObject();
+			}
+			w.endArray().name("values").beginObject();
+			for (String key : valueKeys) {
+				w.name(key).beginObject().name("distinct").value(stats.getValueCount(key)).name("top").beginArray();
+				for (Map.Entry<String, Long> value : stats.topValues(key, topValues)) {
+					w.beginObject().name("value").value(value.getKey()).name("count").value(value.getValue())
+							.endObject();
+				}
+				w.endArray().endObject();
+			}
+			return w.endObject().endObject().toString();
+		}
+
+		StringBuilder sb = new StringBuilder();
+		sb.append("Elements: ").append(TagStatistics.total(types));
+		appendTypes(sb.append(" ("), types).append(")\n");
+		appendTypes(sb.append("Untagged: "), untagged).append("\n");
+		sb.append("Keys (").append(stats.getKeyCount()).append(" distinct):\n");
+		for (Map.Entry<String, long[]> key : keys) {
+			sb.append("- ").append(key.getKey()).append(": ").append(TagStatistics.total(key.getValue()));
+			appendTypes(sb.append(" ("), key.getValue()).append(")\n");
+		}
+		for (String key : valueKeys) {
+			sb.append("Values of ").append(key).append(" (").append(stats.getValueCount(key))
+					.append(" distinct):\n");
+			for (Map.Entry<String, Long> value : stats.topValues(key, topValues)) {
+				sb.append("- ").append(value.getKey()).append(": ").append(value.getValue()).append("\n");
+			}
+		}
+		return sb.toString();
+	}
+
+	private static void writeTypes(JsonWriter w, long[] counts) {
+		w.beginObject();
+		for (int i = 0; i < TYPE_NAMES.length; i++) {
+			w.name(TYPE_NAMES[i]).value(counts[i]);
+		}
+		w.endObject();
+	}
+
+	private static StringBuilder appendTypes(StringBuilder sb, long[] counts) {
+		for (int i = 0; i < TYPE_NAMES.length; i++) {
+			if (i > 0) {
+				sb.append(", ");
+			}
+			sb.append(TYPE_NAMES[i]).append("s: ").append(counts[i]);
+		}
+		return sb;
+	}
+
+	@Override
+	public Map<String, Object> getOutputSchema() {
+		Map<String, Object> integer = Map.of("type", "integer");
+		Map<String, Object> byType = Map.of("type", "object", "properties",
+				Map.of("node", integer, "way", integer, "relation", integer));
+		Map<String, Object> key = Map.of("type", "object", "properties", Map.of("key", Map.of("type", "string"),
+				"count", integer, "node", integer, "way", integer, "relation", integer));
+		Map<String, Object> value = Map.of("type", "object", "properties",
+				Map.of("value", Map.of("type", "string"), "count", integer));
+		Map<String, Object> values = Map.of("type", "object", "additionalProperties", Map.of("type", "object",
+				"properties", Map.of("distinct", integer, "top", Map.of("type", "array", "items", value))));
+		Map<String, Object> props = new java.util.HashMap<>();
+		props.put("total", integer);
+		props.put("by_type", byType);
+		props.put("untagged", byType);
+		props.put("distinct_keys", integer);
+		props.put("keys", Map.of("type", "array", "items", key));
+		props.put("values", values);
+		return Map.of("type", "object", "properties", props);
+	}
+}
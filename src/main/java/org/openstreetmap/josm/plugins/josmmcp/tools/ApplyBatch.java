@@ -0,0 +1,355 @@
+/*
+ * JosmMCPPlugin - JOSM plugin to integrate JOSM with the Model Context Protocol
+ * Copyright (C) 2025-2026 Pengunaria.dev
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.openstreetmap.josm.plugins.josmmcp.tools;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.openstreetmap.josm.command.AddCommand;
+import org.openstreetmap.josm.command.ChangePropertyCommand;
+import org.openstreetmap.josm.command.Command;
+import org.openstreetmap.josm.command.DeleteCommand;
+import org.openstreetmap.josm.command.MoveCommand;
+import org.openstreetmap.josm.command.SequenceCommand;
+import org.openstreetmap.josm.data.coor.LatLon;
+import org.openstreetmap.josm.data.osm.DataSet;
+import org.openstreetmap.josm.data.osm.Node;
+import org.openstreetmap.josm.data.osm.OsmPrimitive;
+import org.openstreetmap.josm.data.osm.OsmPrimitiveType;
+import org.openstreetmap.josm.data.osm.SimplePrimitiveId;
+import org.openstreetmap.josm.data.osm.Way;
+import org.openstreetmap.josm.gui.MainApplication;
+
+import io.modelcontextprotocol.common.McpTransportContext;
+import io.modelcontextprotocol.spec.McpSchema;
+import io.modelcontextprotocol.spec.McpSchema.CallToolRequest;
+import io.modelcontextprotocol.spec.McpSchema.JsonSchema;
+
+/**
+ * Applies a list of create/update/delete/tag operations as a single undoable
+ * command. Elements created in the batch get a placeholder name (
+ * <code>ref</code>) that later operations can use in place of an Id.
+ */
+public class ApplyBatch extends BaseTool {
+
+	@Override
+	public String getName() {
+		return "apply_batch";
+	}
+
+	@Override
+	public String getDescription() {
+		return "Apply an ordered list of operations (create_node, create_way, update_node, modify_tags, delete_node, "
+				+ "delete_way) as a single undoable command. Created elements can be named with 'ref' and referenced "
+				+ "by that name in later operations. Returns the Id assigned to each ref";
+	}
+
+	@Override
+	public boolean isReadOnly() {
+		return false;
+	}
+
+	@Override
+	public JsonSchema getInputSchema() {
+		Map<String, Object> idOrRef = Map.of("type", Arrays.asList("number", "string"));
+
+		Map<String, Object> opProps = new java.util.HashMap<>();
+		Map<String, Object> kindProp = new java.util.HashMap<>();
+		kindProp.put("type", "string");
+		kindProp.put("enum", Arrays.asList("create_node", "create_way", "update_node", "modify_tags", "delete_node",
+				"delete_way"));
+		opProps.put("op", kindProp);
+		Map<String, Object> refProp = new java.util.HashMap<>();
+		refProp.put("type", "string");
+		refProp.put("description", "Placeholder name of the created element");
+		opProps.put("ref", refProp);
+		Map<String, Object> idProp = new java.util.HashMap<>(idOrRef);
+		idProp.put("description", "Id or ref of the element to update, tag or delete");
+		opProps.put("id", idProp);
+		Map<String, Object> elTypeProp = new java.util.HashMap<>();
+		elTypeProp.put("type", "string");
+		elTypeProp.put("enum", Arrays.asList("node", "way", "relation"));
+		opProps.put("element_type", elTypeProp);
+		opProps.put("latitude", Map.of("type", "number"));
+		opProps.put("longitude", Map.of("type", "number"));
+		Map<String, Object> nodesProp = new java.util.HashMap<>();
+		nodesProp.put("type", "array");
+		nodesProp.put("items", idOrRef);
+		opProps.put("node_ids", nodesProp);
+		Map<String, Object> tagsProp = new java.util.HashMap<>();
+		tagsProp.put("type", "object");
+		tagsProp.put("additionalProperties", Map.of("type", "string", "maxLength", 255));
+		opProps.put("tags", tagsProp);
+
+		Map<String, Object> opSchema = new java.util.HashMap<>();
+		opSchema.put("type", "object");
+		opSchema.put("properties", opProps);
+		opSchema.put("required", Arrays.asList("op"));
+
+		Map<String, Object> batchProps = new java.util.HashMap<>();
+		Map<String, Object> opsProp = new java.util.HashMap<>();
+		opsProp.put("type", "array");
+		opsProp.put("items", opSchema);
+		batchProps.put("operations", opsProp);
+		McpSchema.JsonSchema batchSchema = new McpSchema.JsonSchema("object", batchProps,
+				Arrays.asList("operations"), null, null, null);
+		return batchSchema;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public String handle(McpTransportContext exchange, CallToolRequest params) throws Exception {
+		Map<String, Object> args = params.arguments();
+
+		DataSet ds = MainApplication.getLayerManager().getEditDataSet();
+		if (ds == null) {
+			throw new Exception("no active dataset found");
+		}
+
+		List<Map<String, Object>> operations = (List<Map<String, Object>>) args.get("operations");
+		if (operations == null || operations.isEmpty()) {
+			throw new Exception("no operations given");
+		}
+
+		Batch batch = new Batch(ds);
+		for (int i = 0; i < operations.size(); i++) {
+			try {
+				batch.add(operations.get(i));
+			} catch (Exception e) {
+				throw new Exception("operation " + i + ": " + e.getMessage(), e);
+			}
+		}
+		if (batch.commands.isEmpty()) {
+			throw new Exception("the batch does not change anything");
+		}
+
+		Command c = new SequenceCommand("MCP batch (" + operations.size() + " operations)", batch.commands, false);
+		execute(exchange, ds, c);
+
+		if (isJsonOutput(args)) {
+			JsonWriter w = new JsonWriter().beginObject().name("operations").value(operations.size());
+			w.name("refs").beginObject();
+			for (Map.Entry<String, OsmPrimitive> ref : batch.refs.entrySet()) {
+				w.name(ref.getKey()).value(ref.getValue().getUniqueId());
+			}
+			return w.endObject().endObject().toString();
+		}
+
+		StringBuilder sb = new StringBuilder();
+		sb.append("Applied ").append(operations.size()).append(" operations\n");
+		for (Map.Entry<String, OsmPrimitive> ref : batch.refs.entrySet()) {
+			sb.append(ref.getKey()).append(": ").append(ref.getValue().getUniqueId()).append("\n");
+		}
+		return sb.toString();
+	}
+
+	static final class Batch {
+		private final DataSet ds;
+		final List<Command> commands = new ArrayList<>();
+		final Map<String, OsmPrimitive> refs = new LinkedHashMap<>();
+		// position in the commands of the move of each existing node
+		private final Map<Node, Integer> moves = new HashMap<>();
+		// position in the commands of the tag change of each existing element,
+		// and the tags it sets
+		private final Map<OsmPrimitive, Integer> tagChanges = new HashMap<>();
+		private final Map<OsmPrimitive, Map<String, String>> changedTags = new HashMap<>();
+		private final Set<OsmPrimitive> deleted = new HashSet<>();
+
+		Batch(DataSet ds) {
+			this.ds = ds;
+		}
+
+		@SuppressWarnings("unchecked")
+		void add(Map<String, Object> op) throws Exception {
+			String kind = (String) op.get("op");
+			if (kind == null) {
+				throw new Exception("missing 'op'");
+			}
+			Map<String, String> tags = (Map<String, String>) op.get("tags");
+			switch (kind) {
+			case "create_node": {
+				Node nd = new Node(latLon(op));
+				applyTags(nd, tags);
+				commands.add(new AddCommand(ds, nd));
+				register(op, nd);
+				break;
+			}
+			case "create_way": {
+				List<Object> ids = (List<Object>) op.get("node_ids");
+				if (ids == null || ids.size() < 2) {
+					throw new Exception("a way needs at least two nodes");
+				}
+				List<Node> nodes = new ArrayList<>(ids.size());
+				for (Object id : ids) {
+					nodes.add((Node) resolve(id, OsmPrimitiveType.NODE));
+				}
+				Way w = new Way();
+				w.setNodes(nodes);
+				applyTags(w, tags);
+				commands.add(new AddCommand(ds, w));
+				register(op, w);
+				break;
+			}
+			case "update_node": {
+				Node nd = (Node) resolve(op.get("id"), OsmPrimitiveType.NODE);
+				if (nd.getDataSet() == null) {
+					nd.setCoor(latLon(op));
+				} else {
+					// The offset of a MoveCommand is taken from the node when it is
+					// built, before any command of the batch runs: a node moved
+					// again keeps a single move, to its last position
+					Command move = new MoveCommand(nd, latLon(op));
+					Integer index = moves.get(nd);
+					if (index == null) {
+						moves.put(nd, commands.size());
+						commands.add(move);
+					} else {
+						commands.set(index, move);
+					}
+				}
+				break;
+			}
+			case "modify_tags": {
+				String type = (String) op.get("element_type");
+				OsmPrimitive el = resolve(op.get("id"), type != null ? OsmPrimitiveType.from(type) : null);
+				if (tags == null) {
+					throw new Exception("missing 'tags'");
+				}
+				if (el.getDataSet() == null) {
+					applyTags(el, tags);
+				} else {
+					// ChangePropertyCommand too compares with the tags of the element
+					// when it is built: the tags of an element changed again are
+					// merged into a single command
+					Map<String, String> merged = changedTags.computeIfAbsent(el, k -> new LinkedHashMap<>());
+					merged.putAll(tags);
+					Command change = new ChangePropertyCommand(Collections.singleton(el), new LinkedHashMap<>(merged));
+					Integer index = tagChanges.get(el);
+					if (index == null) {
+						tagChanges.put(el, commands.size());
+						commands.add(change);
+					} else {
+						commands.set(index, change);
+					}
+				}
+				break;
+			}
+			case "delete_node":
+			case "delete_way": {
+				OsmPrimitiveType type = "delete_node".equals(kind) ? OsmPrimitiveType.NODE : OsmPrimitiveType.WAY;
+				OsmPrimitive el = resolve(op.get("id"), type);
+				if (el.getDataSet() == null) {
+					throw new Exception("cannot delete an element created in the same batch");
+				}
+				deleted.add(el);
+				commands.add(new DeleteCommand(ds, el));
+				break;
+			}
+			default:
+				throw new Exception("unknown operation '" + kind + "'");
+			}
+		}
+
+		private void register(Map<String, Object> op, OsmPrimitive prim) throws Exception {
+			String ref = (String) op.get("ref");
+			if (ref != null && isNumber(ref)) {
+				throw new Exception("ref '" + ref + "' would shadow an Id, use a name that is not a number");
+			}
+			if (ref != null && refs.putIfAbsent(ref, prim) != null) {
+				throw new Exception("duplicate ref '" + ref + "'");
+			}
+		}
+
+		/**
+		 * Resolves a placeholder name created earlier in the batch or an Id of
+		 * the DataSet.
+		 */
+		private OsmPrimitive resolve(Object idOrRef, OsmPrimitiveType type) throws Exception {
+			if (idOrRef == null) {
+				throw new Exception("missing 'id'");
+			}
+			OsmPrimitive prim = refs.get(idOrRef.toString());
+			if (prim == null) {
+				if (type == null) {
+					throw new Exception("missing 'element_type'");
+				}
+				long id;
+				try {
+					id = Long.parseLong(idOrRef.toString());
+				} catch (NumberFormatException e) {
+					throw new Exception("unknown ref '" + idOrRef + "'");
+				}
+				prim = ds.getPrimitiveById(new SimplePrimitiveId(id, type));
+				if (prim == null) {
+					throw new Exception(type.getAPIName() + " " + id + " not found");
+				}
+			}
+			if (type != null && prim.getType() != type) {
+				throw new Exception("'" + idOrRef + "' is not a " + type.getAPIName());
+			}
+			if (deleted.contains(prim)) {
+				throw new Exception("'" + idOrRef + "' is deleted by an earlier operation");
+			}
+			return prim;
+		}
+
+		private static boolean isNumber(String s) {
+			try {
+				Long.parseLong(s);
+				return true;
+			} catch (NumberFormatException e) {
+				return false;
+			}
+		}
+
+		private static LatLon latLon(Map<String, Object> op) throws Exception {
+			Object lat = op.get("latitude");
+			Object lon = op.get("longitude");
+			if (!(lat instanceof Number) || !(lon instanceof Number)) {
+				throw new Exception("missing or invalid 'latitude'/'longitude'");
+			}
+			return new LatLon(((Number) lat).doubleValue(), ((Number) lon).doubleValue());
+		}
+
+		private static void applyTags(OsmPrimitive prim, Map<String, String> tags) {
+			if (tags == null) {
+				return;
+			}
+			for (Map.Entry<String, String> tag : tags.entrySet()) {
+				if (tag.getValue() == null || tag.getValue().isEmpty()) {
+					prim.remove(tag.getKey());
+				} else {
+					prim.put(tag.getKey(), tag.getValue());
+				}
+			}
+		}
+	}
+
+	@Override
+	public Map<String, Object> getOutputSchema() {
+		return Map.of("type", "object", "properties", Map.of("operations", Map.of("type", "integer"), "refs",
+				Map.of("type", "object", "additionalProperties", Map.of("type", "integer"))));
+	}
+}
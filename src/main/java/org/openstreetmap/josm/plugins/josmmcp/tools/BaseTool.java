@@ -18,35 +18,254 @@
 package org.openstreetmap.josm.plugins.josmmcp.tools;
 
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
+import org.openstreetmap.josm.command.Command;
+import org.openstreetmap.josm.data.UndoRedoHandler;
+import org.openstreetmap.josm.data.osm.DataSet;
+import org.openstreetmap.josm.data.osm.Tagged;
+import org.openstreetmap.josm.gui.MainApplication;
+import org.openstreetmap.josm.gui.util.GuiHelper;
+import org.openstreetmap.josm.plugins.josmmcp.data.DataSetVersions;
+import org.openstreetmap.josm.plugins.josmmcp.server.McpHttpServer;
+import org.openstreetmap.josm.plugins.josmmcp.server.ResponseCache;
+import org.openstreetmap.josm.plugins.josmmcp.server.ServerMetrics;
+import org.openstreetmap.josm.plugins.josmmcp.server.ToolExecutor;
+import org.openstreetmap.josm.plugins.josmmcp.server.ToolMetrics;
+import org.openstreetmap.josm.plugins.josmmcp.server.WriteCoalescer;
+import org.openstreetmap.josm.spi.preferences.Config;
 import org.openstreetmap.josm.tools.Logging;
 
+import io.modelcontextprotocol.common.McpTransportContext;
+import io.modelcontextprotocol.json.McpJsonMapper;
+import io.modelcontextprotocol.server.McpServerFeatures;
 import io.modelcontextprotocol.server.McpStatelessServerFeatures;
+import io.modelcontextprotocol.spec.McpSchema;
+import io.modelcontextprotocol.spec.McpSchema.CallToolRequest;
 import io.modelcontextprotocol.spec.McpSchema.CallToolResult;
 import io.modelcontextprotocol.spec.McpSchema.TextContent;
 import io.modelcontextprotocol.spec.McpSchema.Tool;
-import reactor.core.publisher.Mono;
 
 public abstract class BaseTool implements org.openstreetmap.josm.plugins.josmmcp.tools.Tool {
 
+	// When enabled, tools with an output schema always answer with MCP structuredContent
+	private static final boolean STRUCTURED_OUTPUT = Config.getPref().getBoolean("josmmcp.output.structured", false);
+	// Logging of the full arguments and results: all, sampled, debug or none
+	private static final String LOG_PAYLOADS = Config.getPref().get("josmmcp.log.payloads", "debug");
+	private static final int LOG_SAMPLE_RATE = Math.max(1, Config.getPref().getInt("josmmcp.log.sample_rate", 100));
+	private static final AtomicLong CALLS = new AtomicLong();
+
+	private Tool buildTool(boolean structured) {
+		Map<String, Object> outputSchema = this.getOutputSchema();
+		Tool.Builder builder = Tool.builder().name(this.getName()).description(this.getDescription())
+				.inputSchema(outputSchema != null ? withFormat(this.getInputSchema()) : this.getInputSchema());
+		if (structured) {
+			builder.outputSchema(outputSchema);
+		}
+		return builder.build();
+	}
+
 	public McpStatelessServerFeatures.AsyncToolSpecification getSpec() {
-		io.modelcontextprotocol.spec.McpSchema.Tool tool = Tool.builder().name(this.getName())
-				.description(this.getDescription()).inputSchema(this.getInputSchema()).build();
+		boolean structured = STRUCTURED_OUTPUT && this.getOutputSchema() != null;
+		io.modelcontextprotocol.spec.McpSchema.Tool tool = buildTool(structured);
 
 		McpStatelessServerFeatures.AsyncToolSpecification spec = new McpStatelessServerFeatures.AsyncToolSpecification(
 				tool, (exchange, params) -> {
-					Logging.info(String.format("Tool '%s' called with params: %s", this.getName(), params.arguments()));
-					try {
-						String result = this.handle(exchange, params);
-						Logging.info(String.format("Returning '%s' result: %s", this.getName(), result));
-						return Mono.just(CallToolResult.builder().content(Arrays.asList(new TextContent(result)))
-								.isError(false).build());
-					} catch (Exception e) {
-						Logging.error(String.format("Exception in '%s' - message: %s", this.getName(), e.getMessage()));
-						return Mono.just(CallToolResult.builder().content(Arrays.asList(new TextContent(e.getMessage())))
-								.isError(true).build());
-					}
+					long start = System.nanoTime();
+					return ToolExecutor.getInstance().submit(this.isReadOnly(),
+							() -> this.call(exchange, params, structured, start));
 				});
 		return spec;
 	}
+
+	/**
+	 * Returns the specification of the tool for the session-based transport.
+	 * The session of the caller is available in the transport context under
+	 * {@link McpHttpServer#SESSION}.
+	 */
+	public McpServerFeatures.AsyncToolSpecification getSessionSpec() {
+		boolean structured = STRUCTURED_OUTPUT && this.getOutputSchema() != null;
+		return McpServerFeatures.AsyncToolSpecification.builder().tool(buildTool(structured))
+				.callHandler((exchange, params) -> {
+					long start = System.nanoTime();
+					McpTransportContext context = key -> McpHttpServer.SESSION.equals(key) ? exchange
+							: exchange.transportContext().get(key);
+					return ToolExecutor.getInstance().submit(this.isReadOnly(),
+							() -> this.call(context, params, structured, start));
+				}).build();
+	}
+
+	/**
+	 * Runs the tool on the executor thread. Read-only tools run with the read
+	 * lock of the edit DataSet held, and the cacheable ones are answered from
+	 * the {@link ResponseCache} when an identical call was made on the same
+	 * data.
+	 */
+	private CallToolResult call(McpTransportContext exchange, CallToolRequest params, boolean structured,
+			long start) {
+		ToolMetrics metrics = ServerMetrics.getInstance().forTool(this.getName());
+		boolean logPayload = logPayload();
+		if (logPayload) {
+			log(String.format("Tool '%s' called with params: %s", this.getName(), params.arguments()));
+		}
+		ServerMetrics.getInstance().setCurrent(metrics);
+		DataSet ds = this.isReadOnly() ? MainApplication.getLayerManager().getEditDataSet() : null;
+		if (ds != null) {
+			lockRead(ds);
+		}
+		try {
+			ResponseCache cache = ResponseCache.getInstance();
+			String key = cache.isEnabled() && this.isReadOnly() && this.isCacheable(params.arguments())
+					? cache.key(this.getName(), params.arguments(), ds)
+					: null;
+			String result = key != null ? cache.get(key) : null;
+			if (key != null) {
+				metrics.recordCache(result != null);
+			}
+			if (result == null) {
+				result = this.handle(exchange, params);
+				if (key != null) {
+					cache.put(key, result);
+				}
+			}
+			metrics.record(System.nanoTime() - start, utf8Length(result), false);
+			if (logPayload) {
+				log(String.format("Returning '%s' result: %s", this.getName(), result));
+			}
+			CallToolResult.Builder resultBuilder = CallToolResult.builder()
+					.content(Arrays.asList(new TextContent(result))).isError(false);
+			if (structured) {
+				resultBuilder.structuredContent(McpJsonMapper.getDefault(), result);
+			}
+			return resultBuilder.build();
+		} catch (Exception e) {
+			metrics.record(System.nanoTime() - start, utf8Length(e.getMessage()), true);
+			Logging.error(String.format("Exception in '%s' - message: %s", this.getName(), e.getMessage()));
+			return CallToolResult.builder().content(Arrays.asList(new TextContent(e.getMessage()))).isError(true)
+					.build();
+		} finally {
+			if (ds != null) {
+				ds.getReadLock().unlock();
+			}
+			ServerMetrics.getInstance().setCurrent(null);
+		}
+	}
+
+	private static boolean logPayload() {
+		switch (LOG_PAYLOADS) {
+		case "all":
+			return true;
+		case "sampled":
+			return CALLS.getAndIncrement() % LOG_SAMPLE_RATE == 0;
+		case "debug":
+			return Logging.isDebugEnabled();
+		default:
+			return false;
+		}
+	}
+
+	private static void log(String message) {
+		if ("debug".equals(LOG_PAYLOADS)) {
+			Logging.debug(message);
+		} else {
+			Logging.info(message);
+		}
+	}
+
+	private static long utf8Length(String s) {
+		if (s == null) {
+			return 0;
+		}
+		long bytes = s.length();
+		for (int i = 0, n = s.length(); i < n; i++) {
+			char c = s.charAt(i);
+			if (c >= 0x800) {
+				// surrogate pairs count 2 + 2 for 4 bytes
+				bytes += Character.isSurrogate(c) ? 1 : 2;
+			} else if (c >= 0x80) {
+				bytes++;
+			}
+		}
+		return bytes;
+	}
+
+	private static McpSchema.JsonSchema withFormat(McpSchema.JsonSchema schema) {
+		Map<String, Object> props = new HashMap<>(schema.properties());
+		Map<String, Object> formatProp = new HashMap<>();
+		formatProp.put("type", "string");
+		formatProp.put("enum", Arrays.asList("text", "json"));
+		formatProp.put("description", "Output format, 'json' returns compact JSON");
+		props.put("format", formatProp);
+		return new McpSchema.JsonSchema(schema.type(), props, schema.required(), schema.additionalProperties(),
+				schema.defs(), schema.definitions());
+	}
+
+	/**
+	 * Tells if the caller asked for JSON output, or if structured output is
+	 * enabled for the whole server.
+	 */
+	protected static boolean isJsonOutput(Map<String, Object> args) {
+		return STRUCTURED_OUTPUT || (args != null && "json".equals(args.get("format")));
+	}
+
+	/**
+	 * Acquires the DataSet read lock, accounting the wait to the running tool.
+	 * The events of a write of the tools that has just released the write
+	 * lock are awaited, so the caches and indexes match the data.
+	 */
+	protected static void lockRead(DataSet ds) {
+		ServerMetrics.getInstance().lock(ds.getReadLock());
+		DataSetVersions.awaitSettled(ds);
+	}
+
+	/**
+	 * Applies a command on the EDT, delivering a single change event to the
+	 * DataSet listeners. The time until the command starts, waiting for the EDT
+	 * and the write lock, is accounted to the running tool. When write
+	 * coalescing is enabled the command is added to the undo history later,
+	 * together with the other edits of the same window.
+	 */
+	protected static void execute(McpTransportContext exchange, DataSet ds, Command command) {
+		WriteCoalescer coalescer = WriteCoalescer.getInstance();
+		Object client = exchange != null ? exchange.get(McpHttpServer.CLIENT_ID) : null;
+		long start = System.nanoTime();
+		long[] waited = new long[1];
+		GuiHelper.runInEDTAndWaitWithException(() -> {
+			ds.beginUpdate();
+			waited[0] = System.nanoTime() - start;
+			DataSetVersions.writeStarted(ds);
+			try {
+				try {
+					if (coalescer.isEnabled()) {
+						coalescer.execute(client != null ? client.toString() : "", ds, command);
+					} else {
+						UndoRedoHandler.getInstance().add(command);
+					}
+				} finally {
+					ds.endUpdate();
+				}
+			} finally {
+				DataSetVersions.writeSettled(ds);
+			}
+		});
+		ServerMetrics.getInstance().recordLockWait(waited[0]);
+	}
+
+	/**
+	 * Appends the tags of a primitive in the <code>{key=value, ...}</code> text
+	 * form, visiting them in place.
+	 */
+	protected static StringBuilder appendTags(StringBuilder sb, Tagged tagged) {
+		sb.append('{');
+		int start = sb.length();
+		tagged.visitKeys((t, key, value) -> {
+			if (sb.length() > start) {
+				sb.append(", ");
+			}
+			sb.append(key).append('=').append(value);
+		});
+		return sb.append('}');
+	}
 }
@@ -0,0 +1,65 @@
+/*
+ * JosmMCPPlugin - JOSM plugin to integrate JOSM with the Model Context Protocol
+ * Copyright (C) 2025-2026 Pengunaria.dev
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.openstreetmap.josm.plugins.josmmcp.tools;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.openstreetmap.josm.spi.preferences.Config;
+
+/**
+ * The files the tools read and write for the clients. They are confined to
+ * the directory set in <code>josmmcp.files.dir</code>: without it, the tools
+ * refuse any path given by a client.
+ */
+final class ClientPaths {
+
+	private ClientPaths() {
+	}
+
+	/**
+	 * Resolves a path given by a client, relative to the configured directory.
+	 * Links are followed, so they cannot lead outside it either.
+	 */
+	static Path resolve(String pathArg) throws Exception {
+		String dir = Config.getPref().get("josmmcp.files.dir", "");
+		if (dir.isEmpty()) {
+			throw new Exception("file paths are disabled, set josmmcp.files.dir to the directory the tools may use");
+		}
+		Path base;
+		Path path;
+		try {
+			base = Paths.get(dir).toRealPath();
+			path = base.resolve(pathArg).normalize();
+			if (Files.exists(path)) {
+				path = path.toRealPath();
+			} else if (path.getParent() != null && Files.isDirectory(path.getParent())) {
+				path = path.getParent().toRealPath().resolve(path.getFileName());
+			}
+		} catch (IOException | InvalidPathException e) {
+			throw new Exception("invalid path " + pathArg + ": " + e.getMessage(), e);
+		}
+		if (!path.startsWith(base) || path.equals(base)) {
+			throw new Exception(pathArg + " is outside the directory set in josmmcp.files.dir");
+		}
+		return path;
+	}
+}
@@ -21,7 +21,6 @@ import java.util.Arrays;
 import java.util.Map;
 
 import org.openstreetmap.josm.command.AddCommand;
-import org.openstreetmap.josm.data.UndoRedoHandler;
 import org.openstreetmap.josm.data.coor.LatLon;
 import org.openstreetmap.josm.data.osm.DataSet;
 import org.openstreetmap.josm.data.osm.Node;
@@ -44,6 +43,11 @@ public class CreateNode extends BaseTool {
 		return "Create a new node in current Dataset and returns the Id";
 	}
 
+	@Override
+	public boolean isReadOnly() {
+		return false;
+	}
+
 	@Override
 	public JsonSchema getInputSchema() {
 		Map<String, Object> createProps = new java.util.HashMap<>();
@@ -74,7 +78,7 @@ public class CreateNode extends BaseTool {
 
 		AddCommand c = new AddCommand(ds, nd);
 
-		UndoRedoHandler.getInstance().add(c);
+		execute(exchange, ds, c);
 		return Long.toString(nd.getUniqueId());
 	}
 }
@@ -23,7 +23,6 @@ import java.util.Map;
 import java.util.stream.Collectors;
 
 import org.openstreetmap.josm.command.AddCommand;
-import org.openstreetmap.josm.data.UndoRedoHandler;
 import org.openstreetmap.josm.data.osm.DataSet;
 import org.openstreetmap.josm.data.osm.Node;
 import org.openstreetmap.josm.data.osm.OsmPrimitiveType;
@@ -48,6 +47,11 @@ public class CreateWay extends BaseTool {
 		return "Create a new way in current Dataset and returns the Id";
 	}
 
+	@Override
+	public boolean isReadOnly() {
+		return false;
+	}
+
 	@Override
 	public JsonSchema getInputSchema() {
 		Map<String, Object> createProps = new java.util.HashMap<>();
@@ -80,7 +84,7 @@ public class CreateWay extends BaseTool {
 
 		AddCommand c = new AddCommand(ds, w);
 
-		UndoRedoHandler.getInstance().add(c);
+		execute(exchange, ds, c);
 		return Long.toString(w.getUniqueId());
 	}
 }
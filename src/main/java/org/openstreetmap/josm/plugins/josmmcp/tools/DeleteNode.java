@@ -21,7 +21,6 @@ import java.util.Arrays;
 import java.util.Map;
 
 import org.openstreetmap.josm.command.DeleteCommand;
-import org.openstreetmap.josm.data.UndoRedoHandler;
 import org.openstreetmap.josm.data.osm.DataSet;
 import org.openstreetmap.josm.data.osm.Node;
 import org.openstreetmap.josm.data.osm.OsmPrimitiveType;
@@ -45,6 +44,11 @@ public class DeleteNode extends BaseTool {
 		return "Delete a node by Id in current Dataset";
 	}
 
+	@Override
+	public boolean isReadOnly() {
+		return false;
+	}
+
 	@Override
 	public JsonSchema getInputSchema() {
 		Map<String, Object> deleteProps = new java.util.HashMap<>();
@@ -69,7 +73,7 @@ public class DeleteNode extends BaseTool {
 		Node nd = (Node) ds.getPrimitiveById(new SimplePrimitiveId(id, OsmPrimitiveType.NODE));
 
 		DeleteCommand c = new DeleteCommand(ds, nd);
-		UndoRedoHandler.getInstance().add(c);
+		execute(exchange, ds, c);
 		return "";
 	}
 }
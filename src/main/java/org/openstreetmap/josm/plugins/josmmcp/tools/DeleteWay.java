@@ -21,7 +21,6 @@ import java.util.Arrays;
 import java.util.Map;
 
 import org.openstreetmap.josm.command.DeleteCommand;
-import org.openstreetmap.josm.data.UndoRedoHandler;
 import org.openstreetmap.josm.data.osm.DataSet;
 import org.openstreetmap.josm.data.osm.OsmPrimitiveType;
 import org.openstreetmap.josm.data.osm.SimplePrimitiveId;
@@ -45,6 +44,11 @@ public class DeleteWay extends BaseTool {
 		return "Delete a way by Id in current Dataset";
 	}
 
+	@Override
+	public boolean isReadOnly() {
+		return false;
+	}
+
 	@Override
 	public JsonSchema getInputSchema() {
 		Map<String, Object> deleteProps = new java.util.HashMap<>();
@@ -69,7 +73,7 @@ public class DeleteWay extends BaseTool {
 		Way w = (Way) ds.getPrimitiveById(new SimplePrimitiveId(id, OsmPrimitiveType.WAY));
 
 		DeleteCommand c = new DeleteCommand(ds, w);
-		UndoRedoHandler.getInstance().add(c);
+		execute(exchange, ds, c);
 		return "";
 	}
 }
@@ -0,0 +1,389 @@
+/*
+ * JosmMCPPlugin - JOSM plugin to integrate JOSM with the Model Context Protocol
+ * Copyright (C) 2025-2026 Pengunaria.dev
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.openstreetmap.josm.plugins.josmmcp.tools;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.RandomAccess;
+
+import org.openstreetmap.josm.data.osm.DataSet;
+import org.openstreetmap.josm.data.osm.OsmPrimitive;
+import org.openstreetmap.josm.data.osm.search.SearchCompiler;
+import org.openstreetmap.josm.data.osm.search.SearchParseError;
+import org.openstreetmap.josm.plugins.josmmcp.data.DataSetVersions;
+import org.openstreetmap.josm.plugins.josmmcp.data.TagIndex;
+
+/**
+ * A JOSM query, optionally restricted to an area, evaluated page by page.
+ *
+ * The scan stops as soon as the requested page is full, and the returned
+ * cursor records where it stopped so the next page resumes from there. A
+ * cursor of a scan is only valid until the data changes, because the scan
+ * order of the DataSet changes with its content; the cursors of the searches
+ * answered by the tag index follow the primitive ids and survive edits.
+ * Scans that examine many candidates without filling the page continue on the
+ * ForkJoinPool (see {@link ParallelScan}). Conjunctions of simple tag terms
+ * only scan the candidates given by the {@link TagIndex}, when enabled. All
+ * the methods must be called with the DataSet read lock held.
+ */
+public final class ElementSearch {
+
+	// prefix of the cache key of the searches whose candidates come from the tag index
+	private static final String INDEXED = "index|";
+
+	private final DataSet ds;
+	private final String query;
+	private final SpatialFilter area;
+	private final SearchCompiler.Match matcher;
+	private final String scanKey;
+	private String key;
+	// candidates given by the tag index, verified by the matcher like the others
+	private List<OsmPrimitive> indexed;
+
+	public ElementSearch(DataSet ds, String query, SpatialFilter area) throws SearchParseError {
+		this.ds = ds;
+		this.query = query;
+		this.area = area;
+		this.matcher = SearchCache.getInstance().matcher(query);
+		this.scanKey = area != null ? query + '|' + area : query;
+		TagIndex index = area == null ? TagIndex.get(ds) : null;
+		long[] codes = index != null ? index.candidates(query) : null;
+		if (codes != null) {
+			this.indexed = TagIndex.resolve(ds, codes);
+			this.key = INDEXED + scanKey;
+		} else {
+			this.key = scanKey;
+		}
+	}
+
+	private Collection<OsmPrimitive> candidates() {
+		if (indexed != null) {
+			return indexed;
+		}
+		return area != null ? area.candidates(ds) : ds.allPrimitives();
+	}
+
+	/**
+	 * Returns the total number of matches.
+	 */
+	public int count() {
+		SearchCache.Results cached = SearchCache.getInstance().results(ds, key);
+		if (cached != null && cached.complete) {
+			return cached.matches.length;
+		}
+		Collection<OsmPrimitive> candidates = candidates();
+		if (ParallelScan.isThreadSafe(matcher)) {
+			OsmPrimitive[] array = candidates.toArray(new OsmPrimitive[0]);
+			if (array.length >= ParallelScan.threshold()) {
+				return ParallelScan.count(array, matcher);
+			}
+		}
+		int count = 0;
+		int pos = 0;
+		int from = cached != null ? cached.scanned : 0;
+		for (OsmPrimitive prim : candidates) {
+			if (pos++ >= from && matcher.match(prim)) {
+				count++;
+			}
+		}
+		return cached != null ? cached.matches.length + count : count;
+	}
+
+	/**
+	 * Returns all the matches, in candidate order.
+	 */
+	public List<OsmPrimitive> all() throws Exception {
+		return page(null, Integer.MAX_VALUE - 1).items;
+	}
+
+	/**
+	 * Returns the matches lazily, in candidate order, without collecting them
+	 * and without going through the result cache.
+	 */
+	public Iterator<OsmPrimitive> iterator() {
+		return candidates().stream().filter(matcher::match).iterator();
+	}
+
+	/**
+	 * Tells if a primitive is one of the matches.
+	 */
+	public boolean matches(OsmPrimitive prim) {
+		return (area == null || area.contains(prim)) && matcher.match(prim);
+	}
+
+	private static OsmPrimitive[] drain(Iterator<OsmPrimitive> it) {
+		List<OsmPrimitive> rest = new ArrayList<>();
+		it.forEachRemaining(rest::add);
+		return rest.toArray(new OsmPrimitive[0]);
+	}
+
+	/**
+	 * Returns the next page of matches.
+	 *
+	 * @param cursorToken the cursor returned with the previous page, or
+	 *                    <code>null</code> for the first page
+	 * @param size        maximum number of matches in the page
+	 */
+	public Page page(String cursorToken, int size) throws Exception {
+		SearchCache cache = SearchCache.getInstance();
+		long version = DataSetVersions.get(ds);
+		int startScan = 0;
+		int startMatch = 0;
+		if (cursorToken != null) {
+			Cursor cursor = Cursor.decode(cursorToken);
+			if (cursor.dataSet != System.identityHashCode(ds)) {
+				throw new Exception("the cursor belongs to another data layer, restart the search");
+			}
+			boolean sameVersion = cursor.version == version;
+			if (cursor.keyHash == (INDEXED + scanKey).hashCode()) {
+				// The index candidates are in code order, so their pages resume after
+				// the last code returned even when the data changed meanwhile
+				if (indexed == null) {
+					throw new Exception("the tag index is being rebuilt, retry the same cursor shortly");
+				}
+				startScan = sameVersion ? cursor.scanPos : after(cursor.lastCode());
+			} else if (cursor.keyHash == scanKey.hashCode()) {
+				// The scan order of the DataSet changes with its content
+				if (!sameVersion) {
+					throw new Exception("the data changed since the cursor was issued, restart the search");
+				}
+				if (indexed != null) {
+					// the previous pages were scanned before the index was ready, go on scanning
+					indexed = null;
+					key = scanKey;
+				}
+				startScan = cursor.scanPos;
+			} else {
+				throw new Exception("the cursor belongs to a different query");
+			}
+			startMatch = cursor.matchIndex;
+		}
+
+		// One extra match tells if there is a following page
+		int need = size + 1;
+		List<OsmPrimitive> items = new ArrayList<>(Math.min(need, 1024));
+		int[] positions = new int[Math.min(need, 1024)];
+		int scanFrom = startScan;
+		boolean exhausted = false;
+
+		SearchCache.Results cached = cache.results(ds, key);
+		boolean extendCache;
+		if (cached != null && covers(cached, startScan, startMatch)) {
+			// Serve what we can from the cached prefix
+			for (int i = startMatch; i < cached.matches.length && items.size() < need; i++) {
+				positions = add(items, positions, cached.matches[i], cached.positions[i]);
+			}
+			exhausted = cached.complete && items.size() < need;
+			scanFrom = cached.scanned;
+			extendCache = !cached.complete;
+		} else {
+			extendCache = cached == null && startScan == 0;
+			cached = null;
+		}
+
+		int scanned = scanFrom;
+		int firstNew = items.size();
+		if (items.size() < need && !exhausted) {
+			Iterator<OsmPrimitive> it = candidatesFrom(scanFrom);
+			int pos = scanFrom;
+			// Switch to a parallel scan of the remainder when the page is slow to fill
+			int parallelAfter = ParallelScan.isThreadSafe(matcher) ? pos + ParallelScan.threshold()
+					: Integer.MAX_VALUE;
+			boolean parallel = false;
+			while (items.size() < need && it.hasNext()) {
+				if (pos == parallelAfter) {
+					OsmPrimitive[] rest = drain(it);
+					int wanted = need - items.size();
+					int[] found = ParallelScan.find(rest, matcher, wanted);
+					for (int p : found) {
+						positions = add(items, positions, rest[p], pos + p);
+					}
+					exhausted = found.length < wanted;
+					pos += exhausted ? rest.length : found[found.length - 1] + 1;
+					parallel = true;
+					break;
+				}
+				OsmPrimitive prim = it.next();
+				if (matcher.match(prim)) {
+					positions = add(items, positions, prim, pos);
+				}
+				pos++;
+			}
+			scanned = pos;
+			if (!parallel) {
+				exhausted = !it.hasNext();
+			}
+			if (extendCache) {
+				storePrefix(cached, items.subList(firstNew, items.size()),
+						Arrays.copyOfRange(positions, firstNew, items.size()), scanned, exhausted);
+			}
+		}
+
+		boolean hasMore = items.size() > size;
+		List<OsmPrimitive> pageItems = hasMore ? items.subList(0, size) : items;
+		String next = null;
+		if (hasMore) {
+			OsmPrimitive last = pageItems.get(size - 1);
+			next = new Cursor(key.hashCode(), System.identityHashCode(ds), version, positions[size - 1] + 1,
+					startMatch + size, last).encode();
+		}
+		Integer total = hasMore ? null : Integer.valueOf(startMatch + items.size());
+		return new Page(pageItems, next, total);
+	}
+
+	private static boolean covers(SearchCache.Results cached, int startScan, int startMatch) {
+		if (startMatch == 0) {
+			return startScan == 0;
+		}
+		return startMatch <= cached.matches.length && cached.positions[startMatch - 1] + 1 == startScan;
+	}
+
+	private static int[] add(List<OsmPrimitive> items, int[] positions, OsmPrimitive prim, int pos) {
+		if (items.size() == positions.length) {
+			positions = Arrays.copyOf(positions, positions.length * 2);
+		}
+		positions[items.size()] = pos;
+		items.add(prim);
+		return positions;
+	}
+
+	private void storePrefix(SearchCache.Results cached, List<OsmPrimitive> newMatches, int[] newPositions,
+			int scanned, boolean complete) {
+		int prefix = cached != null ? cached.matches.length : 0;
+		OsmPrimitive[] matches = new OsmPrimitive[prefix + newMatches.size()];
+		int[] positions = new int[matches.length];
+		if (cached != null) {
+			System.arraycopy(cached.matches, 0, matches, 0, prefix);
+			System.arraycopy(cached.positions, 0, positions, 0, prefix);
+		}
+		for (int i = 0; i < newMatches.size(); i++) {
+			matches[prefix + i] = newMatches.get(i);
+		}
+		System.arraycopy(newPositions, 0, positions, prefix, newPositions.length);
+		SearchCache.getInstance().putResults(ds, key, query, matches, positions, scanned, complete);
+	}
+
+	/**
+	 * Returns the candidates from a scan position. The following pages of a
+	 * scan of the whole DataSet go through a snapshot of its primitives, shared
+	 * while the data does not change, so they start without iterating over the
+	 * previous ones.
+	 */
+	private Iterator<OsmPrimitive> candidatesFrom(int pos) {
+		Collection<OsmPrimitive> candidates = pos > 0 && indexed == null && area == null
+				? SearchCache.getInstance().snapshot(ds)
+				: candidates();
+		if (candidates instanceof List && candidates instanceof RandomAccess) {
+			return ((List<OsmPrimitive>) candidates).listIterator(Math.min(pos, candidates.size()));
+		}
+		Iterator<OsmPrimitive> it = candidates.iterator();
+		for (int i = 0; i < pos && it.hasNext(); i++) {
+			it.next();
+		}
+		return it;
+	}
+
+	/**
+	 * Finds the position of the first index candidate following a code.
+	 */
+	private int after(long code) {
+		int low = 0;
+		int high = indexed.size();
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			OsmPrimitive prim = indexed.get(mid);
+			if (((prim.getUniqueId() << 2) | prim.getType().ordinal()) <= code) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * A page of search results.
+	 */
+	public static final class Page {
+		public final List<OsmPrimitive> items;
+		/** cursor of the following page, <code>null</code> on the last page */
+		public final String nextCursor;
+		/** total number of matches, only known on the last page */
+		public final Integer total;
+
+		private Page(List<OsmPrimitive> items, String nextCursor, Integer total) {
+			this.items = items;
+			this.nextCursor = nextCursor;
+			this.total = total;
+		}
+	}
+
+	/**
+	 * Opaque continuation token: the query hash, the DataSet version, where the
+	 * scan stopped and the last element returned.
+	 */
+	private static final class Cursor {
+		private final int keyHash;
+		private final int dataSet;
+		private final long version;
+		private final int scanPos;
+		private final int matchIndex;
+		private final int lastType;
+		private final long lastId;
+
+		private Cursor(int keyHash, int dataSet, long version, int scanPos, int matchIndex, int lastType,
+				long lastId) {
+			this.keyHash = keyHash;
+			this.dataSet = dataSet;
+			this.version = version;
+			this.scanPos = scanPos;
+			this.matchIndex = matchIndex;
+			this.lastType = lastType;
+			this.lastId = lastId;
+		}
+
+		private Cursor(int keyHash, int dataSet, long version, int scanPos, int matchIndex, OsmPrimitive last) {
+			this(keyHash, dataSet, version, scanPos, matchIndex, last.getType().ordinal(), last.getUniqueId());
+		}
+
+		private long lastCode() {
+			return (lastId << 2) | lastType;
+		}
+
+		private String encode() {
+			String raw = keyHash + ":" + dataSet + ":" + version + ":" + scanPos + ":" + matchIndex + ":" + lastType
+					+ ":" + lastId;
+			return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.US_ASCII));
+		}
+
+		private static Cursor decode(String token) throws Exception {
+			try {
+				String[] f = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.US_ASCII).split(":");
+				return new Cursor(Integer.parseInt(f[0]), Integer.parseInt(f[1]), Long.parseLong(f[2]),
+						Integer.parseInt(f[3]), Integer.parseInt(f[4]), Integer.parseInt(f[5]), Long.parseLong(f[6]));
+			} catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+				throw new Exception("invalid cursor");
+			}
+		}
+	}
+}
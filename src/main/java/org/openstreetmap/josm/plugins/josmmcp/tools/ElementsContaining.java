@@ -0,0 +1,128 @@
+/*
+ * JosmMCPPlugin - JOSM plugin to integrate JOSM with the Model Context Protocol
+ * Copyright (C) 2025-2026 Pengunaria.dev
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.openstreetmap.josm.plugins.josmmcp.tools;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.openstreetmap.josm.data.osm.DataSet;
+import org.openstreetmap.josm.data.osm.DefaultNameFormatter;
+import org.openstreetmap.josm.data.osm.OsmPrimitive;
+import org.openstreetmap.josm.data.osm.search.SearchCompiler;
+import org.openstreetmap.josm.gui.MainApplication;
+import org.openstreetmap.josm.plugins.josmmcp.data.AreaIndex;
+
+import io.modelcontextprotocol.common.McpTransportContext;
+import io.modelcontextprotocol.spec.McpSchema;
+import io.modelcontextprotocol.spec.McpSchema.CallToolRequest;
+import io.modelcontextprotocol.spec.McpSchema.JsonSchema;
+
+/**
+ * Returns the closed ways and the multipolygon and boundary relations
+ * containing a point, looked up in the {@link AreaIndex}.
+ */
+public class ElementsContaining extends BaseTool {
+
+	@Override
+	public String getName() {
+		return "elements_containing";
+	}
+
+	@Override
+	public String getDescription() {
+		return "Find the areas (closed ways, multipolygon and boundary relations) containing a coordinate, "
+				+ "innermost first, optionally only those matching a JOSM query (e.g. 'landuse=*')";
+	}
+
+	@Override
+	public boolean isReadOnly() {
+		return true;
+	}
+
+	@Override
+	public boolean isCacheable(Map<String, Object> args) {
+		return !SearchCache.isVolatile((String) args.get("query"));
+	}
+
+	@Override
+	public JsonSchema getInputSchema() {
+		Map<String, Object> containingProps = new java.util.HashMap<>();
+		containingProps.put("latitude", Map.of("type", "number"));
+		containingProps.put("longitude", Map.of("type", "number"));
+		Map<String, Object> queryProp = new java.util.HashMap<>();
+		queryProp.put("type", "string");
+		queryProp.put("description", "Only return the areas matching this JOSM query");
+		containingProps.put("query", queryProp);
+
+		McpSchema.JsonSchema containingSchema = new McpSchema.JsonSchema("object", containingProps,
+				Arrays.asList("latitude", "longitude"), null, null, null);
+		return containingSchema;
+	}
+
+	@Override
+	public String handle(McpTransportContext exchange, CallToolRequest params) throws Exception {
+		Map<String, Object> args = params.arguments();
+
+		if (!(args.get("latitude") instanceof Number) || !(args.get("longitude") instanceof Number)) {
+			throw new Exception("missing or invalid 'latitude'/'longitude'");
+		}
+		double lat = ((Number) args.get("latitude")).doubleValue();
+		double lon = ((Number) args.get("longitude")).doubleValue();
+		String query = (String) args.get("query");
+		SearchCompiler.Match matcher = query != null ? SearchCache.getInstance().matcher(query) : null;
+
+		DataSet ds = MainApplication.getLayerManager().getEditDataSet();
+		if (ds == null) {
+			throw new Exception("no active dataset found");
+		}
+
+		// BaseTool holds the read lock
+		List<OsmPrimitive> areas = AreaIndex.get(ds).containing(lat, lon);
+		if (matcher != null) {
+			areas.removeIf(prim -> !matcher.match(prim));
+		}
+
+		DefaultNameFormatter formatter = DefaultNameFormatter.getInstance();
+		if (isJsonOutput(args)) {
+			JsonWriter w = new JsonWriter().beginObject().name("elements").beginArray();
+			for (OsmPrimitive prim : areas) {
+				w.beginObject().name("id").value(prim.getUniqueId()).name("type").value(prim.getType().getAPIName())
+						.name("name").value(prim.getDisplayName(formatter)).name("tags").tags(prim).endObject();
+			}
+			return w.endArray().endObject().toString();
+		}
+		StringBuilder sb = new StringBuilder();
+		sb.append("Areas containing (").append(lat).append(", ").append(lon).append("): ").append(areas.size())
+				.append("\n");
+		for (OsmPrimitive prim : areas) {
+			sb.append("- ").append(prim.getDisplayName(formatter)).append(" (ID: ").append(prim.getUniqueId())
+					.append(", type: ").append(prim.getType()).append(", tags: ");
+			appendTags(sb, prim).append(")\n");
+		}
+		return sb.toString();
+	}
+
+	@Override
+	public Map<String, Object> getOutputSchema() {
+		Map<String, Object> element = Map.of("type", "object", "properties",
+				Map.of("id", Map.of("type", "integer"), "type", Map.of("type", "string"), "name",
+						Map.of("type", "string"), "tags", Map.of("type", "object")));
+		return Map.of("type", "object", "properties", Map.of("elements", Map.of("type", "array", "items", element)));
+	}
+}
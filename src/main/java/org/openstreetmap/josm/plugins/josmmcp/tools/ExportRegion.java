@@ -0,0 +1,205 @@
+/*
+ * JosmMCPPlugin - JOSM plugin to integrate JOSM with the Model Context Protocol
+ * Copyright (C) 2025-2026 Pengunaria.dev
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.openstreetmap.josm.plugins.josmmcp.tools;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+import org.openstreetmap.josm.data.osm.DataSet;
+import org.openstreetmap.josm.data.osm.Node;
+import org.openstreetmap.josm.data.osm.OsmPrimitive;
+import org.openstreetmap.josm.data.osm.OsmPrimitiveType;
+import org.openstreetmap.josm.data.osm.Way;
+import org.openstreetmap.josm.gui.MainApplication;
+import org.openstreetmap.josm.plugins.josmmcp.server.ExportRegistry;
+
+import io.modelcontextprotocol.common.McpTransportContext;
+import io.modelcontextprotocol.spec.McpSchema;
+import io.modelcontextprotocol.spec.McpSchema.CallToolRequest;
+import io.modelcontextprotocol.spec.McpSchema.JsonSchema;
+
+/**
+ * Writes the elements matching a query and/or an area to a local file, and
+ * makes it downloadable from <code>/export/{id}</code>. Only the path and the
+ * counts are returned, never the data itself.
+ */
+public class ExportRegion extends BaseTool {
+
+	@Override
+	public String getName() {
+		return "export_region";
+	}
+
+	@Override
+	public String getDescription() {
+		return "Export the elements matching a JOSM query and/or an area to a file on the JOSM machine, as OSM XML "
+				+ "(osm), osmChange of the local edits (osc), newline-delimited JSON (ndjson) or length-prefixed "
+				+ "binary records (binary). Returns the path and the counts; the file can also be downloaded over "
+				+ "HTTP from the returned url";
+	}
+
+	@Override
+	public boolean isReadOnly() {
+		return true;
+	}
+
+	@Override
+	public JsonSchema getInputSchema() {
+		Map<String, Object> exportProps = new java.util.HashMap<>();
+		Map<String, Object> queryProp = new java.util.HashMap<>();
+		queryProp.put("type", "string");
+		queryProp.put("description", "JOSM query, all the elements of the area when omitted");
+		exportProps.put("query", queryProp);
+		SpatialFilter.addSchema(exportProps);
+		Map<String, Object> fileFormatProp = new java.util.HashMap<>();
+		fileFormatProp.put("type", "string");
+		fileFormatProp.put("enum", Arrays.asList(RegionWriter.FORMATS));
+		exportProps.put("file_format", fileFormatProp);
+		Map<String, Object> pathProp = new java.util.HashMap<>();
+		pathProp.put("type", "string");
+		pathProp.put("description", "File to write, relative to the export directory configured in JOSM; a temporary file when omitted");
+		exportProps.put("path", pathProp);
+		Map<String, Object> overwriteProp = new java.util.HashMap<>();
+		overwriteProp.put("type", "boolean");
+		overwriteProp.put("description", "Replace 'path' if it exists");
+		exportProps.put("overwrite", overwriteProp);
+		Map<String, Object> withNodesProp = new java.util.HashMap<>();
+		withNodesProp.put("type", "boolean");
+		withNodesProp.put("description", "Also export the nodes of the matching ways (default true)");
+		exportProps.put("with_nodes", withNodesProp);
+
+		McpSchema.JsonSchema exportSchema = new McpSchema.JsonSchema("object", exportProps,
+				Arrays.asList("file_format"), null, null, null);
+		return exportSchema;
+	}
+
+	@Override
+	public String handle(McpTransportContext exchange, CallToolRequest params) throws Exception {
+		Map<String, Object> args = params.arguments();
+
+		// BaseTool holds the read lock
+		DataSet ds = MainApplication.getLayerManager().getEditDataSet();
+		if (ds == null) {
+			throw new Exception("no active dataset found");
+		}
+
+		String query = (String) args.get("query");
+		SpatialFilter area = SpatialFilter.fromArguments(args);
+		if (query == null && area == null) {
+			throw new Exception("give a 'query', an area or both");
+		}
+		String fileFormat = (String) args.get("file_format");
+		if (!Arrays.asList(RegionWriter.FORMATS).contains(fileFormat)) {
+			throw new Exception("invalid 'file_format', use one of " + Arrays.toString(RegionWriter.FORMATS));
+		}
+		boolean osc = "osc".equals(fileFormat);
+		boolean withNodes = !Boolean.FALSE.equals(args.get("with_nodes"));
+
+		long start = System.nanoTime();
+		ElementSearch search = new ElementSearch(ds, query != null ? query : "", area);
+		RegionWriter.Source source = (type, sink) -> {
+			for (Iterator<OsmPrimitive> it = search.iterator(); it.hasNext();) {
+				OsmPrimitive prim = it.next();
+				if (prim.getType() == type && isExported(prim, osc)) {
+					sink.accept(prim);
+				}
+			}
+			if (type == OsmPrimitiveType.NODE && withNodes) {
+				// the nodes of the matching ways that were not written as matches, once each
+				Set<Long> written = new HashSet<>();
+				for (Iterator<OsmPrimitive> it = search.iterator(); it.hasNext();) {
+					OsmPrimitive prim = it.next();
+					if (!(prim instanceof Way) || !isExported(prim, osc)) {
+						continue;
+					}
+					Way w = (Way) prim;
+					for (int i = 0, n = w.getNodesCount(); i < n; i++) {
+						Node nd = w.getNode(i);
+						if (!nd.isIncomplete() && !(isExported(nd, osc) && search.matches(nd))
+								&& written.add(nd.getUniqueId())) {
+							sink.accept(nd);
+						}
+					}
+				}
+			}
+		};
+
+		Path path;
+		boolean temporary = args.get("path") == null;
+		if (temporary) {
+			path = ExportRegistry.getInstance().createTempFile(RegionWriter.extension(fileFormat));
+		} else {
+			path = ClientPaths.resolve((String) args.get("path"));
+			if (Files.exists(path) && !Boolean.TRUE.equals(args.get("overwrite"))) {
+				throw new Exception(path + " already exists, set 'overwrite' to replace it");
+			}
+		}
+		RegionWriter writer;
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			writer = RegionWriter.create(fileFormat, channel);
+			try (RegionWriter w = writer) {
+				w.write(source);
+			}
+		} catch (IOException e) {
+			if (temporary) {
+				Files.deleteIfExists(path);
+			}
+			throw new Exception("cannot write " + path + ": " + e.getMessage(), e);
+		}
+		String id = ExportRegistry.getInstance().register(path, RegionWriter.contentType(fileFormat), temporary);
+		int[] counts = writer.getCounts();
+		long millis = (System.nanoTime() - start) / 1_000_000;
+
+		if (isJsonOutput(args)) {
+			return new JsonWriter().beginObject().name("path").value(path.toString()).name("url")
+					.value("/export/" + id).name("nodes").value(counts[0]).name("ways").value(counts[1])
+					.name("relations").value(counts[2]).name("bytes").value(writer.getBytes()).name("millis")
+					.value(millis).endObject().toString();
+		}
+		return "path: " + path + "\nurl: /export/" + id + "\nnodes: " + counts[0] + "\nways: " + counts[1]
+				+ "\nrelations: " + counts[2] + "\nbytes: " + writer.getBytes() + "\nmillis: " + millis + "\n";
+	}
+
+	private static boolean isExported(OsmPrimitive prim, boolean osc) {
+		// osmChange also carries the deletions
+		return !prim.isIncomplete() && (!prim.isDeleted() || osc);
+	}
+
+	@Override
+	public Map<String, Object> getOutputSchema() {
+		Map<String, Object> integer = Map.of("type", "integer");
+		Map<String, Object> props = new java.util.HashMap<>();
+		props.put("path", Map.of("type", "string"));
+		props.put("url", Map.of("type", "string"));
+		props.put("nodes", integer);
+		props.put("ways", integer);
+		props.put("relations", integer);
+		props.put("bytes", integer);
+		props.put("millis", integer);
+		return Map.of("type", "object", "properties", props);
+	}
+}
@@ -0,0 +1,181 @@
+/*
+ * JosmMCPPlugin - JOSM plugin to integrate JOSM with the Model Context Protocol
+ * Copyright (C) 2025-2026 Pengunaria.dev
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.openstreetmap.josm.plugins.josmmcp.tools;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openstreetmap.josm.data.osm.DataSet;
+import org.openstreetmap.josm.gui.MainApplication;
+import org.openstreetmap.josm.plugins.josmmcp.data.ChangeJournal;
+
+import io.modelcontextprotocol.common.McpTransportContext;
+import io.modelcontextprotocol.spec.McpSchema;
+import io.modelcontextprotocol.spec.McpSchema.CallToolRequest;
+import io.modelcontextprotocol.spec.McpSchema.JsonSchema;
+
+/**
+ * Returns the elements changed since a sequence number of the change journal
+ * of the edit DataSet, one entry per element with all its kinds of change.
+ */
+public class GetChangesSince extends BaseTool {
+
+	@Override
+	public String getName() {
+		return "get_changes_since";
+	}
+
+	@Override
+	public String getDescription() {
+		return "Get the elements added, removed, retagged, moved or whose nodes/members changed since a sequence "
+				+ "number. Call it without 'since' to get the current sequence number. When 'resync' is true the "
+				+ "changes are no longer available (or the edit layer changed) and the data must be read again";
+	}
+
+	@Override
+	public boolean isReadOnly() {
+		return true;
+	}
+
+	@Override
+	public JsonSchema getInputSchema() {
+		Map<String, Object> changesProps = new java.util.HashMap<>();
+		Map<String, Object> sinceProp = new java.util.HashMap<>();
+		sinceProp.put("type", "integer");
+		sinceProp.put("description", "Sequence number returned by the previous call");
+		changesProps.put("since", sinceProp);
+		Map<String, Object> journalProp = new java.util.HashMap<>();
+		journalProp.put("type", "string");
+		journalProp.put("description", "Journal id returned by the previous call");
+		changesProps.put("journal", journalProp);
+		Map<String, Object> maxProp = new java.util.HashMap<>();
+		maxProp.put("type", "integer");
+		maxProp.put("description", "Maximum number of changes to read, default 1000");
+		changesProps.put("max_changes", maxProp);
+
+		McpSchema.JsonSchema changesSchema = new McpSchema.JsonSchema("object", changesProps, null, null, null, null);
+		return changesSchema;
+	}
+
+	@Override
+	public String handle(McpTransportContext exchange, CallToolRequest params) throws Exception {
+		Map<String, Object> args = params.arguments();
+
+		DataSet ds = MainApplication.getLayerManager().getEditDataSet();
+		if (ds == null) {
+			throw new Exception("no active dataset found");
+		}
+		int max = args.get("max_changes") != null ? ((Number) args.get("max_changes")).intValue() : 1000;
+		if (max <= 0) {
+			throw new Exception("max_changes must be positive");
+		}
+
+		ChangeJournal journal = ChangeJournal.get(ds);
+		Object since = args.get("since");
+		String journalId = (String) args.get("journal");
+		long seq = journal.getSequence();
+		List<ChangeJournal.Change> changes = null;
+		boolean resync = false;
+		if (since != null) {
+			if (journalId != null && !journalId.equals(journal.getId())) {
+				resync = true;
+			} else {
+				changes = journal.since(((Number) since).longValue(), max);
+				resync = changes == null;
+			}
+		}
+		if (changes != null && !changes.isEmpty()) {
+			seq = changes.get(changes.size() - 1).seq;
+		}
+		boolean more = changes != null && seq < journal.getSequence();
+
+		// Merge the changes of each element, ordered by their last change
+		Map<String, Entry> elements = new LinkedHashMap<>();
+		if (changes != null) {
+			for (ChangeJournal.Change c : changes) {
+				String key = c.type.getAPIName() + c.id;
+				Entry e = elements.remove(key);
+				if (e == null) {
+					e = new Entry(c);
+				}
+				e.kinds |= c.kind;
+				e.seq = c.seq;
+				elements.put(key, e);
+			}
+		}
+
+		if (isJsonOutput(args)) {
+			JsonWriter w = new JsonWriter().beginObject();
+			w.name("journal").value(journal.getId()).name("seq").value(seq).name("resync").value(resync)
+					.name("more").value(more);
+			w.name("changes").beginArray();
+			for (Entry e : elements.values()) {
+				w.beginObject().name("seq").value(e.seq).name("type").value(e.type).name("id").value(e.id);
+				w.name("changes").beginArray();
+				for (String kind : ChangeJournal.kindNames(e.kinds)) {
+					w.value(kind);
+				}
+				w.endArray().endObject();
+			}
+			return w.endArray().endObject().toString();
+		}
+
+		StringBuilder sb = new StringBuilder();
+		sb.append("journal: ").append(journal.getId()).append("\n");
+		sb.append("seq: ").append(seq).append("\n");
+		if (resync) {
+			sb.append("resync: the changes since ").append(since)
+					.append(" are no longer available, read the data again\n");
+			return sb.toString();
+		}
+		if (since != null) {
+			sb.append("Changed elements: ").append(elements.size()).append(more ? ", more changes available" : "")
+					.append("\n");
+		}
+		for (Entry e : elements.values()) {
+			sb.append("- ").append(e.type).append(" ").append(e.id).append(": ")
+					.append(String.join(", ", ChangeJournal.kindNames(e.kinds))).append("\n");
+		}
+		return sb.toString();
+	}
+
+	private static final class Entry {
+		private final String type;
+		private final long id;
+		private int kinds;
+		private long seq;
+
+		private Entry(ChangeJournal.Change c) {
+			this.type = c.type.getAPIName();
+			this.id = c.id;
+		}
+	}
+
+	@Override
+	public Map<String, Object> getOutputSchema() {
+		Map<String, Object> integer = Map.of("type", "integer");
+		Map<String, Object> change = Map.of("type", "object", "properties",
+				Map.of("seq", integer, "type", Map.of("type", "string"), "id", integer, "changes",
+						Map.of("type", "array", "items", Map.of("type", "string",
+								"enum", ChangeJournal.kindNames()))));
+		return Map.of("type", "object", "properties",
+				Map.of("journal", Map.of("type", "string"), "seq", integer, "resync", Map.of("type", "boolean"),
+						"more", Map.of("type", "boolean"), "changes", Map.of("type", "array", "items", change)));
+	}
+}
@@ -0,0 +1,133 @@
+/*
+ * JosmMCPPlugin - JOSM plugin to integrate JOSM with the Model Context Protocol
+ * Copyright (C) 2025-2026 Pengunaria.dev
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.openstreetmap.josm.plugins.josmmcp.tools;
+
+import java.util.Locale;
+import java.util.Map;
+
+import org.openstreetmap.josm.plugins.josmmcp.server.ResponseCache;
+import org.openstreetmap.josm.plugins.josmmcp.server.ServerMetrics;
+import org.openstreetmap.josm.plugins.josmmcp.server.ToolMetrics;
+
+import io.modelcontextprotocol.common.McpTransportContext;
+import io.modelcontextprotocol.spec.McpSchema;
+import io.modelcontextprotocol.spec.McpSchema.CallToolRequest;
+import io.modelcontextprotocol.spec.McpSchema.JsonSchema;
+
+/**
+ * Reports the call counts, errors, latency percentiles, response sizes and
+ * lock waits of each tool since the server started.
+ */
+public class GetServerMetrics extends BaseTool {
+
+	@Override
+	public String getName() {
+		return "get_server_metrics";
+	}
+
+	@Override
+	public String getDescription() {
+		return "Get per-tool metrics of the MCP server: calls, errors, latency percentiles (p50/p95/p99), "
+				+ "response sizes and time spent waiting for the data lock";
+	}
+
+	@Override
+	public boolean isReadOnly() {
+		return true;
+	}
+
+	@Override
+	public JsonSchema getInputSchema() {
+		McpSchema.JsonSchema emptySchema = new McpSchema.JsonSchema("object", new java.util.HashMap<>(), null, null,
+				null, null);
+		return emptySchema;
+	}
+
+	@Override
+	public String handle(McpTransportContext exchange, CallToolRequest params) throws Exception {
+		ServerMetrics metrics = ServerMetrics.getInstance();
+		if (isJsonOutput(params.arguments())) {
+			JsonWriter w = new JsonWriter().beginObject();
+			w.name("uptime_s").value(metrics.getUptimeMillis() / 1000);
+			w.name("tools").beginArray();
+			for (ToolMetrics m : metrics.getTools()) {
+				w.beginObject().name("name").value(m.getName());
+				w.name("calls").value(m.getCalls()).name("errors").value(m.getErrors());
+				w.name("mean_ms").value(m.getMeanMillis());
+				w.name("p50_ms").value(m.getPercentileMillis(0.5));
+				w.name("p95_ms").value(m.getPercentileMillis(0.95));
+				w.name("p99_ms").value(m.getPercentileMillis(0.99));
+				w.name("bytes_total").value(m.getResponseBytes()).name("bytes_max").value(m.getMaxResponseBytes());
+				w.name("lock_wait_ms").value(m.getLockWaitMillis());
+				w.name("cache_hits").value(m.getCacheHits()).name("cache_misses").value(m.getCacheMisses());
+				w.endObject();
+			}
+			ResponseCache cache = ResponseCache.getInstance();
+			w.endArray().name("response_cache").beginObject().name("entries").value(cache.getEntries())
+					.name("bytes").value(cache.getBytes()).name("evictions").value(cache.getEvictions()).endObject();
+			return w.endObject().toString();
+		}
+
+		StringBuilder sb = new StringBuilder();
+		sb.append("Uptime: ").append(metrics.getUptimeMillis() / 1000).append(" s\n");
+		for (ToolMetrics m : metrics.getTools()) {
+			sb.append("- ").append(m.getName()).append(": ").append(m.getCalls()).append(" calls, ")
+					.append(m.getErrors()).append(" errors, ");
+			sb.append(String.format(Locale.ROOT, "latency mean %.2f / p50 %.2f / p95 %.2f / p99 %.2f ms, ",
+					m.getMeanMillis(), m.getPercentileMillis(0.5), m.getPercentileMillis(0.95),
+					m.getPercentileMillis(0.99)));
+			sb.append(m.getResponseBytes()).append(" bytes sent (max ").append(m.getMaxResponseBytes()).append("), ");
+			sb.append(String.format(Locale.ROOT, "lock wait %.2f ms", m.getLockWaitMillis()));
+			if (m.getCacheHits() + m.getCacheMisses() > 0) {
+				sb.append(", cache ").append(m.getCacheHits()).append(" hits / ").append(m.getCacheMisses())
+						.append(" misses");
+			}
+			sb.append("\n");
+		}
+		ResponseCache cache = ResponseCache.getInstance();
+		if (cache.isEnabled()) {
+			sb.append("Response cache: ").append(cache.getEntries()).append(" entries, ").append(cache.getBytes())
+					.append(" bytes, ").append(cache.getEvictions()).append(" evictions\n");
+		}
+		return sb.toString();
+	}
+
+	@Override
+	public Map<String, Object> getOutputSchema() {
+		Map<String, Object> integer = Map.of("type", "integer");
+		Map<String, Object> number = Map.of("type", "number");
+		Map<String, Object> toolProps = new java.util.HashMap<>();
+		toolProps.put("name", Map.of("type", "string"));
+		toolProps.put("calls", integer);
+		toolProps.put("errors", integer);
+		toolProps.put("mean_ms", number);
+		toolProps.put("p50_ms", number);
+		toolProps.put("p95_ms", number);
+		toolProps.put("p99_ms", number);
+		toolProps.put("bytes_total", integer);
+		toolProps.put("bytes_max", integer);
+		toolProps.put("lock_wait_ms", number);
+		toolProps.put("cache_hits", integer);
+		toolProps.put("cache_misses", integer);
+		Map<String, Object> tool = Map.of("type", "object", "properties", toolProps);
+		Map<String, Object> cache = Map.of("type", "object", "properties",
+				Map.of("entries", integer, "bytes", integer, "evictions", integer));
+		return Map.of("type", "object", "properties", Map.of("uptime_s", integer, "tools",
+				Map.of("type", "array", "items", tool), "response_cache", cache));
+	}
+}
@@ -0,0 +1,270 @@
+/*
+ * JosmMCPPlugin - JOSM plugin to integrate JOSM with the Model Context Protocol
+ * Copyright (C) 2025-2026 Pengunaria.dev
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.openstreetmap.josm.plugins.josmmcp.tools;
+
+import java.io.BufferedInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.LongConsumer;
+
+import org.openstreetmap.josm.command.AddPrimitivesCommand;
+import org.openstreetmap.josm.data.osm.DataSet;
+import org.openstreetmap.josm.data.osm.OsmPrimitive;
+import org.openstreetmap.josm.data.osm.PrimitiveData;
+import org.openstreetmap.josm.gui.MainApplication;
+import org.openstreetmap.josm.gui.layer.OsmDataLayer;
+import org.openstreetmap.josm.gui.progress.NullProgressMonitor;
+import org.openstreetmap.josm.gui.util.GuiHelper;
+import org.openstreetmap.josm.io.Compression;
+import org.openstreetmap.josm.io.GeoJSONReader;
+import org.openstreetmap.josm.io.IllegalDataException;
+import org.openstreetmap.josm.io.OsmPbfReader;
+import org.openstreetmap.josm.io.OsmReader;
+
+import io.modelcontextprotocol.common.McpTransportContext;
+import io.modelcontextprotocol.spec.McpSchema;
+import io.modelcontextprotocol.spec.McpSchema.CallToolRequest;
+import io.modelcontextprotocol.spec.McpSchema.JsonSchema;
+
+/**
+ * Imports a local OSM XML, OSM PBF or GeoJSON file.
+ *
+ * The file is parsed on the writer thread by the streaming JOSM readers into a
+ * detached DataSet, then either becomes a new layer or is added to the edit
+ * layer with a single {@link AddPrimitivesCommand}, so the whole import is one
+ * change event and one undo entry.
+ */
+public class ImportFile extends BaseTool {
+
+	@Override
+	public String getName() {
+		return "import_file";
+	}
+
+	@Override
+	public String getDescription() {
+		return "Import a local OSM XML (.osm, also compressed as .gz, .bz2 or .xz), OSM PBF (.osm.pbf) or GeoJSON "
+				+ "file, into the edit layer as a single undoable command or into a new layer. Elements already in "
+				+ "the edit layer are kept as they are";
+	}
+
+	@Override
+	public boolean isReadOnly() {
+		return false;
+	}
+
+	@Override
+	public JsonSchema getInputSchema() {
+		Map<String, Object> importProps = new java.util.HashMap<>();
+		Map<String, Object> pathProp = new java.util.HashMap<>();
+		pathProp.put("type", "string");
+		pathProp.put("description", "Path of the file, relative to the import directory configured in JOSM");
+		importProps.put("path", pathProp);
+		Map<String, Object> fileFormatProp = new java.util.HashMap<>();
+		fileFormatProp.put("type", "string");
+		fileFormatProp.put("enum", Arrays.asList("osm", "pbf", "geojson"));
+		fileFormatProp.put("description", "Format of the file, guessed from its extension when omitted");
+		importProps.put("file_format", fileFormatProp);
+		Map<String, Object> newLayerProp = new java.util.HashMap<>();
+		newLayerProp.put("type", "boolean");
+		newLayerProp.put("description", "Import into a new layer instead of the edit layer");
+		importProps.put("new_layer", newLayerProp);
+		Map<String, Object> layerNameProp = new java.util.HashMap<>();
+		layerNameProp.put("type", "string");
+		layerNameProp.put("description", "Name of the new layer, the file name when omitted");
+		importProps.put("layer_name", layerNameProp);
+
+		McpSchema.JsonSchema importSchema = new McpSchema.JsonSchema("object", importProps, Arrays.asList("path"),
+				null, null, null);
+		return importSchema;
+	}
+
+	@Override
+	public String handle(McpTransportContext exchange, CallToolRequest params) throws Exception {
+		Map<String, Object> args = params.arguments();
+
+		String pathArg = (String) args.get("path");
+		if (pathArg == null || pathArg.isEmpty()) {
+			throw new Exception("missing 'path'");
+		}
+		Path path = ClientPaths.resolve(pathArg);
+		if (!Files.isRegularFile(path)) {
+			throw new Exception("file not found: " + path);
+		}
+		String fileName = path.getFileName().toString();
+		String fileFormat = args.get("file_format") != null ? (String) args.get("file_format")
+				: guessFormat(fileName);
+
+		Progress progress = new Progress(getName(), exchange, params);
+		long start = System.nanoTime();
+		double size = Files.size(path);
+		DataSet imported;
+		try (InputStream in = Compression.byExtension(fileName).getUncompressedInputStream(
+				new CountingInputStream(Files.newInputStream(path), n -> progress.report(n, size, "Reading")))) {
+			imported = parse(fileFormat, in);
+		} catch (IllegalDataException e) {
+			throw new Exception("cannot read " + fileName + ": " + e.getMessage(), e);
+		}
+		progress.step(size, size, "Read " + imported.allPrimitives().size() + " elements");
+
+		DataSet ds = Boolean.TRUE.equals(args.get("new_layer")) ? null
+				: MainApplication.getLayerManager().getEditDataSet();
+		int added = 0;
+		int skipped = 0;
+		String layerName = null;
+		if (ds == null) {
+			layerName = args.get("layer_name") != null ? (String) args.get("layer_name") : fileName;
+			// saving the layer writes OSM XML to its file, which must not overwrite a PBF or GeoJSON source
+			OsmDataLayer layer = new OsmDataLayer(imported, layerName,
+					"osm".equals(fileFormat) && isOsmXml(fileName) ? path.toFile() : null);
+			GuiHelper.runInEDTAndWait(() -> MainApplication.getLayerManager().addLayer(layer));
+			added = imported.allPrimitives().size();
+		} else {
+			List<PrimitiveData> data = new ArrayList<>(imported.allPrimitives().size());
+			lockRead(ds);
+			try {
+				for (OsmPrimitive prim : imported.allPrimitives()) {
+					OsmPrimitive existing = ds.getPrimitiveById(prim.getPrimitiveId());
+					// only complete the elements the edit layer knows by reference
+					if (existing == null || (existing.isIncomplete() && !prim.isIncomplete())) {
+						data.add(prim.save());
+					} else {
+						skipped++;
+					}
+				}
+			} finally {
+				ds.getReadLock().unlock();
+			}
+			if (!data.isEmpty()) {
+				progress.step(size, size, "Adding " + data.size() + " elements");
+				execute(exchange, ds, new AddPrimitivesCommand(data, ds));
+			}
+			added = data.size();
+		}
+		long millis = (System.nanoTime() - start) / 1_000_000;
+
+		if (isJsonOutput(args)) {
+			JsonWriter w = new JsonWriter().beginObject().name("file").value(fileName).name("file_format")
+					.value(fileFormat).name("nodes").value(imported.getNodes().size()).name("ways")
+					.value(imported.getWays().size()).name("relations").value(imported.getRelations().size())
+					.name("added").value(added).name("skipped").value(skipped);
+			if (layerName != null) {
+				w.name("layer").value(layerName);
+			}
+			return w.name("millis").value(millis).endObject().toString();
+		}
+		StringBuilder sb = new StringBuilder();
+		sb.append("Imported ").append(fileName).append(" (").append(fileFormat).append("): ")
+				.append(imported.getNodes().size()).append(" nodes, ").append(imported.getWays().size())
+				.append(" ways, ").append(imported.getRelations().size()).append(" relations in ").append(millis)
+				.append(" ms\n");
+		if (layerName != null) {
+			sb.append("New layer: ").append(layerName).append("\n");
+		} else {
+			sb.append("Added ").append(added).append(" elements to the edit layer, ").append(skipped)
+					.append(" already present\n");
+		}
+		return sb.toString();
+	}
+
+	private static String guessFormat(String fileName) throws Exception {
+		String name = fileName.toLowerCase(Locale.ROOT);
+		if (name.endsWith(".pbf")) {
+			return "pbf";
+		} else if (name.endsWith(".geojson") || name.endsWith(".json")) {
+			return "geojson";
+		} else if (isOsmXml(name)) {
+			return "osm";
+		}
+		throw new Exception("cannot guess the format of " + fileName + ", set 'file_format'");
+	}
+
+	private static boolean isOsmXml(String fileName) {
+		return fileName.toLowerCase(Locale.ROOT).matches(".*\\.osm(\\.(gz|bz2|xz))?");
+	}
+
+	private static DataSet parse(String fileFormat, InputStream in) throws Exception {
+		InputStream buffered = new BufferedInputStream(in, 1 << 16);
+		switch (fileFormat) {
+		case "osm":
+			return OsmReader.parseDataSet(buffered, NullProgressMonitor.INSTANCE);
+		case "pbf":
+			return OsmPbfReader.parseDataSet(buffered, NullProgressMonitor.INSTANCE);
+		case "geojson":
+			return GeoJSONReader.parseDataSet(buffered, NullProgressMonitor.INSTANCE);
+		default:
+			throw new Exception("unknown file format '" + fileFormat + "'");
+		}
+	}
+
+	/**
+	 * Counts the bytes read from the file, before decompression.
+	 */
+	private static final class CountingInputStream extends FilterInputStream {
+		private final LongConsumer listener;
+		private long count;
+
+		private CountingInputStream(InputStream in, LongConsumer listener) {
+			super(in);
+			this.listener = listener;
+		}
+
+		@Override
+		public int read() throws IOException {
+			int b = super.read();
+			if (b >= 0) {
+				listener.accept(++count);
+			}
+			return b;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			int n = super.read(b, off, len);
+			if (n > 0) {
+				count += n;
+				listener.accept(count);
+			}
+			return n;
+		}
+	}
+
+	@Override
+	public Map<String, Object> getOutputSchema() {
+		Map<String, Object> integer = Map.of("type", "integer");
+		Map<String, Object> props = new java.util.HashMap<>();
+		props.put("file", Map.of("type", "string"));
+		props.put("file_format", Map.of("type", "string"));
+		props.put("nodes", integer);
+		props.put("ways", integer);
+		props.put("relations", integer);
+		props.put("added", integer);
+		props.put("skipped", integer);
+		props.put("layer", Map.of("type", "string"));
+		props.put("millis", integer);
+		return Map.of("type", "object", "properties", props);
+	}
+}
@@ -0,0 +1,171 @@
+/*
+ * JosmMCPPlugin - JOSM plugin to integrate JOSM with the Model Context Protocol
+ * Copyright (C) 2025-2026 Pengunaria.dev
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.openstreetmap.josm.plugins.josmmcp.tools;
+
+import org.openstreetmap.josm.data.osm.Tagged;
+
+/**
+ * Minimal streaming writer of compact JSON.
+ *
+ * Values are appended straight to the output buffer: tags are written by
+ * visiting them in place, without copying the tag map of each primitive.
+ */
+public final class JsonWriter {
+
+	private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+	private final StringBuilder sb;
+	// whether the next value is the first one of its container, or follows a name
+	private boolean first = true;
+
+	public JsonWriter() {
+		this(new StringBuilder(256));
+	}
+
+	public JsonWriter(StringBuilder sb) {
+		this.sb = sb;
+	}
+
+	private void separator() {
+		if (!first) {
+			sb.append(',');
+		}
+	}
+
+	public JsonWriter beginObject() {
+		separator();
+		sb.append('{');
+		first = true;
+		return this;
+	}
+
+	public JsonWriter endObject() {
+		sb.append('}');
+		first = false;
+		return this;
+	}
+
+	public JsonWriter beginArray() {
+		separator();
+		sb.append('[');
+		first = true;
+		return this;
+	}
+
+	public JsonWriter endArray() {
+		sb.append(']');
+		first = false;
+		return this;
+	}
+
+	public JsonWriter name(String name) {
+		separator();
+		string(name);
+		sb.append(':');
+		first = true;
+		return this;
+	}
+
+	public JsonWriter value(String value) {
+		separator();
+		if (value == null) {
+			sb.append("null");
+		} else {
+			string(value);
+		}
+		first = false;
+		return this;
+	}
+
+	public JsonWriter value(long value) {
+		separator();
+		sb.append(value);
+		first = false;
+		return this;
+	}
+
+	public JsonWriter value(double value) {
+		separator();
+		if (Double.isNaN(value) || Double.isInfinite(value)) {
+			sb.append("null");
+		} else {
+			sb.append(value);
+		}
+		first = false;
+		return this;
+	}
+
+	public JsonWriter value(boolean value) {
+		separator();
+		sb.append(value);
+		first = false;
+		return this;
+	}
+
+	public JsonWriter nullValue() {
+		separator();
+		sb.append("null");
+		first = false;
+		return this;
+	}
+
+	/**
+	 * Writes the tags of a primitive as a JSON object.
+	 */
+	public JsonWriter tags(Tagged tagged) {
+		beginObject();
+		tagged.visitKeys((t, key, value) -> name(key).value(value));
+		return endObject();
+	}
+
+	private void string(String s) {
+		sb.append('"');
+		for (int i = 0, n = s.length(); i < n; i++) {
+			char c = s.charAt(i);
+			switch (c) {
+			case '"':
+				sb.append("\\\"");
+				break;
+			case '\\':
+				sb.append("\\\\");
+				break;
+			case '\n':
+				sb.append("\\n");
+				break;
+			case '\r':
+				sb.append("\\r");
+				break;
+			case '\t':
+				sb.append("\\t");
+				break;
+			default:
+				if (c < 0x20) {
+					sb.append("\\u00").append(HEX[c >> 4]).append(HEX[c & 0xF]);
+				} else {
+					sb.append(c);
+				}
+			}
+		}
+		sb.append('"');
+	}
+
+	@Override
+	public String toString() {
+		return sb.toString();
+	}
+}
@@ -0,0 +1,208 @@
+/*
+ * JosmMCPPlugin - JOSM plugin to integrate JOSM with the Model Context Protocol
+ * Copyright (C) 2025-2026 Pengunaria.dev
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.openstreetmap.josm.plugins.josmmcp.tools;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openstreetmap.josm.data.osm.DataSet;
+import org.openstreetmap.josm.data.osm.OsmPrimitive;
+import org.openstreetmap.josm.data.osm.search.SearchCompiler;
+import org.openstreetmap.josm.gui.MainApplication;
+import org.openstreetmap.josm.gui.layer.OsmDataLayer;
+
+/**
+ * Runs a search over the DataSets of several data layers at once, one worker
+ * per layer, each under the read lock of its own DataSet.
+ *
+ * The workers share the limit on the number of results and all stop once it
+ * is reached. The DataSet whose read lock the caller already holds is scanned
+ * without locking it again: a second read lock taken on another thread would
+ * queue behind a waiting writer, which itself waits for the caller.
+ */
+final class LayerSearch {
+
+	private static final ExecutorService WORKERS = Executors.newCachedThreadPool(r -> {
+		Thread t = new Thread(r, "josmmcp-layer-search");
+		t.setDaemon(true);
+		return t;
+	});
+
+	private final SearchCompiler.Match matcher;
+	private final SpatialFilter area;
+	private final DataSet locked;
+
+	/**
+	 * @param locked the DataSet whose read lock the caller holds, or
+	 *               <code>null</code>
+	 */
+	LayerSearch(SearchCompiler.Match matcher, SpatialFilter area, DataSet locked) {
+		this.matcher = matcher;
+		this.area = area;
+		this.locked = locked;
+	}
+
+	/**
+	 * Returns the data layers named in the <code>layers</code> argument, a list
+	 * of names or <code>"all"</code>, in the order of the layer list.
+	 */
+	@SuppressWarnings("unchecked")
+	static List<OsmDataLayer> resolve(Object layersArg) throws Exception {
+		List<OsmDataLayer> all = MainApplication.getLayerManager().getLayersOfType(OsmDataLayer.class);
+		if ("all".equals(layersArg)) {
+			return all;
+		}
+		if (!(layersArg instanceof List)) {
+			throw new Exception("'layers' must be a list of layer names or \"all\"");
+		}
+		Set<String> names = new LinkedHashSet<>((List<String>) layersArg);
+		List<OsmDataLayer> layers = new ArrayList<>();
+		for (OsmDataLayer layer : all) {
+			if (names.contains(layer.getName())) {
+				layers.add(layer);
+			}
+		}
+		for (String name : names) {
+			if (layers.stream().noneMatch(l -> l.getName().equals(name))) {
+				List<String> available = new ArrayList<>();
+				all.forEach(l -> available.add(l.getName()));
+				throw new Exception("no data layer named '" + name + "', the data layers are " + available);
+			}
+		}
+		return layers;
+	}
+
+	/**
+	 * Returns up to <code>max</code> matches over all the layers, grouped by
+	 * layer in the order of the list.
+	 */
+	Result find(List<OsmDataLayer> layers, int max) throws Exception {
+		AtomicInteger remaining = new AtomicInteger(max);
+		AtomicBoolean more = new AtomicBoolean();
+		List<List<OsmPrimitive>> found = run(layers, ds -> {
+			List<OsmPrimitive> matches = new ArrayList<>();
+			for (OsmPrimitive prim : candidates(ds)) {
+				if (remaining.get() <= 0) {
+					// stopped by the other workers, there may be more matches here
+					more.set(true);
+					break;
+				}
+				if (matcher.match(prim)) {
+					if (remaining.getAndDecrement() <= 0) {
+						more.set(true);
+						break;
+					}
+					matches.add(prim);
+				}
+			}
+			return matches;
+		});
+		return new Result(layers, found, more.get());
+	}
+
+	/**
+	 * Returns the number of matches of each layer.
+	 */
+	List<Integer> count(List<OsmDataLayer> layers) throws Exception {
+		return run(layers, ds -> {
+			int count = 0;
+			for (OsmPrimitive prim : candidates(ds)) {
+				if (matcher.match(prim)) {
+					count++;
+				}
+			}
+			return count;
+		});
+	}
+
+	private Collection<OsmPrimitive> candidates(DataSet ds) {
+		return area != null ? area.candidates(ds) : ds.allPrimitives();
+	}
+
+	private interface Scan<T> {
+		T scan(DataSet ds);
+	}
+
+	/**
+	 * Scans each layer under its read lock, concurrently when the matcher can
+	 * be shared between threads.
+	 */
+	private <T> List<T> run(List<OsmDataLayer> layers, Scan<T> scan) throws Exception {
+		List<T> results = new ArrayList<>();
+		if (layers.size() < 2 || !ParallelScan.isThreadSafe(matcher)) {
+			for (OsmDataLayer layer : layers) {
+				results.add(locked(layer.getDataSet(), scan));
+			}
+			return results;
+		}
+		List<Future<T>> futures = new ArrayList<>();
+		for (OsmDataLayer layer : layers) {
+			DataSet ds = layer.getDataSet();
+			futures.add(WORKERS.submit(() -> locked(ds, scan)));
+		}
+		try {
+			for (Future<T> future : futures) {
+				results.add(future.get());
+			}
+		} catch (ExecutionException e) {
+			throw new Exception("search failed: " + e.getCause().getMessage(), e.getCause());
+		} finally {
+			for (Future<T> future : futures) {
+				future.cancel(false);
+			}
+		}
+		return results;
+	}
+
+	private <T> T locked(DataSet ds, Scan<T> scan) {
+		if (ds == locked) {
+			return scan.scan(ds);
+		}
+		ds.getReadLock().lock();
+		try {
+			return scan.scan(ds);
+		} finally {
+			ds.getReadLock().unlock();
+		}
+	}
+
+	/**
+	 * Matches of a cross-layer search, in the order of the layers.
+	 */
+	static final class Result {
+		final List<OsmDataLayer> layers;
+		final List<List<OsmPrimitive>> matches;
+		/** the limit was reached before all the layers were scanned */
+		final boolean more;
+
+		private Result(List<OsmDataLayer> layers, List<List<OsmPrimitive>> matches, boolean more) {
+			this.layers = layers;
+			this.matches = matches;
+			this.more = more;
+		}
+	}
+}
@@ -0,0 +1,387 @@
+/*
+ * JosmMCPPlugin - JOSM plugin to integrate JOSM with the Model Context Protocol
+ * Copyright (C) 2025-2026 Pengunaria.dev
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.openstreetmap.josm.plugins.josmmcp.tools;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import org.openstreetmap.josm.data.osm.DataSet;
+import org.openstreetmap.josm.data.osm.MultipolygonBuilder;
+import org.openstreetmap.josm.data.osm.MultipolygonBuilder.JoinedPolygon;
+import org.openstreetmap.josm.data.osm.MultipolygonBuilder.JoinedPolygonCreationException;
+import org.openstreetmap.josm.data.osm.Node;
+import org.openstreetmap.josm.data.osm.OsmPrimitive;
+import org.openstreetmap.josm.data.osm.Relation;
+import org.openstreetmap.josm.data.osm.RelationMember;
+import org.openstreetmap.josm.data.osm.Way;
+import org.openstreetmap.josm.gui.MainApplication;
+import org.openstreetmap.josm.plugins.josmmcp.data.GeometryCache;
+import org.openstreetmap.josm.plugins.josmmcp.data.GeometryCache.WayGeometry;
+import org.openstreetmap.josm.tools.Logging;
+
+import io.modelcontextprotocol.common.McpTransportContext;
+import io.modelcontextprotocol.spec.McpSchema;
+import io.modelcontextprotocol.spec.McpSchema.CallToolRequest;
+import io.modelcontextprotocol.spec.McpSchema.JsonSchema;
+
+/**
+ * Measures the lengths, areas, centroids and bounds of the elements matching
+ * a query and/or an area, per element and in total.
+ *
+ * The elements are measured in parallel on the common ForkJoinPool while
+ * BaseTool holds the read lock, and the geometry of each way is taken from the
+ * {@link GeometryCache} of the layer, so measuring again after a few edits
+ * only recomputes the ways that changed.
+ */
+public class Measure extends BaseTool {
+
+	// Below this many elements the measurement stays on the calling thread
+	private static final int PARALLEL_THRESHOLD = 512;
+
+	@Override
+	public String getName() {
+		return "measure";
+	}
+
+	@Override
+	public String getDescription() {
+		return "Measure the elements matching a JOSM query and/or an area: length in meters, area in square meters "
+				+ "(closed ways, and multipolygons as outer minus inner rings), centroid and bbox, per element and "
+				+ "in total. Use it instead of reading the nodes of the ways to compute lengths or areas";
+	}
+
+	@Override
+	public boolean isReadOnly() {
+		return true;
+	}
+
+	@Override
+	public boolean isCacheable(Map<String, Object> args) {
+		return !SearchCache.isVolatile((String) args.get("query"));
+	}
+
+	@Override
+	public JsonSchema getInputSchema() {
+		Map<String, Object> measureProps = new java.util.HashMap<>();
+		Map<String, Object> queryProp = new java.util.HashMap<>();
+		queryProp.put("type", "string");
+		queryProp.put("description", "JOSM query selecting the elements to measure");
+		measureProps.put("query", queryProp);
+		SpatialFilter.addSchema(measureProps);
+		Map<String, Object> detailsProp = new java.util.HashMap<>();
+		detailsProp.put("type", "integer");
+		detailsProp.put("description",
+				"Number of elements whose measures are returned one by one (default 100, 0 for only the totals)");
+		measureProps.put("max_details", detailsProp);
+
+		McpSchema.JsonSchema measureSchema = new McpSchema.JsonSchema("object", measureProps, null, null, null,
+				null);
+		return measureSchema;
+	}
+
+	@Override
+	public String handle(McpTransportContext exchange, CallToolRequest params) throws Exception {
+		Map<String, Object> args = params.arguments();
+
+		String query = (String) args.get("query");
+		SpatialFilter area = SpatialFilter.fromArguments(args);
+		if (query == null && area == null) {
+			throw new Exception("a 'query' or an area is required");
+		}
+		int maxDetails = args.get("max_details") != null ? ((Number) args.get("max_details")).intValue() : 100;
+		if (maxDetails < 0) {
+			throw new Exception("'max_details' must not be negative");
+		}
+
+		DataSet ds = MainApplication.getLayerManager().getEditDataSet();
+		if (ds == null) {
+			throw new Exception("no active dataset found");
+		}
+
+		// BaseTool holds the read lock, the workers read under its protection
+		List<OsmPrimitive> found = new ElementSearch(ds, query != null ? query : "", area).all();
+		found.removeIf(prim -> prim.isDeleted() || prim.isIncomplete());
+		OsmPrimitive[] elements = found.toArray(new OsmPrimitive[0]);
+		GeometryCache cache = GeometryCache.of(ds);
+		IntStream indexes = IntStream.range(0, elements.length);
+		if (elements.length >= PARALLEL_THRESHOLD) {
+			indexes = indexes.parallel();
+		}
+		Measurement[] measures = indexes.mapToObj(i -> measure(cache, elements[i])).toArray(Measurement[]::new);
+
+		Total total = new Total();
+		for (Measurement m : measures) {
+			total.add(m);
+		}
+		int details = Math.min(maxDetails, elements.length);
+
+		if (isJsonOutput(args)) {
+			JsonWriter w = new JsonWriter().beginObject().name("count").value(elements.length);
+			w.name("length").value(round(total.length)).name("area").value(round(total.area));
+			writeCentroid(w, total.centroid());
+			writeBBox(w, total.bbox);
+			w.name("elements").beginArray();
+			for (int i = 0; i < details; i++) {
+				Measurement m = measures[i];
+				w.beginObject().name("type").value(elements[i].getType().getAPIName()).name("id")
+						.value(elements[i].getUniqueId()).name("length").value(round(m.length)).name("area")
+						.value(round(m.area));
+				writeCentroid(w, new double[] { m.lat, m.lon });
+				writeBBox(w, m.bbox);
+				w.endObject();
+			}
+			return w.endArray().name("truncated").value(details < elements.length).endObject().toString();
+		}
+
+		StringBuilder sb = new StringBuilder();
+		sb.append("Measured ").append(elements.length).append(" elements\n");
+		sb.append("Total length: ").append(round(total.length)).append(" m\n");
+		sb.append("Total area: ").append(round(total.area)).append(" m2\n");
+		double[] c = total.centroid();
+		if (!Double.isNaN(c[0])) {
+			sb.append("Centroid: (").append(degrees(c[0])).append(", ").append(degrees(c[1])).append(")\n");
+			appendBBox(sb.append("Bbox: "), total.bbox).append("\n");
+		}
+		for (int i = 0; i < details; i++) {
+			Measurement m = measures[i];
+			sb.append("- ").append(elements[i].getType().getAPIName()).append(' ')
+					.append(elements[i].getUniqueId());
+			if (m.length > 0) {
+				sb.append(", length ").append(round(m.length)).append(" m");
+			}
+			if (m.area > 0) {
+				sb.append(", area ").append(round(m.area)).append(" m2");
+			}
+			if (!Double.isNaN(m.lat)) {
+				sb.append(", centroid (").append(degrees(m.lat)).append(", ").append(degrees(m.lon)).append(')');
+			}
+			sb.append("\n");
+		}
+		if (details < elements.length) {
+			sb.append("(").append(elements.length - details).append(" more elements not listed)\n");
+		}
+		return sb.toString();
+	}
+
+	private static Measurement measure(GeometryCache cache, OsmPrimitive prim) {
+		Measurement m = new Measurement();
+		if (prim instanceof Node) {
+			Node nd = (Node) prim;
+			if (nd.isLatLonKnown()) {
+				m.lat = nd.lat();
+				m.lon = nd.lon();
+				m.include(nd.lat(), nd.lon(), nd.lat(), nd.lon());
+			}
+		} else if (prim instanceof Way) {
+			WayGeometry g = cache.get((Way) prim);
+			m.length = g.getLength();
+			m.area = g.getArea();
+			m.lat = g.getLat();
+			m.lon = g.getLon();
+			m.include(g.getMinLat(), g.getMinLon(), g.getMaxLat(), g.getMaxLon());
+		} else {
+			measureRelation(cache, (Relation) prim, m);
+		}
+		return m;
+	}
+
+	/**
+	 * Measures a relation from its direct members: the lengths of the member
+	 * ways add up, and for multipolygons the outer and inner ways are joined
+	 * into rings, so split rings count too, and the inner area is subtracted
+	 * from the outer one. Member relations are not visited.
+	 */
+	private static void measureRelation(GeometryCache cache, Relation r, Measurement m) {
+		boolean multipolygon = r.isMultipolygon();
+		Set<Way> seen = new HashSet<>();
+		List<Way> outer = new ArrayList<>();
+		List<Way> inner = new ArrayList<>();
+		Total centroid = new Total();
+		for (int i = 0, n = r.getMembersCount(); i < n; i++) {
+			RelationMember member = r.getMember(i);
+			OsmPrimitive prim = member.getMember();
+			if (prim.isIncomplete() || prim instanceof Relation) {
+				continue;
+			}
+			if (prim instanceof Way && !seen.add((Way) prim)) {
+				continue;
+			}
+			if (multipolygon && prim instanceof Way) {
+				("inner".equals(member.getRole()) ? inner : outer).add((Way) prim);
+			}
+			Measurement part = measure(cache, prim);
+			part.area = 0;
+			m.length += part.length;
+			centroid.add(part);
+			m.include(part.bbox[0], part.bbox[1], part.bbox[2], part.bbox[3]);
+		}
+		if (multipolygon) {
+			m.area = Math.max(ringsArea(cache, outer) - ringsArea(cache, inner), 0);
+		}
+		double[] c = centroid.centroid();
+		m.lat = c[0];
+		m.lon = c[1];
+	}
+
+	/**
+	 * Returns the area of the rings formed by ways: the closed ways are taken
+	 * from the cache, the others are joined with {@link MultipolygonBuilder}.
+	 * When they do not close, only the closed ways count.
+	 */
+	private static double ringsArea(GeometryCache cache, List<Way> ways) {
+		double area = 0;
+		List<Way> open = new ArrayList<>();
+		for (Way w : ways) {
+			if (w.isClosed()) {
+				area += cache.get(w).getArea();
+			} else {
+				open.add(w);
+			}
+		}
+		if (!open.isEmpty()) {
+			try {
+				for (JoinedPolygon ring : MultipolygonBuilder.joinWays(open)) {
+					area += GeometryCache.ringArea(ring.nodes);
+				}
+			} catch (JoinedPolygonCreationException e) {
+				Logging.debug("Open multipolygon rings not measured: " + e.getMessage());
+			}
+		}
+		return area;
+	}
+
+	private static double round(double meters) {
+		return Math.round(meters * 10) / 10.0;
+	}
+
+	private static double degrees(double value) {
+		return Math.round(value * 1e7) / 1e7;
+	}
+
+	private static void writeCentroid(JsonWriter w, double[] c) {
+		if (!Double.isNaN(c[0])) {
+			w.name("centroid").beginObject().name("lat").value(degrees(c[0])).name("lon").value(degrees(c[1]))
+					.endObject();
+		}
+	}
+
+	private static void writeBBox(JsonWriter w, double[] bbox) {
+		if (!Double.isNaN(bbox[0])) {
+			w.name("bbox").beginObject().name("min_lat").value(degrees(bbox[0])).name("min_lon")
+					.value(degrees(bbox[1])).name("max_lat").value(degrees(bbox[2])).name("max_lon")
+					.value(degrees(bbox[3])).endObject();
+		}
+	}
+
+	private static StringBuilder appendBBox(StringBuilder sb, double[] bbox) {
+		return sb.append('[').append(degrees(bbox[0])).append(", ").append(degrees(bbox[1])).append(", ")
+				.append(degrees(bbox[2])).append(", ").append(degrees(bbox[3])).append(']');
+	}
+
+	/**
+	 * Measures of one element, NaN coordinates when it has no known position.
+	 */
+	private static final class Measurement {
+		private double length;
+		private double area;
+		private double lat = Double.NaN;
+		private double lon = Double.NaN;
+		// min_lat, min_lon, max_lat, max_lon
+		private final double[] bbox = { Double.NaN, Double.NaN, Double.NaN, Double.NaN };
+
+		private void include(double minLat, double minLon, double maxLat, double maxLon) {
+			if (Double.isNaN(minLat)) {
+				return;
+			}
+			if (Double.isNaN(bbox[0])) {
+				bbox[0] = minLat;
+				bbox[1] = minLon;
+				bbox[2] = maxLat;
+				bbox[3] = maxLon;
+			} else {
+				bbox[0] = Math.min(bbox[0], minLat);
+				bbox[1] = Math.min(bbox[1], minLon);
+				bbox[2] = Math.max(bbox[2], maxLat);
+				bbox[3] = Math.max(bbox[3], maxLon);
+			}
+		}
+	}
+
+	/**
+	 * Sums of measurements. The centroid is weighted by area when some of the
+	 * elements have one, else by length, else it is the mean of the points.
+	 */
+	private static final class Total {
+		private double length;
+		private double area;
+		private final Measurement bounds = new Measurement();
+		private final double[] bbox = bounds.bbox;
+		private final double[] byArea = new double[3];
+		private final double[] byLength = new double[3];
+		private final double[] byPoint = new double[3];
+
+		private void add(Measurement m) {
+			length += m.length;
+			area += m.area;
+			bounds.include(m.bbox[0], m.bbox[1], m.bbox[2], m.bbox[3]);
+			if (Double.isNaN(m.lat)) {
+				return;
+			}
+			accumulate(byArea, m, m.area);
+			accumulate(byLength, m, m.length);
+			accumulate(byPoint, m, 1);
+		}
+
+		private static void accumulate(double[] sums, Measurement m, double weight) {
+			sums[0] += weight * m.lat;
+			sums[1] += weight * m.lon;
+			sums[2] += weight;
+		}
+
+		private double[] centroid() {
+			double[] sums = byArea[2] > 0 ? byArea : byLength[2] > 0 ? byLength : byPoint;
+			if (sums[2] == 0) {
+				return new double[] { Double.NaN, Double.NaN };
+			}
+			return new double[] { sums[0] / sums[2], sums[1] / sums[2] };
+		}
+	}
+
+	@Override
+	public Map<String, Object> getOutputSchema() {
+		Map<String, Object> number = Map.of("type", "number");
+		Map<String, Object> centroid = Map.of("type", "object", "properties", Map.of("lat", number, "lon", number));
+		Map<String, Object> bbox = Map.of("type", "object", "properties",
+				Map.of("min_lat", number, "min_lon", number, "max_lat", number, "max_lon", number));
+		Map<String, Object> element = Map.of("type", "object", "properties", Map.of("type", Map.of("type", "string"),
+				"id", Map.of("type", "integer"), "length", number, "area", number, "centroid", centroid, "bbox", bbox));
+		Map<String, Object> props = new java.util.HashMap<>();
+		props.put("count", Map.of("type", "integer"));
+		props.put("length", number);
+		props.put("area", number);
+		props.put("centroid", centroid);
+		props.put("bbox", bbox);
+		props.put("elements", Map.of("type", "array", "items", element));
+		props.put("truncated", Map.of("type", "boolean"));
+		return Map.of("type", "object", "properties", props);
+	}
+}
@@ -26,7 +26,6 @@ import java.util.Map;
 import org.openstreetmap.josm.command.ChangePropertyCommand;
 import org.openstreetmap.josm.command.Command;
 import org.openstreetmap.josm.command.SequenceCommand;
-import org.openstreetmap.josm.data.UndoRedoHandler;
 import org.openstreetmap.josm.data.osm.DataSet;
 import org.openstreetmap.josm.data.osm.OsmPrimitive;
 import org.openstreetmap.josm.data.osm.OsmPrimitiveType;
@@ -50,6 +49,11 @@ public class ModifyTags extends BaseTool {
 		return "Modify tags on an OSM element. To remove a tag use a null or empty value";
 	}
 
+	@Override
+	public boolean isReadOnly() {
+		return false;
+	}
+
 	@Override
 	public JsonSchema getInputSchema() {
 		Map<String, Object> modifyProps = new java.util.HashMap<>();
@@ -98,7 +102,7 @@ public class ModifyTags extends BaseTool {
 		}
 
 		Command c = new SequenceCommand("", cmds, false);
-		UndoRedoHandler.getInstance().add(c);
+		execute(exchange, ds, c);
 		return "";
 	}
 }
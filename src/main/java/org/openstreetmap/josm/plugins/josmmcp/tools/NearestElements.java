@@ -0,0 +1,287 @@
+/*
+ * JosmMCPPlugin - JOSM plugin to integrate JOSM with the Model Context Protocol
+ * Copyright (C) 2025-2026 Pengunaria.dev
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.openstreetmap.josm.plugins.josmmcp.tools;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openstreetmap.josm.data.osm.BBox;
+import org.openstreetmap.josm.data.osm.DataSet;
+import org.openstreetmap.josm.data.osm.DefaultNameFormatter;
+import org.openstreetmap.josm.data.osm.Node;
+import org.openstreetmap.josm.data.osm.OsmPrimitive;
+import org.openstreetmap.josm.data.osm.Relation;
+import org.openstreetmap.josm.data.osm.RelationMember;
+import org.openstreetmap.josm.data.osm.Way;
+import org.openstreetmap.josm.data.osm.search.SearchCompiler;
+import org.openstreetmap.josm.gui.MainApplication;
+import org.openstreetmap.josm.plugins.josmmcp.data.AreaIndex;
+
+import io.modelcontextprotocol.common.McpTransportContext;
+import io.modelcontextprotocol.spec.McpSchema;
+import io.modelcontextprotocol.spec.McpSchema.CallToolRequest;
+import io.modelcontextprotocol.spec.McpSchema.JsonSchema;
+
+/**
+ * Finds the k elements closest to a point.
+ *
+ * The DataSet spatial index is searched in growing squares around the point.
+ * Everything closer than the half side of the square intersects it, so the
+ * search stops as soon as k elements are found within that distance.
+ * Distances are computed on a local equirectangular projection: exact enough
+ * at the scale of a neighbourhood, and cheap.
+ */
+public class NearestElements extends BaseTool {
+
+	private static final double METERS_PER_DEGREE = 111_320.0;
+	private static final double FIRST_RADIUS = 25;
+
+	@Override
+	public String getName() {
+		return "nearest_elements";
+	}
+
+	@Override
+	public String getDescription() {
+		return "Find the k elements closest to a coordinate, optionally only those matching a JOSM query (e.g. "
+				+ "'highway=bus_stop'). Distances are in meters, measured to the closest point of ways and 0 "
+				+ "inside closed ways. Untagged elements are skipped unless include_untagged is set";
+	}
+
+	@Override
+	public boolean isReadOnly() {
+		return true;
+	}
+
+	@Override
+	public boolean isCacheable(Map<String, Object> args) {
+		return !SearchCache.isVolatile((String) args.get("query"));
+	}
+
+	@Override
+	public JsonSchema getInputSchema() {
+		Map<String, Object> nearestProps = new java.util.HashMap<>();
+		nearestProps.put("latitude", Map.of("type", "number"));
+		nearestProps.put("longitude", Map.of("type", "number"));
+		Map<String, Object> kProp = new java.util.HashMap<>();
+		kProp.put("type", "integer");
+		kProp.put("description", "Number of elements to return (default 10, max 1000)");
+		nearestProps.put("k", kProp);
+		Map<String, Object> queryProp = new java.util.HashMap<>();
+		queryProp.put("type", "string");
+		queryProp.put("description", "Only consider the elements matching this JOSM query");
+		nearestProps.put("query", queryProp);
+		Map<String, Object> maxDistanceProp = new java.util.HashMap<>();
+		maxDistanceProp.put("type", "number");
+		maxDistanceProp.put("description", "Maximum distance in meters (default 10000)");
+		nearestProps.put("max_distance", maxDistanceProp);
+		Map<String, Object> untaggedProp = new java.util.HashMap<>();
+		untaggedProp.put("type", "boolean");
+		untaggedProp.put("description", "Also return untagged elements, like the vertices of ways");
+		nearestProps.put("include_untagged", untaggedProp);
+
+		McpSchema.JsonSchema nearestSchema = new McpSchema.JsonSchema("object", nearestProps,
+				Arrays.asList("latitude", "longitude"), null, null, null);
+		return nearestSchema;
+	}
+
+	@Override
+	public String handle(McpTransportContext exchange, CallToolRequest params) throws Exception {
+		Map<String, Object> args = params.arguments();
+
+		if (!(args.get("latitude") instanceof Number) || !(args.get("longitude") instanceof Number)) {
+			throw new Exception("missing or invalid 'latitude'/'longitude'");
+		}
+		double lat = ((Number) args.get("latitude")).doubleValue();
+		double lon = ((Number) args.get("longitude")).doubleValue();
+		int k = args.get("k") != null ? ((Number) args.get("k")).intValue() : 10;
+		if (k <= 0 || k > 1000) {
+			throw new Exception("'k' must be between 1 and 1000");
+		}
+		double maxDistance = args.get("max_distance") != null ? ((Number) args.get("max_distance")).doubleValue()
+				: 10_000;
+		if (maxDistance <= 0) {
+			throw new Exception("'max_distance' must be positive");
+		}
+		String query = (String) args.get("query");
+		SearchCompiler.Match matcher = query != null ? SearchCache.getInstance().matcher(query) : null;
+		boolean untagged = Boolean.TRUE.equals(args.get("include_untagged"));
+
+		DataSet ds = MainApplication.getLayerManager().getEditDataSet();
+		if (ds == null) {
+			throw new Exception("no active dataset found");
+		}
+
+		// BaseTool holds the read lock
+		Distance distance = new Distance(lat, lon);
+		Map<OsmPrimitive, Double> distances = new HashMap<>();
+		double radius = Math.min(FIRST_RADIUS, maxDistance);
+		while (true) {
+			double dLat = radius / METERS_PER_DEGREE;
+			double dLon = radius / distance.kx;
+			BBox box = new BBox(lon - dLon, lat - dLat, lon + dLon, lat + dLat);
+			int within = 0;
+			for (List<? extends OsmPrimitive> found : Arrays.asList(ds.searchNodes(box), ds.searchWays(box),
+					ds.searchRelations(box))) {
+				for (OsmPrimitive prim : found) {
+					Double d = distances.get(prim);
+					if (d == null) {
+						boolean accepted = !prim.isDeleted() && !prim.isIncomplete() && (untagged || prim.hasKeys())
+								&& (matcher == null || matcher.match(prim));
+						d = accepted ? distance.to(prim) : Double.POSITIVE_INFINITY;
+						distances.put(prim, d);
+					}
+					if (d <= radius) {
+						within++;
+					}
+				}
+			}
+			if (within >= k || radius >= maxDistance) {
+				break;
+			}
+			radius = Math.min(radius * 4, maxDistance);
+		}
+
+		List<Map.Entry<OsmPrimitive, Double>> nearest = new ArrayList<>();
+		for (Map.Entry<OsmPrimitive, Double> e : distances.entrySet()) {
+			if (e.getValue() <= radius) {
+				nearest.add(e);
+			}
+		}
+		nearest.sort(Map.Entry.comparingByValue());
+		if (nearest.size() > k) {
+			nearest = nearest.subList(0, k);
+		}
+
+		DefaultNameFormatter formatter = DefaultNameFormatter.getInstance();
+		if (isJsonOutput(args)) {
+			JsonWriter w = new JsonWriter().beginObject().name("elements").beginArray();
+			for (Map.Entry<OsmPrimitive, Double> e : nearest) {
+				OsmPrimitive prim = e.getKey();
+				w.beginObject().name("id").value(prim.getUniqueId()).name("type").value(prim.getType().getAPIName())
+						.name("name").value(prim.getDisplayName(formatter)).name("distance")
+						.value(Math.round(e.getValue() * 10) / 10.0).name("tags").tags(prim).endObject();
+			}
+			return w.endArray().endObject().toString();
+		}
+		StringBuilder sb = new StringBuilder();
+		sb.append("Nearest elements to (").append(lat).append(", ").append(lon).append("): ").append(nearest.size())
+				.append("\n");
+		for (Map.Entry<OsmPrimitive, Double> e : nearest) {
+			OsmPrimitive prim = e.getKey();
+			sb.append("- ").append(prim.getDisplayName(formatter)).append(" (ID: ").append(prim.getUniqueId())
+					.append(", type: ").append(prim.getType()).append(", distance: ")
+					.append(Math.round(e.getValue() * 10) / 10.0).append(" m, tags: ");
+			appendTags(sb, prim).append(")\n");
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Distances in meters from a point, on an equirectangular projection
+	 * centered on it.
+	 */
+	static final class Distance {
+		private final double lat;
+		private final double lon;
+		// meters per degree of longitude at the latitude of the point
+		private final double kx;
+
+		Distance(double lat, double lon) {
+			this.lat = lat;
+			this.lon = lon;
+			this.kx = METERS_PER_DEGREE * Math.max(Math.cos(Math.toRadians(lat)), 1e-6);
+		}
+
+		double to(OsmPrimitive prim) {
+			if (prim instanceof Node) {
+				Node nd = (Node) prim;
+				return nd.isLatLonKnown() ? Math.hypot(x(nd), y(nd)) : Double.POSITIVE_INFINITY;
+			} else if (prim instanceof Way) {
+				Way w = (Way) prim;
+				if (w.isClosed() && AreaIndex.contains(w, lat, lon)) {
+					return 0;
+				}
+				return toWay(w);
+			}
+			Relation r = (Relation) prim;
+			if (r.isMultipolygon() && AreaIndex.contains(r, lat, lon)) {
+				return 0;
+			}
+			double min = Double.POSITIVE_INFINITY;
+			for (RelationMember m : r.getMembers()) {
+				if (m.isNode() && m.getNode().isLatLonKnown()) {
+					min = Math.min(min, Math.hypot(x(m.getNode()), y(m.getNode())));
+				} else if (m.isWay()) {
+					min = Math.min(min, toWay(m.getWay()));
+				}
+			}
+			return min;
+		}
+
+		private double toWay(Way w) {
+			double min = Double.POSITIVE_INFINITY;
+			double px = 0;
+			double py = 0;
+			boolean hasPrev = false;
+			for (int i = 0, n = w.getNodesCount(); i < n; i++) {
+				Node nd = w.getNode(i);
+				if (!nd.isLatLonKnown()) {
+					hasPrev = false;
+					continue;
+				}
+				double x = x(nd);
+				double y = y(nd);
+				if (!hasPrev) {
+					min = Math.min(min, Math.hypot(x, y));
+				} else {
+					// closest point of the segment to the origin
+					double dx = x - px;
+					double dy = y - py;
+					double len2 = dx * dx + dy * dy;
+					double t = len2 > 0 ? Math.max(0, Math.min(1, -(px * dx + py * dy) / len2)) : 0;
+					min = Math.min(min, Math.hypot(px + t * dx, py + t * dy));
+				}
+				px = x;
+				py = y;
+				hasPrev = true;
+			}
+			return min;
+		}
+
+		private double x(Node nd) {
+			return (nd.lon() - lon) * kx;
+		}
+
+		private double y(Node nd) {
+			return (nd.lat() - lat) * METERS_PER_DEGREE;
+		}
+	}
+
+	@Override
+	public Map<String, Object> getOutputSchema() {
+		Map<String, Object> element = Map.of("type", "object", "properties",
+				Map.of("id", Map.of("type", "integer"), "type", Map.of("type", "string"), "name",
+						Map.of("type", "string"), "distance", Map.of("type", "number"), "tags",
+						Map.of("type", "object")));
+		return Map.of("type", "object", "properties", Map.of("elements", Map.of("type", "array", "items", element)));
+	}
+}
@@ -0,0 +1,127 @@
+/*
+ * JosmMCPPlugin - JOSM plugin to integrate JOSM with the Model Context Protocol
+ * Copyright (C) 2025-2026 Pengunaria.dev
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.openstreetmap.josm.plugins.josmmcp.tools;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import org.openstreetmap.josm.data.osm.OsmPrimitive;
+import org.openstreetmap.josm.data.osm.search.SearchCompiler;
+import org.openstreetmap.josm.spi.preferences.Config;
+
+/**
+ * Evaluates a matcher over an array of candidates on the common ForkJoinPool.
+ *
+ * The candidates are split in chunks matched in parallel and merged back in
+ * candidate order, so the output is the same as the one of a sequential scan.
+ * The caller must hold the DataSet read lock for the whole call: the workers
+ * read the primitives under the protection of that lock.
+ */
+public final class ParallelScan {
+
+	private static final int CHUNK = 4096;
+	private static final int MAX_BATCH = 1 << 20;
+
+	// Matchers reading GUI state or keeping per-call state
+	private static final Set<String> UNSAFE_MATCHERS = Set.of("InView", "AllInView", "InDataSourceArea",
+			"NotOutsideDataSourceArea", "Nth");
+
+	private ParallelScan() {
+	}
+
+	/**
+	 * Number of candidates above which the parallel scan is used.
+	 */
+	public static int threshold() {
+		return Config.getPref().getInt("josmmcp.search.parallel_threshold", 100_000);
+	}
+
+	/**
+	 * Tells if a compiled query can be evaluated concurrently. Only the matchers
+	 * of JOSM core known to be stateless qualify, anything provided by plugins
+	 * or MapCSS selectors falls back to a sequential scan.
+	 */
+	public static boolean isThreadSafe(SearchCompiler.Match m) {
+		if (m instanceof SearchCompiler.AbstractBinaryMatch) {
+			SearchCompiler.AbstractBinaryMatch b = (SearchCompiler.AbstractBinaryMatch) m;
+			return isThreadSafe(b.getLhs()) && isThreadSafe(b.getRhs());
+		}
+		if (m instanceof SearchCompiler.UnaryMatch) {
+			SearchCompiler.Match operand = ((SearchCompiler.UnaryMatch) m).getOperand();
+			if (operand != null && !isThreadSafe(operand)) {
+				return false;
+			}
+		}
+		Class<?> c = m.getClass();
+		return c.getEnclosingClass() == SearchCompiler.class && !UNSAFE_MATCHERS.contains(c.getSimpleName());
+	}
+
+	/**
+	 * Returns the positions of the first <code>need</code> matches in
+	 * <code>candidates</code>, in ascending order. The array is examined in
+	 * growing batches so a page filled early does not pay for a full scan.
+	 */
+	public static int[] find(OsmPrimitive[] candidates, SearchCompiler.Match matcher, int need) {
+		int[] found = new int[Math.min(need, 1024)];
+		int n = 0;
+		int batch = CHUNK * ForkJoinPool.getCommonPoolParallelism();
+		for (int start = 0; start < candidates.length && n < need; start += batch, batch = Math.min(batch * 2,
+				MAX_BATCH)) {
+			int from = start;
+			int to = Math.min(candidates.length, start + batch);
+			int chunks = (to - from + CHUNK - 1) / CHUNK;
+			int[][] parts = IntStream.range(0, chunks).parallel()
+					.mapToObj(i -> matchChunk(candidates, from + i * CHUNK, Math.min(to, from + (i + 1) * CHUNK),
+							matcher))
+					.toArray(int[][]::new);
+			for (int[] part : parts) {
+				for (int pos : part) {
+					if (n == need) {
+						break;
+					}
+					if (n == found.length) {
+						found = Arrays.copyOf(found, Math.min(need, found.length * 2));
+					}
+					found[n++] = pos;
+				}
+			}
+		}
+		return Arrays.copyOf(found, n);
+	}
+
+	/**
+	 * Returns the number of matches in <code>candidates</code>.
+	 */
+	public static int count(OsmPrimitive[] candidates, SearchCompiler.Match matcher) {
+		return (int) IntStream.range(0, candidates.length).parallel().filter(i -> matcher.match(candidates[i]))
+				.count();
+	}
+
+	private static int[] matchChunk(OsmPrimitive[] candidates, int from, int to, SearchCompiler.Match matcher) {
+		int[] hits = new int[to - from];
+		int n = 0;
+		for (int i = from; i < to; i++) {
+			if (matcher.match(candidates[i])) {
+				hits[n++] = i;
+			}
+		}
+		return Arrays.copyOf(hits, n);
+	}
+}
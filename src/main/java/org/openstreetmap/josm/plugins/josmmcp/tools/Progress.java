@@ -0,0 +1,79 @@
+/*
+ * JosmMCPPlugin - JOSM plugin to integrate JOSM with the Model Context Protocol
+ * Copyright (C) 2025-2026 Pengunaria.dev
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.openstreetmap.josm.plugins.josmmcp.tools;
+
+import org.openstreetmap.josm.plugins.josmmcp.server.McpHttpServer;
+import org.openstreetmap.josm.tools.Logging;
+
+import io.modelcontextprotocol.common.McpTransportContext;
+import io.modelcontextprotocol.server.McpAsyncServerExchange;
+import io.modelcontextprotocol.spec.McpSchema.CallToolRequest;
+import io.modelcontextprotocol.spec.McpSchema.ProgressNotification;
+
+/**
+ * Progress of a long-running tool call. Calls made through the session-based
+ * endpoint with a progress token receive MCP progress notifications, at most
+ * a few per second; the progress is also logged at debug level.
+ */
+final class Progress {
+
+	private static final long INTERVAL = 250_000_000L;
+
+	private final String tool;
+	private final McpAsyncServerExchange session;
+	private final Object token;
+	private long last;
+
+	Progress(String tool, McpTransportContext exchange, CallToolRequest params) {
+		this.tool = tool;
+		Object session = exchange != null ? exchange.get(McpHttpServer.SESSION) : null;
+		this.token = params.progressToken();
+		this.session = token != null ? (McpAsyncServerExchange) session : null;
+	}
+
+	/**
+	 * Reports the progress, unless the previous report is too recent.
+	 *
+	 * @param done  amount of work done
+	 * @param total total amount of work, <code>null</code> when unknown
+	 */
+	void report(double done, Double total, String message) {
+		long now = System.nanoTime();
+		if (now - last < INTERVAL) {
+			return;
+		}
+		last = now;
+		send(done, total, message);
+	}
+
+	/**
+	 * Reports the progress unconditionally, e.g. when a step completes.
+	 */
+	void step(double done, Double total, String message) {
+		last = System.nanoTime();
+		send(done, total, message);
+	}
+
+	private void send(double done, Double total, String message) {
+		Logging.debug(String.format("%s: %s (%.0f/%s)", tool, message, done, total));
+		if (session != null) {
+			session.progressNotification(new ProgressNotification(token, done, total, message)).subscribe(null,
+					e -> Logging.debug("Failed to send the progress of " + tool + ": " + e.getMessage()));
+		}
+	}
+}
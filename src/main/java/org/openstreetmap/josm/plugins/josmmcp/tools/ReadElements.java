@@ -0,0 +1,376 @@
+/*
+ * JosmMCPPlugin - JOSM plugin to integrate JOSM with the Model Context Protocol
+ * Copyright (C) 2025-2026 Pengunaria.dev
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.openstreetmap.josm.plugins.josmmcp.tools;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.openstreetmap.josm.data.osm.BBox;
+import org.openstreetmap.josm.data.osm.DataSet;
+import org.openstreetmap.josm.data.osm.Node;
+import org.openstreetmap.josm.data.osm.OsmPrimitive;
+import org.openstreetmap.josm.data.osm.OsmPrimitiveType;
+import org.openstreetmap.josm.data.osm.Relation;
+import org.openstreetmap.josm.data.osm.RelationMember;
+import org.openstreetmap.josm.data.osm.SimplePrimitiveId;
+import org.openstreetmap.josm.data.osm.Way;
+import org.openstreetmap.josm.gui.MainApplication;
+import org.openstreetmap.josm.spi.preferences.Config;
+
+import io.modelcontextprotocol.common.McpTransportContext;
+import io.modelcontextprotocol.spec.McpSchema;
+import io.modelcontextprotocol.spec.McpSchema.CallToolRequest;
+import io.modelcontextprotocol.spec.McpSchema.JsonSchema;
+
+/**
+ * Reads many nodes, ways and relations in one call, returning only the
+ * requested fields. Ids that are not in the layer are reported as missing.
+ */
+public class ReadElements extends BaseTool {
+
+	private static final Pattern TYPED_ID = Pattern.compile("(n|w|r|node|way|relation)[ /]?(-?\\d+)",
+			Pattern.CASE_INSENSITIVE);
+
+	private enum Field {
+		TAGS, COORDINATES, NODE_IDS, MEMBERS, VERSION, MODIFIED, BBOX
+	}
+
+	private static final Set<Field> DEFAULT_FIELDS = EnumSet.of(Field.TAGS, Field.COORDINATES, Field.NODE_IDS,
+			Field.MEMBERS);
+
+	@Override
+	public String getName() {
+		return "read_elements";
+	}
+
+	@Override
+	public String getDescription() {
+		return "Read many nodes, ways and relations of the current Dataset in one call. Ids are given per type or as "
+				+ "typed strings ('n123', 'w45', 'r6'); 'fields' selects what is returned and 'expand' also returns "
+				+ "the nodes of the ways and the members of the relations. Ids not found are listed as missing";
+	}
+
+	@Override
+	public boolean isReadOnly() {
+		return true;
+	}
+
+	@Override
+	public boolean isCacheable(Map<String, Object> args) {
+		return true;
+	}
+
+	@Override
+	public JsonSchema getInputSchema() {
+		Map<String, Object> readProps = new java.util.HashMap<>();
+		Map<String, Object> integerArray = Map.of("type", "array", "items", Map.of("type", "integer"));
+		readProps.put("nodes", integerArray);
+		readProps.put("ways", integerArray);
+		readProps.put("relations", integerArray);
+		Map<String, Object> idsProp = new java.util.HashMap<>();
+		idsProp.put("type", "array");
+		idsProp.put("items", Map.of("type", "string"));
+		idsProp.put("description", "Typed ids such as 'n123', 'w45' or 'r6'");
+		readProps.put("ids", idsProp);
+		Map<String, Object> fieldsProp = new java.util.HashMap<>();
+		fieldsProp.put("type", "array");
+		fieldsProp.put("items", Map.of("type", "string", "enum",
+				Arrays.asList("tags", "coordinates", "node_ids", "members", "version", "modified", "bbox")));
+		fieldsProp.put("description", "Fields to return, tags, coordinates, node_ids and members when omitted");
+		readProps.put("fields", fieldsProp);
+		Map<String, Object> expandProp = new java.util.HashMap<>();
+		expandProp.put("type", "boolean");
+		expandProp.put("description", "Also return the nodes of the ways and the members of the relations");
+		readProps.put("expand", expandProp);
+		McpSchema.JsonSchema readSchema = new McpSchema.JsonSchema("object", readProps, null, null, null, null);
+		return readSchema;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public String handle(McpTransportContext exchange, CallToolRequest params) throws Exception {
+		Map<String, Object> args = params.arguments();
+
+		DataSet ds = MainApplication.getLayerManager().getEditDataSet();
+		if (ds == null) {
+			throw new Exception("no active dataset found");
+		}
+
+		List<SimplePrimitiveId> ids = new ArrayList<>();
+		addIds(ids, (List<Object>) args.get("nodes"), OsmPrimitiveType.NODE);
+		addIds(ids, (List<Object>) args.get("ways"), OsmPrimitiveType.WAY);
+		addIds(ids, (List<Object>) args.get("relations"), OsmPrimitiveType.RELATION);
+		if (args.get("ids") != null) {
+			for (Object id : (List<Object>) args.get("ids")) {
+				ids.add(parseTypedId(String.valueOf(id)));
+			}
+		}
+		if (ids.isEmpty()) {
+			throw new Exception("no ids given");
+		}
+		int maxElements = Config.getPref().getInt("josmmcp.read.max_elements", 10_000);
+		if (ids.size() > maxElements) {
+			throw new Exception("too many ids, at most " + maxElements + " can be read in one call");
+		}
+		Set<Field> fields = DEFAULT_FIELDS;
+		if (args.get("fields") != null) {
+			fields = EnumSet.noneOf(Field.class);
+			for (String field : (List<String>) args.get("fields")) {
+				try {
+					fields.add(Field.valueOf(field.toUpperCase(java.util.Locale.ROOT)));
+				} catch (IllegalArgumentException e) {
+					throw new Exception("unknown field '" + field + "'");
+				}
+			}
+		}
+		boolean expand = Boolean.TRUE.equals(args.get("expand"));
+
+		// BaseTool holds the read lock
+		Set<OsmPrimitive> found = new LinkedHashSet<>();
+		List<SimplePrimitiveId> missing = new ArrayList<>();
+		for (SimplePrimitiveId id : ids) {
+			OsmPrimitive prim = ds.getPrimitiveById(id);
+			if (prim == null || prim.isDeleted()) {
+				missing.add(id);
+			} else {
+				found.add(prim);
+			}
+		}
+		boolean truncated = false;
+		if (expand) {
+			List<OsmPrimitive> requested = new ArrayList<>(found);
+			for (int i = 0; i < requested.size() && !truncated; i++) {
+				OsmPrimitive prim = requested.get(i);
+				if (prim instanceof Way) {
+					Way w = (Way) prim;
+					for (int j = 0, n = w.getNodesCount(); j < n && !truncated; j++) {
+						found.add(w.getNode(j));
+						truncated = found.size() >= maxElements;
+					}
+				} else if (prim instanceof Relation) {
+					Relation r = (Relation) prim;
+					for (int j = 0, n = r.getMembersCount(); j < n && !truncated; j++) {
+						found.add(r.getMember(j).getMember());
+						truncated = found.size() >= maxElements;
+					}
+				}
+			}
+		}
+
+		if (isJsonOutput(args)) {
+			JsonWriter w = new JsonWriter().beginObject().name("elements").beginArray();
+			for (OsmPrimitive prim : found) {
+				writeElement(w, prim, fields);
+			}
+			w.endArray().name("missing").beginArray();
+			for (SimplePrimitiveId id : missing) {
+				w.value(typedId(id.getType(), id.getUniqueId()));
+			}
+			return w.endArray().name("truncated").value(truncated).endObject().toString();
+		}
+
+		StringBuilder sb = new StringBuilder();
+		for (OsmPrimitive prim : found) {
+			appendElement(sb, prim, fields);
+		}
+		if (!missing.isEmpty()) {
+			sb.append("Missing:");
+			for (SimplePrimitiveId id : missing) {
+				sb.append(' ').append(typedId(id.getType(), id.getUniqueId()));
+			}
+			sb.append("\n");
+		}
+		if (truncated) {
+			sb.append("Expansion stopped at ").append(maxElements).append(" elements\n");
+		}
+		return sb.toString();
+	}
+
+	private static void addIds(List<SimplePrimitiveId> ids, List<Object> values, OsmPrimitiveType type)
+			throws Exception {
+		if (values == null) {
+			return;
+		}
+		for (Object value : values) {
+			try {
+				ids.add(new SimplePrimitiveId(Long.parseLong(String.valueOf(value)), type));
+			} catch (NumberFormatException e) {
+				throw new Exception("invalid " + type.getAPIName() + " id '" + value + "'");
+			}
+		}
+	}
+
+	private static SimplePrimitiveId parseTypedId(String s) throws Exception {
+		Matcher m = TYPED_ID.matcher(s.trim());
+		if (!m.matches()) {
+			throw new Exception("invalid id '" + s + "', expected a form like 'n123', 'w45' or 'r6'");
+		}
+		OsmPrimitiveType type;
+		switch (Character.toLowerCase(m.group(1).charAt(0))) {
+		case 'n':
+			type = OsmPrimitiveType.NODE;
+			break;
+		case 'w':
+			type = OsmPrimitiveType.WAY;
+			break;
+		default:
+			type = OsmPrimitiveType.RELATION;
+		}
+		return new SimplePrimitiveId(Long.parseLong(m.group(2)), type);
+	}
+
+	private static String typedId(OsmPrimitiveType type, long id) {
+		return type.getAPIName().charAt(0) + Long.toString(id);
+	}
+
+	private static void writeElement(JsonWriter w, OsmPrimitive prim, Set<Field> fields) {
+		w.beginObject().name("type").value(prim.getType().getAPIName()).name("id").value(prim.getUniqueId());
+		if (prim.isIncomplete()) {
+			w.name("incomplete").value(true);
+			w.endObject();
+			return;
+		}
+		if (fields.contains(Field.VERSION)) {
+			w.name("version").value(prim.getVersion());
+		}
+		if (fields.contains(Field.MODIFIED)) {
+			w.name("modified").value(prim.isModified());
+		}
+		if (fields.contains(Field.COORDINATES) && prim instanceof Node && ((Node) prim).isLatLonKnown()) {
+			Node nd = (Node) prim;
+			w.name("lat").value(nd.lat()).name("lon").value(nd.lon());
+		}
+		if (fields.contains(Field.NODE_IDS) && prim instanceof Way) {
+			Way way = (Way) prim;
+			w.name("node_ids").beginArray();
+			for (int i = 0, n = way.getNodesCount(); i < n; i++) {
+				w.value(way.getNodeId(i));
+			}
+			w.endArray();
+		}
+		if (fields.contains(Field.MEMBERS) && prim instanceof Relation) {
+			Relation r = (Relation) prim;
+			w.name("members").beginArray();
+			for (int i = 0, n = r.getMembersCount(); i < n; i++) {
+				RelationMember m = r.getMember(i);
+				w.beginObject().name("type").value(m.getType().getAPIName()).name("id").value(m.getUniqueId())
+						.name("role").value(m.getRole()).endObject();
+			}
+			w.endArray();
+		}
+		if (fields.contains(Field.BBOX)) {
+			BBox b = prim.getBBox();
+			if (b.isValid()) {
+				w.name("bbox").beginObject().name("min_lat").value(b.getBottomRightLat()).name("min_lon")
+						.value(b.getTopLeftLon()).name("max_lat").value(b.getTopLeftLat()).name("max_lon")
+						.value(b.getBottomRightLon()).endObject();
+			}
+		}
+		if (fields.contains(Field.TAGS)) {
+			w.name("tags").tags(prim);
+		}
+		w.endObject();
+	}
+
+	private static void appendElement(StringBuilder sb, OsmPrimitive prim, Set<Field> fields) {
+		sb.append(prim.getType().getAPIName()).append(' ').append(prim.getUniqueId());
+		if (prim.isIncomplete()) {
+			sb.append(" incomplete\n");
+			return;
+		}
+		if (fields.contains(Field.VERSION)) {
+			sb.append(" v").append(prim.getVersion());
+		}
+		if (fields.contains(Field.MODIFIED) && prim.isModified()) {
+			sb.append(" modified");
+		}
+		if (fields.contains(Field.COORDINATES) && prim instanceof Node && ((Node) prim).isLatLonKnown()) {
+			Node nd = (Node) prim;
+			sb.append(" (").append(nd.lat()).append(", ").append(nd.lon()).append(')');
+		}
+		if (fields.contains(Field.NODE_IDS) && prim instanceof Way) {
+			Way way = (Way) prim;
+			sb.append(" nodes[");
+			for (int i = 0, n = way.getNodesCount(); i < n; i++) {
+				if (i > 0) {
+					sb.append(", ");
+				}
+				sb.append(way.getNodeId(i));
+			}
+			sb.append(']');
+		}
+		if (fields.contains(Field.MEMBERS) && prim instanceof Relation) {
+			Relation r = (Relation) prim;
+			sb.append(" members[");
+			for (int i = 0, n = r.getMembersCount(); i < n; i++) {
+				RelationMember m = r.getMember(i);
+				if (i > 0) {
+					sb.append(", ");
+				}
+				sb.append(typedId(m.getType(), m.getUniqueId()));
+				if (!m.getRole().isEmpty()) {
+					sb.append(' ').append(m.getRole());
+				}
+			}
+			sb.append(']');
+		}
+		if (fields.contains(Field.BBOX)) {
+			BBox b = prim.getBBox();
+			if (b.isValid()) {
+				sb.append(" bbox[").append(b.getBottomRightLat()).append(", ").append(b.getTopLeftLon()).append(", ")
+						.append(b.getTopLeftLat()).append(", ").append(b.getBottomRightLon()).append(']');
+			}
+		}
+		if (fields.contains(Field.TAGS)) {
+			appendTags(sb.append(' '), prim);
+		}
+		sb.append("\n");
+	}
+
+	@Override
+	public Map<String, Object> getOutputSchema() {
+		Map<String, Object> integer = Map.of("type", "integer");
+		Map<String, Object> number = Map.of("type", "number");
+		Map<String, Object> string = Map.of("type", "string");
+		Map<String, Object> member = Map.of("type", "object", "properties",
+				Map.of("type", string, "id", integer, "role", string));
+		Map<String, Object> elementProps = new java.util.HashMap<>();
+		elementProps.put("type", string);
+		elementProps.put("id", integer);
+		elementProps.put("incomplete", Map.of("type", "boolean"));
+		elementProps.put("version", integer);
+		elementProps.put("modified", Map.of("type", "boolean"));
+		elementProps.put("lat", number);
+		elementProps.put("lon", number);
+		elementProps.put("node_ids", Map.of("type", "array", "items", integer));
+		elementProps.put("members", Map.of("type", "array", "items", member));
+		elementProps.put("bbox", Map.of("type", "object", "properties",
+				Map.of("min_lat", number, "min_lon", number, "max_lat", number, "max_lon", number)));
+		elementProps.put("tags", Map.of("type", "object"));
+		return Map.of("type", "object", "properties",
+				Map.of("elements", Map.of("type", "array", "items", Map.of("type", "object", "properties", elementProps)),
+						"missing", Map.of("type", "array", "items", string), "truncated", Map.of("type", "boolean")));
+	}
+}
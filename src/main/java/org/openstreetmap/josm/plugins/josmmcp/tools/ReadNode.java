@@ -43,6 +43,16 @@ public class ReadNode extends BaseTool {
 		return "Read a node by Id from current Dataset and returns coordinates and tags";
 	}
 
+	@Override
+	public boolean isReadOnly() {
+		return true;
+	}
+
+	@Override
+	public boolean isCacheable(Map<String, Object> args) {
+		return true;
+	}
+
 	@Override
 	public JsonSchema getInputSchema() {
 		Map<String, Object> readProps = new java.util.HashMap<>();
@@ -65,12 +75,24 @@ public class ReadNode extends BaseTool {
 
 		long id = Long.parseLong(args.get("id").toString());
 		Node nd = (Node) ds.getPrimitiveById(new SimplePrimitiveId(id, OsmPrimitiveType.NODE));
+		if (nd == null) {
+			throw new Exception("node " + id + " not found");
+		}
 
-		String result = "";
+		if (isJsonOutput(args)) {
+			JsonWriter w = new JsonWriter().beginObject().name("id").value(nd.getUniqueId());
+			w.name("lat").value(nd.lat()).name("lon").value(nd.lon());
+			return w.name("tags").tags(nd).endObject().toString();
+		}
 
-		result += nd.getCoor().toString();
-		result += nd.getKeys().toString();
+		StringBuilder sb = new StringBuilder();
+		sb.append(nd.getCoor());
+		return appendTags(sb, nd).toString();
+	}
 
-		return result;
+	@Override
+	public Map<String, Object> getOutputSchema() {
+		return Map.of("type", "object", "properties", Map.of("id", Map.of("type", "integer"), "lat",
+				Map.of("type", "number"), "lon", Map.of("type", "number"), "tags", Map.of("type", "object")));
 	}
 }
@@ -43,6 +43,16 @@ public class ReadWay extends BaseTool {
 		return "Read a way Id from current Dataset and returns its nodes and tags";
 	}
 
+	@Override
+	public boolean isReadOnly() {
+		return true;
+	}
+
+	@Override
+	public boolean isCacheable(Map<String, Object> args) {
+		return true;
+	}
+
 	@Override
 	public JsonSchema getInputSchema() {
 		Map<String, Object> readProps = new java.util.HashMap<>();
@@ -65,12 +75,27 @@ public class ReadWay extends BaseTool {
 
 		long id = Long.parseLong(args.get("id").toString());
 		Way w = (Way) ds.getPrimitiveById(new SimplePrimitiveId(id, OsmPrimitiveType.WAY));
+		if (w == null) {
+			throw new Exception("way " + id + " not found");
+		}
 
-		String result = "";
+		if (isJsonOutput(args)) {
+			JsonWriter json = new JsonWriter().beginObject().name("id").value(w.getUniqueId());
+			json.name("node_ids").beginArray();
+			for (int i = 0, n = w.getNodesCount(); i < n; i++) {
+				json.value(w.getNodeId(i));
+			}
+			return json.endArray().name("tags").tags(w).endObject().toString();
+		}
 
-		result += "node_ids" + w.getNodes();
-		result += w.getKeys().toString();
+		StringBuilder sb = new StringBuilder();
+		sb.append("node_ids").append(w.getNodes());
+		return appendTags(sb, w).toString();
+	}
 
-		return result;
+	@Override
+	public Map<String, Object> getOutputSchema() {
+		return Map.of("type", "object", "properties", Map.of("id", Map.of("type", "integer"), "node_ids",
+				Map.of("type", "array", "items", Map.of("type", "integer")), "tags", Map.of("type", "object")));
 	}
 }
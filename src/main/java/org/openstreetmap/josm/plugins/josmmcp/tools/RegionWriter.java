@@ -0,0 +1,496 @@
+/*
+ * JosmMCPPlugin - JOSM plugin to integrate JOSM with the Model Context Protocol
+ * Copyright (C) 2025-2026 Pengunaria.dev
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.openstreetmap.josm.plugins.josmmcp.tools;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+import org.openstreetmap.josm.data.osm.Node;
+import org.openstreetmap.josm.data.osm.OsmPrimitive;
+import org.openstreetmap.josm.data.osm.OsmPrimitiveType;
+import org.openstreetmap.josm.data.osm.Relation;
+import org.openstreetmap.josm.data.osm.RelationMember;
+import org.openstreetmap.josm.data.osm.Way;
+
+/**
+ * Streams primitives to a file through a direct buffer flushed to a
+ * {@link FileChannel}, in one of the export formats:
+ * <ul>
+ * <li><code>osm</code>: OSM XML, with <code>action</code> on the changed
+ * elements like the files saved by JOSM</li>
+ * <li><code>osc</code>: osmChange, only the created, modified and deleted
+ * elements</li>
+ * <li><code>ndjson</code>: one JSON object per line</li>
+ * <li><code>binary</code>: the magic <code>JMCP</code>, a format version byte
+ * (1), then one record per element: its big-endian int32 length followed by
+ * the type (byte: 0 node, 1 way, 2 relation), id (int64), version (int32),
+ * flags (byte: 1 modified, 2 deleted), then for nodes the latitude and
+ * longitude (int32, degrees &times; 10<sup>7</sup>), for ways the node count
+ * (int32) and node ids (int64), for relations the member count (int32) and
+ * members (type byte, id int64, role string), and last the tag count (int32)
+ * and the keys and values. Strings are an uint16 length and UTF-8 bytes.</li>
+ * </ul>
+ */
+public abstract class RegionWriter implements Closeable {
+
+	public static final String[] FORMATS = { "osm", "osc", "binary", "ndjson" };
+
+	private final FileChannel channel;
+	private final ByteBuffer buf = ByteBuffer.allocateDirect(1 << 16);
+	private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+			.onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+	private long bytes;
+	private final int[] counts = new int[3];
+
+	protected RegionWriter(FileChannel channel) {
+		this.channel = channel;
+	}
+
+	/**
+	 * Returns the writer of a format.
+	 */
+	public static RegionWriter create(String format, FileChannel channel) throws Exception {
+		switch (format) {
+		case "osm":
+			return new Xml(channel);
+		case "osc":
+			return new OsmChange(channel);
+		case "binary":
+			return new Binary(channel);
+		case "ndjson":
+			return new NdJson(channel);
+		default:
+			throw new Exception("unknown export format '" + format + "'");
+		}
+	}
+
+	/**
+	 * Returns the file extension of a format.
+	 */
+	public static String extension(String format) {
+		return "binary".equals(format) ? ".bin" : "." + format;
+	}
+
+	/**
+	 * Returns the media type of a format.
+	 */
+	public static String contentType(String format) {
+		switch (format) {
+		case "osm":
+		case "osc":
+			return "application/xml";
+		case "ndjson":
+			return "application/x-ndjson";
+		default:
+			return "application/octet-stream";
+		}
+	}
+
+	/**
+	 * Receives the primitives to write.
+	 */
+	public interface Sink {
+		void accept(OsmPrimitive prim) throws IOException;
+	}
+
+	/**
+	 * Produces the primitives of a type to export, each time it is asked, so
+	 * they are written while they are found instead of being collected first.
+	 */
+	public interface Source {
+		void forEach(OsmPrimitiveType type, Sink sink) throws IOException;
+	}
+
+	/**
+	 * Writes the primitives, nodes first, then ways and relations.
+	 */
+	public void write(Source source) throws IOException {
+		begin();
+		source.forEach(OsmPrimitiveType.NODE, this::write);
+		source.forEach(OsmPrimitiveType.WAY, this::write);
+		source.forEach(OsmPrimitiveType.RELATION, this::write);
+		end();
+	}
+
+	protected void begin() throws IOException {
+	}
+
+	protected void end() throws IOException {
+	}
+
+	protected void write(OsmPrimitive prim) throws IOException {
+		counts[prim.getType().ordinal()]++;
+	}
+
+	/**
+	 * Returns the number of nodes, ways and relations written.
+	 */
+	public int[] getCounts() {
+		return counts;
+	}
+
+	/**
+	 * Returns the number of bytes written, once closed.
+	 */
+	public long getBytes() {
+		return bytes;
+	}
+
+	protected final void text(CharSequence s) throws IOException {
+		CharBuffer in = CharBuffer.wrap(s);
+		while (encoder.encode(in, buf, false).isOverflow()) {
+			drain();
+		}
+	}
+
+	protected final void bytes(ByteBuffer b) throws IOException {
+		if (b.remaining() > buf.remaining()) {
+			drain();
+			if (b.remaining() > buf.capacity()) {
+				while (b.hasRemaining()) {
+					bytes += channel.write(b);
+				}
+				return;
+			}
+		}
+		buf.put(b);
+	}
+
+	private void drain() throws IOException {
+		buf.flip();
+		while (buf.hasRemaining()) {
+			bytes += channel.write(buf);
+		}
+		buf.clear();
+	}
+
+	@Override
+	public void close() throws IOException {
+		drain();
+	}
+
+	private static final String[] ACTIONS = { null, "modify", "delete" };
+
+	/**
+	 * Returns 0 for unchanged elements, 1 for new or modified ones, 2 for
+	 * deleted ones.
+	 */
+	private static int state(OsmPrimitive prim) {
+		if (prim.isDeleted()) {
+			return 2;
+		}
+		return prim.isModified() || prim.isNew() ? 1 : 0;
+	}
+
+	/**
+	 * Appends a coordinate with at most 7 decimals, never in exponent notation.
+	 */
+	static void appendCoord(StringBuilder sb, double value) {
+		long e7 = Math.round(value * 1e7);
+		if (e7 < 0) {
+			sb.append('-');
+			e7 = -e7;
+		}
+		sb.append(e7 / 10_000_000);
+		long fraction = e7 % 10_000_000;
+		if (fraction != 0) {
+			int digits = 7;
+			while (fraction % 10 == 0) {
+				fraction /= 10;
+				digits--;
+			}
+			sb.append('.');
+			for (long p = (long) Math.pow(10, digits - 1); p > fraction; p /= 10) {
+				sb.append('0');
+			}
+			sb.append(fraction);
+		}
+	}
+
+	private static class Xml extends RegionWriter {
+		protected final StringBuilder sb = new StringBuilder(1024);
+
+		private Xml(FileChannel channel) {
+			super(channel);
+		}
+
+		@Override
+		protected void begin() throws IOException {
+			text("<?xml version='1.0' encoding='UTF-8'?>\n<osm version='0.6' generator='JosmMCP'>\n");
+		}
+
+		@Override
+		protected void end() throws IOException {
+			text("</osm>\n");
+		}
+
+		@Override
+		protected void write(OsmPrimitive prim) throws IOException {
+			super.write(prim);
+			element(prim, ACTIONS[state(prim)]);
+			text(sb);
+			sb.setLength(0);
+		}
+
+		protected void element(OsmPrimitive prim, String action) {
+			String type = prim.getType().getAPIName();
+			sb.append("  <").append(type).append(" id='").append(prim.getUniqueId()).append('\'');
+			if (action != null) {
+				sb.append(" action='").append(action).append('\'');
+			}
+			if (prim.getVersion() > 0) {
+				sb.append(" version='").append(prim.getVersion()).append('\'');
+			}
+			if (prim instanceof Node && ((Node) prim).isLatLonKnown()) {
+				Node nd = (Node) prim;
+				sb.append(" lat='");
+				appendCoord(sb, nd.lat());
+				sb.append("' lon='");
+				appendCoord(sb, nd.lon());
+				sb.append('\'');
+			}
+			int start = sb.length();
+			if (prim instanceof Way) {
+				Way w = (Way) prim;
+				for (int i = 0, n = w.getNodesCount(); i < n; i++) {
+					sb.append("\n    <nd ref='").append(w.getNodeId(i)).append("' />");
+				}
+			} else if (prim instanceof Relation) {
+				Relation r = (Relation) prim;
+				for (int i = 0, n = r.getMembersCount(); i < n; i++) {
+					RelationMember m = r.getMember(i);
+					sb.append("\n    <member type='").append(m.getType().getAPIName()).append("' ref='")
+							.append(m.getUniqueId()).append("' role='");
+					escape(sb, m.getRole());
+					sb.append("' />");
+				}
+			}
+			prim.visitKeys((t, key, value) -> {
+				sb.append("\n    <tag k='");
+				escape(sb, key);
+				sb.append("' v='");
+				escape(sb, value);
+				sb.append("' />");
+			});
+			if (sb.length() > start) {
+				sb.append("\n  </").append(type).append(">\n");
+			} else {
+				sb.append(" />\n");
+			}
+		}
+
+		private static void escape(StringBuilder sb, String s) {
+			for (int i = 0, n = s.length(); i < n; i++) {
+				char c = s.charAt(i);
+				switch (c) {
+				case '&':
+					sb.append("&amp;");
+					break;
+				case '<':
+					sb.append("&lt;");
+					break;
+				case '>':
+					sb.append("&gt;");
+					break;
+				case '\'':
+					sb.append("&apos;");
+					break;
+				case '"':
+					sb.append("&quot;");
+					break;
+				default:
+					if (c < 0x20) {
+						sb.append("&#").append((int) c).append(';');
+					} else {
+						sb.append(c);
+					}
+				}
+			}
+		}
+	}
+
+	private static final class OsmChange extends Xml {
+
+		private OsmChange(FileChannel channel) {
+			super(channel);
+		}
+
+		@Override
+		public void write(Source source) throws IOException {
+			text("<?xml version='1.0' encoding='UTF-8'?>\n<osmChange version='0.6' generator='JosmMCP'>\n");
+			// parents are created after and deleted before their members
+			block("create", source, OsmPrimitiveType.NODE, OsmPrimitiveType.WAY, OsmPrimitiveType.RELATION);
+			block("modify", source, OsmPrimitiveType.NODE, OsmPrimitiveType.WAY, OsmPrimitiveType.RELATION);
+			block("delete", source, OsmPrimitiveType.RELATION, OsmPrimitiveType.WAY, OsmPrimitiveType.NODE);
+			text("</osmChange>\n");
+		}
+
+		private void block(String name, Source source, OsmPrimitiveType... types) throws IOException {
+			text("<" + name + ">\n");
+			for (OsmPrimitiveType type : types) {
+				source.forEach(type, prim -> {
+					if (name.equals(change(prim))) {
+						write(prim);
+					}
+				});
+			}
+			text("</" + name + ">\n");
+		}
+
+		@Override
+		protected void write(OsmPrimitive prim) throws IOException {
+			element(prim, null);
+			text(sb);
+			sb.setLength(0);
+			getCounts()[prim.getType().ordinal()]++;
+		}
+
+		private static String change(OsmPrimitive prim) {
+			if (prim.isDeleted()) {
+				return prim.isNew() ? null : "delete";
+			} else if (prim.isNew()) {
+				return "create";
+			}
+			return prim.isModified() ? "modify" : null;
+		}
+	}
+
+	private static final class NdJson extends RegionWriter {
+		private final StringBuilder sb = new StringBuilder(1024);
+
+		private NdJson(FileChannel channel) {
+			super(channel);
+		}
+
+		@Override
+		protected void write(OsmPrimitive prim) throws IOException {
+			super.write(prim);
+			JsonWriter w = new JsonWriter(sb).beginObject().name("type").value(prim.getType().getAPIName())
+					.name("id").value(prim.getUniqueId()).name("version").value(prim.getVersion());
+			String action = ACTIONS[state(prim)];
+			if (action != null) {
+				w.name("action").value(action);
+			}
+			if (prim instanceof Node && ((Node) prim).isLatLonKnown()) {
+				w.name("lat").value(((Node) prim).lat()).name("lon").value(((Node) prim).lon());
+			} else if (prim instanceof Way) {
+				Way way = (Way) prim;
+				w.name("nodes").beginArray();
+				for (int i = 0, n = way.getNodesCount(); i < n; i++) {
+					w.value(way.getNodeId(i));
+				}
+				w.endArray();
+			} else if (prim instanceof Relation) {
+				Relation r = (Relation) prim;
+				w.name("members").beginArray();
+				for (int i = 0, n = r.getMembersCount(); i < n; i++) {
+					RelationMember m = r.getMember(i);
+					w.beginObject().name("type").value(m.getType().getAPIName()).name("ref").value(m.getUniqueId())
+							.name("role").value(m.getRole()).endObject();
+				}
+				w.endArray();
+			}
+			w.name("tags").tags(prim).endObject();
+			sb.append('\n');
+			text(sb);
+			sb.setLength(0);
+		}
+	}
+
+	private static final class Binary extends RegionWriter {
+		private ByteBuffer record = ByteBuffer.allocate(4096);
+
+		private Binary(FileChannel channel) {
+			super(channel);
+		}
+
+		@Override
+		protected void begin() throws IOException {
+			bytes(ByteBuffer.wrap(new byte[] { 'J', 'M', 'C', 'P', 1 }));
+		}
+
+		@Override
+		protected void write(OsmPrimitive prim) throws IOException {
+			super.write(prim);
+			record.clear();
+			record.putInt(0);
+			record.put((byte) prim.getType().ordinal());
+			record.putLong(prim.getUniqueId());
+			record.putInt(prim.getVersion());
+			record.put((byte) ((prim.isModified() || prim.isNew() ? 1 : 0) | (prim.isDeleted() ? 2 : 0)));
+			if (prim instanceof Node) {
+				Node nd = (Node) prim;
+				boolean known = nd.isLatLonKnown();
+				record.putInt(known ? (int) Math.round(nd.lat() * 1e7) : Integer.MIN_VALUE);
+				record.putInt(known ? (int) Math.round(nd.lon() * 1e7) : Integer.MIN_VALUE);
+			} else if (prim instanceof Way) {
+				Way w = (Way) prim;
+				int n = w.getNodesCount();
+				ensure(4 + 8 * n);
+				record.putInt(n);
+				for (int i = 0; i < n; i++) {
+					record.putLong(w.getNodeId(i));
+				}
+			} else if (prim instanceof Relation) {
+				Relation r = (Relation) prim;
+				int n = r.getMembersCount();
+				ensure(4);
+				record.putInt(n);
+				for (int i = 0; i < n; i++) {
+					RelationMember m = r.getMember(i);
+					ensure(9);
+					record.put((byte) m.getType().ordinal());
+					record.putLong(m.getUniqueId());
+					string(m.getRole());
+				}
+			}
+			ensure(4);
+			record.putInt(prim.getNumKeys());
+			prim.visitKeys((t, key, value) -> {
+				string(key);
+				string(value);
+			});
+			record.putInt(0, record.position() - 4);
+			record.flip();
+			bytes(record);
+		}
+
+		private void string(String s) {
+			byte[] b = s.getBytes(StandardCharsets.UTF_8);
+			int length = Math.min(b.length, 0xFFFF);
+			ensure(2 + length);
+			record.putShort((short) length);
+			record.put(b, 0, length);
+		}
+
+		private void ensure(int n) {
+			if (record.remaining() < n) {
+				ByteBuffer bigger = ByteBuffer.allocate(Math.max(record.capacity() * 2, record.position() + n));
+				record.flip();
+				bigger.put(record);
+				record = bigger;
+			}
+		}
+	}
+}
@@ -0,0 +1,243 @@
+/*
+ * JosmMCPPlugin - JOSM plugin to integrate JOSM with the Model Context Protocol
+ * Copyright (C) 2025-2026 Pengunaria.dev
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.openstreetmap.josm.plugins.josmmcp.tools;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+import org.openstreetmap.josm.command.ChangePropertyCommand;
+import org.openstreetmap.josm.command.Command;
+import org.openstreetmap.josm.command.SequenceCommand;
+import org.openstreetmap.josm.data.osm.DataSet;
+import org.openstreetmap.josm.data.osm.OsmPrimitive;
+import org.openstreetmap.josm.gui.MainApplication;
+
+import io.modelcontextprotocol.common.McpTransportContext;
+import io.modelcontextprotocol.spec.McpSchema;
+import io.modelcontextprotocol.spec.McpSchema.CallToolRequest;
+import io.modelcontextprotocol.spec.McpSchema.JsonSchema;
+
+/**
+ * Changes the tags of all the elements matching a query in one undoable
+ * command. The changes are grouped by key and value, so each group becomes a
+ * single collection-based {@link ChangePropertyCommand}.
+ */
+public class RetagElements extends BaseTool {
+
+	// Group key of the removals, a tag value can not be null
+	private static final String REMOVED = "\u0000";
+
+	@Override
+	public String getName() {
+		return "retag_elements";
+	}
+
+	@Override
+	public String getDescription() {
+		return "Change the tags of all the elements matching a JOSM query in a single undoable command. Operations "
+				+ "are applied in this order: rename keys, regex-replace values, set tags, remove keys. "
+				+ "Use dry_run to only count the changes";
+	}
+
+	@Override
+	public boolean isReadOnly() {
+		return false;
+	}
+
+	@Override
+	public JsonSchema getInputSchema() {
+		Map<String, Object> retagProps = new java.util.HashMap<>();
+		Map<String, Object> queryProp = new java.util.HashMap<>();
+		queryProp.put("type", "string");
+		retagProps.put("query", queryProp);
+		SpatialFilter.addSchema(retagProps);
+		Map<String, Object> stringMap = Map.of("type", "string");
+
+		Map<String, Object> setProp = new java.util.HashMap<>();
+		setProp.put("type", "object");
+		setProp.put("description", "Tags to set");
+		setProp.put("additionalProperties", Map.of("type", "string", "maxLength", 255));
+		retagProps.put("set", setProp);
+		Map<String, Object> removeProp = new java.util.HashMap<>();
+		removeProp.put("type", "array");
+		removeProp.put("description", "Keys to remove");
+		removeProp.put("items", stringMap);
+		retagProps.put("remove", removeProp);
+		Map<String, Object> renameProp = new java.util.HashMap<>();
+		renameProp.put("type", "object");
+		renameProp.put("description", "Keys to rename, from old key to new key");
+		renameProp.put("additionalProperties", stringMap);
+		retagProps.put("rename", renameProp);
+		Map<String, Object> replaceRule = new java.util.HashMap<>();
+		replaceRule.put("type", "object");
+		replaceRule.put("properties", Map.of("key", stringMap, "pattern", stringMap, "replacement", stringMap));
+		replaceRule.put("required", Arrays.asList("key", "pattern", "replacement"));
+		Map<String, Object> replaceProp = new java.util.HashMap<>();
+		replaceProp.put("type", "array");
+		replaceProp.put("description", "Regular expression replacements on the values of a key");
+		replaceProp.put("items", replaceRule);
+		retagProps.put("replace", replaceProp);
+		Map<String, Object> dryRunProp = new java.util.HashMap<>();
+		dryRunProp.put("type", "boolean");
+		dryRunProp.put("description", "Only count the changes, without applying them");
+		retagProps.put("dry_run", dryRunProp);
+
+		McpSchema.JsonSchema retagSchema = new McpSchema.JsonSchema("object", retagProps, Arrays.asList("query"),
+				null, null, null);
+		return retagSchema;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public String handle(McpTransportContext exchange, CallToolRequest params) throws Exception {
+		Map<String, Object> args = params.arguments();
+
+		DataSet ds = MainApplication.getLayerManager().getEditDataSet();
+		if (ds == null) {
+			throw new Exception("no active dataset found");
+		}
+
+		String query = (String) args.get("query");
+		SpatialFilter area = SpatialFilter.fromArguments(args);
+		Map<String, String> set = (Map<String, String>) args.get("set");
+		List<String> remove = (List<String>) args.get("remove");
+		Map<String, String> rename = (Map<String, String>) args.get("rename");
+		List<ReplaceRule> replace = new ArrayList<>();
+		if (args.get("replace") != null) {
+			for (Map<String, String> rule : (List<Map<String, String>>) args.get("replace")) {
+				replace.add(new ReplaceRule(rule.get("key"), rule.get("pattern"), rule.get("replacement")));
+			}
+		}
+		if (set == null && remove == null && rename == null && replace.isEmpty()) {
+			throw new Exception("no tag change given");
+		}
+		boolean dryRun = Boolean.TRUE.equals(args.get("dry_run"));
+
+		// key -> value (or REMOVED) -> primitives
+		Map<String, Map<String, List<OsmPrimitive>>> groups = new TreeMap<>();
+		int matched = 0;
+		int changed = 0;
+		lockRead(ds);
+		try {
+			Map<String, String> changes = new HashMap<>();
+			for (OsmPrimitive prim : new ElementSearch(ds, query, area).all()) {
+				if (prim.isDeleted() || prim.isIncomplete()) {
+					continue;
+				}
+				matched++;
+				changes.clear();
+				if (rename != null) {
+					for (Map.Entry<String, String> r : rename.entrySet()) {
+						String value = current(prim, changes, r.getKey());
+						if (value != null && !r.getKey().equals(r.getValue())) {
+							changes.put(r.getKey(), null);
+							changes.put(r.getValue(), value);
+						}
+					}
+				}
+				for (ReplaceRule rule : replace) {
+					String value = current(prim, changes, rule.key);
+					if (value != null) {
+						String newValue = rule.pattern.matcher(value).replaceAll(rule.replacement);
+						if (!newValue.equals(value)) {
+							changes.put(rule.key, newValue.isEmpty() ? null : newValue);
+						}
+					}
+				}
+				if (set != null) {
+					for (Map.Entry<String, String> tag : set.entrySet()) {
+						String value = tag.getValue() == null || tag.getValue().isEmpty() ? null : tag.getValue();
+						changes.put(tag.getKey(), value);
+					}
+				}
+				if (remove != null) {
+					for (String key : remove) {
+						changes.put(key, null);
+					}
+				}
+
+				boolean primChanged = false;
+				for (Map.Entry<String, String> change : changes.entrySet()) {
+					String oldValue = prim.get(change.getKey());
+					String newValue = change.getValue();
+					if (newValue == null ? oldValue == null : newValue.equals(oldValue)) {
+						continue;
+					}
+					groups.computeIfAbsent(change.getKey(), k -> new TreeMap<>())
+							.computeIfAbsent(newValue == null ? REMOVED : newValue, v -> new ArrayList<>()).add(prim);
+					primChanged = true;
+				}
+				if (primChanged) {
+					changed++;
+				}
+			}
+		} finally {
+			ds.getReadLock().unlock();
+		}
+
+		StringBuilder sb = new StringBuilder();
+		sb.append(dryRun ? "Would change " : "Changed ").append(changed).append(" of ").append(matched)
+				.append(" matching elements\n");
+		List<Command> cmds = new ArrayList<>();
+		for (Map.Entry<String, Map<String, List<OsmPrimitive>>> byKey : groups.entrySet()) {
+			for (Map.Entry<String, List<OsmPrimitive>> byValue : byKey.getValue().entrySet()) {
+				String value = REMOVED.equals(byValue.getKey()) ? null : byValue.getKey();
+				sb.append("- ").append(byKey.getKey());
+				if (value == null) {
+					sb.append(" removed");
+				} else {
+					sb.append("=").append(value);
+				}
+				sb.append(": ").append(byValue.getValue().size()).append("\n");
+				if (!dryRun) {
+					cmds.add(new ChangePropertyCommand(byValue.getValue(), byKey.getKey(), value));
+				}
+			}
+		}
+
+		if (!cmds.isEmpty()) {
+			Command c = new SequenceCommand("Retag " + changed + " elements", cmds, false);
+			execute(exchange, ds, c);
+		}
+		return sb.toString();
+	}
+
+	private static String current(OsmPrimitive prim, Map<String, String> changes, String key) {
+		return changes.containsKey(key) ? changes.get(key) : prim.get(key);
+	}
+
+	private static final class ReplaceRule {
+		private final String key;
+		private final Pattern pattern;
+		private final String replacement;
+
+		private ReplaceRule(String key, String pattern, String replacement) throws Exception {
+			if (key == null || pattern == null || replacement == null) {
+				throw new Exception("a replace rule needs 'key', 'pattern' and 'replacement'");
+			}
+			this.key = key;
+			this.pattern = Pattern.compile(pattern);
+			this.replacement = replacement;
+		}
+	}
+}
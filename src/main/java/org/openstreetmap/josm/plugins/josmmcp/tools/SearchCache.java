@@ -0,0 +1,218 @@
+/*
+ * JosmMCPPlugin - JOSM plugin to integrate JOSM with the Model Context Protocol
+ * Copyright (C) 2025-2026 Pengunaria.dev
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.openstreetmap.josm.plugins.josmmcp.tools;
+
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.openstreetmap.josm.data.osm.DataSet;
+import org.openstreetmap.josm.data.osm.OsmPrimitive;
+import org.openstreetmap.josm.data.osm.search.SearchCompiler;
+import org.openstreetmap.josm.data.osm.search.SearchParseError;
+import org.openstreetmap.josm.plugins.josmmcp.data.DataSetVersions;
+import org.openstreetmap.josm.spi.preferences.Config;
+
+/**
+ * Bounded LRU caches of compiled JOSM queries and of their results.
+ *
+ * Results are keyed by query and area and are only valid for the DataSet
+ * version they were computed on (see {@link DataSetVersions}), so any edit
+ * invalidates them without explicit eviction. A search stopped after the
+ * first page is stored as a prefix and extended by the following pages.
+ */
+public final class SearchCache {
+
+	private static final SearchCache INSTANCE = new SearchCache();
+
+	// Queries whose result depends on state that does not fire DataSet events
+	private static final String[] VOLATILE_KEYWORDS = { "selected", "inview", "allinview", "indownloadedarea",
+			"allindownloadedarea", "disabled" };
+
+	private final Map<String, SearchCompiler.Match> matchers;
+	private final Map<String, Results> results;
+	private final int maxCachedResults;
+	private SoftReference<Snapshot> snapshot;
+
+	private SearchCache() {
+		int matcherSize = Config.getPref().getInt("josmmcp.search.matcher_cache_size", 64);
+		int resultSize = Config.getPref().getInt("josmmcp.search.result_cache_size", 32);
+		this.maxCachedResults = Config.getPref().getInt("josmmcp.search.result_cache_max_entry", 500_000);
+		this.matchers = new LinkedHashMap<>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, SearchCompiler.Match> eldest) {
+				return size() > matcherSize;
+			}
+		};
+		this.results = new LinkedHashMap<>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Results> eldest) {
+				return size() > resultSize;
+			}
+		};
+	}
+
+	public static SearchCache getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Returns the compiled matcher of a query, compiling it on first use.
+	 */
+	public SearchCompiler.Match matcher(String query) throws SearchParseError {
+		synchronized (matchers) {
+			SearchCompiler.Match m = matchers.get(query);
+			if (m != null) {
+				return m;
+			}
+		}
+		SearchCompiler.Match m = SearchCompiler.compile(query);
+		synchronized (matchers) {
+			matchers.put(query, m);
+		}
+		return m;
+	}
+
+	/**
+	 * Returns the cached results of a search, or <code>null</code> if they are
+	 * missing or stale. The caller should hold the DataSet read lock.
+	 */
+	Results results(DataSet ds, String key) {
+		long version = DataSetVersions.get(ds);
+		synchronized (results) {
+			Results r = results.get(key);
+			if (r != null && r.version == version && r.dataSet.get() == ds) {
+				return r;
+			}
+			return null;
+		}
+	}
+
+	/**
+	 * Stores the results of a search. The caller should hold the DataSet read
+	 * lock the results were computed under.
+	 */
+	void putResults(DataSet ds, String key, String query, OsmPrimitive[] matches, int[] positions,
+			int scanned, boolean complete) {
+		if (matches.length > maxCachedResults || isVolatile(query)) {
+			return;
+		}
+		Results r = new Results(new WeakReference<>(ds), DataSetVersions.get(ds), matches, positions, scanned,
+				complete);
+		synchronized (results) {
+			results.put(key, r);
+		}
+	}
+
+	/**
+	 * Returns the primitives of a DataSet in iteration order, shared by the
+	 * searches on the same version. The caller should hold the DataSet read
+	 * lock.
+	 */
+	List<OsmPrimitive> snapshot(DataSet ds) {
+		long version = DataSetVersions.get(ds);
+		synchronized (this) {
+			Snapshot s = snapshot != null ? snapshot.get() : null;
+			if (s != null && s.version == version && s.dataSet.get() == ds) {
+				return s.primitives;
+			}
+		}
+		List<OsmPrimitive> primitives = Arrays.asList(ds.allPrimitives().toArray(new OsmPrimitive[0]));
+		synchronized (this) {
+			snapshot = new SoftReference<>(new Snapshot(new WeakReference<>(ds), version, primitives));
+		}
+		return primitives;
+	}
+
+	/**
+	 * Drops the cached results and the primitive snapshot, keeping the
+	 * compiled matchers.
+	 */
+	public void clear() {
+		synchronized (results) {
+			results.clear();
+		}
+		synchronized (this) {
+			snapshot = null;
+		}
+	}
+
+	/**
+	 * Tells if the result of a query depends on state that does not fire
+	 * DataSet events, like the selection or the map view.
+	 */
+	static boolean isVolatile(String query) {
+		if (query == null) {
+			return false;
+		}
+		String q = query.toLowerCase(Locale.ROOT);
+		for (String keyword : VOLATILE_KEYWORDS) {
+			if (q.contains(keyword)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static final class Snapshot {
+		private final WeakReference<DataSet> dataSet;
+		private final long version;
+		private final List<OsmPrimitive> primitives;
+
+		private Snapshot(WeakReference<DataSet> dataSet, long version, List<OsmPrimitive> primitives) {
+			this.dataSet = dataSet;
+			this.version = version;
+			this.primitives = primitives;
+		}
+	}
+
+	/**
+	 * Matches of a search, possibly only a prefix of them when the scan was
+	 * stopped early.
+	 */
+	static final class Results {
+		private final WeakReference<DataSet> dataSet;
+		private final long version;
+		/** the matches found so far, in candidate order */
+		final OsmPrimitive[] matches;
+		/** index of each match in the candidate sequence */
+		final int[] positions;
+		/** number of candidates examined */
+		final int scanned;
+		/** whether all the candidates were examined */
+		final boolean complete;
+
+		private Results(WeakReference<DataSet> dataSet, long version, OsmPrimitive[] matches, int[] positions,
+				int scanned, boolean complete) {
+			this.dataSet = dataSet;
+			this.version = version;
+			this.matches = matches;
+			this.positions = positions;
+			this.scanned = scanned;
+			this.complete = complete;
+		}
+	}
+}
@@ -18,15 +18,14 @@
 package org.openstreetmap.josm.plugins.josmmcp.tools;
 
 import java.util.Arrays;
-import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
 import org.openstreetmap.josm.data.osm.DataSet;
 import org.openstreetmap.josm.data.osm.DefaultNameFormatter;
 import org.openstreetmap.josm.data.osm.OsmPrimitive;
-import org.openstreetmap.josm.data.osm.search.SearchCompiler;
 import org.openstreetmap.josm.gui.MainApplication;
+import org.openstreetmap.josm.gui.layer.OsmDataLayer;
 
 import io.modelcontextprotocol.common.McpTransportContext;
 import io.modelcontextprotocol.spec.McpSchema;
@@ -42,7 +41,19 @@ public class SearchTool extends BaseTool {
 
 	@Override
 	public String getDescription() {
-		return "Cerca elementi OSM nei dati scaricati usando query JOSM";
+		return "Cerca elementi OSM nei dati scaricati usando query JOSM, nel layer di modifica o in piu' layer "
+				+ "insieme con 'layers'";
+	}
+
+	@Override
+	public boolean isReadOnly() {
+		return true;
+	}
+
+	@Override
+	public boolean isCacheable(Map<String, Object> args) {
+		// the other layers are not part of the cache key
+		return args.get("layers") == null && !SearchCache.isVolatile((String) args.get("query"));
 	}
 
 	@Override
@@ -54,6 +65,23 @@ public class SearchTool extends BaseTool {
 		Map<String, Object> maxResultsProp = new java.util.HashMap<>();
 		maxResultsProp.put("type", "integer");
 		searchProps.put("max_results", maxResultsProp);
+		SpatialFilter.addSchema(searchProps);
+		Map<String, Object> cursorProp = new java.util.HashMap<>();
+		cursorProp.put("type", "string");
+		cursorProp.put("description", "Cursor returned by the previous call, to get the following page. "
+				+ "Valid until the data changes, except for the searches answered by the tag index");
+		searchProps.put("cursor", cursorProp);
+		Map<String, Object> countOnlyProp = new java.util.HashMap<>();
+		countOnlyProp.put("type", "boolean");
+		countOnlyProp.put("description", "Only return the number of matches");
+		searchProps.put("count_only", countOnlyProp);
+		Map<String, Object> layersProp = new java.util.HashMap<>();
+		layersProp.put("type", Arrays.asList("array", "string"));
+		layersProp.put("items", Map.of("type", "string"));
+		layersProp.put("description",
+				"Names of the data layers to search, or \"all\"; only the edit layer when omitted. Not combinable "
+						+ "with 'cursor', 'max_results' applies to all the layers together");
+		searchProps.put("layers", layersProp);
 		McpSchema.JsonSchema searchSchema = new McpSchema.JsonSchema("object", searchProps, Arrays.asList("query"),
 				null, null, null);
 		return searchSchema;
@@ -67,40 +95,161 @@ public class SearchTool extends BaseTool {
 		Integer maxResults = (Integer) args.get("max_results");
 		if (maxResults == null) {
 			maxResults = 50;
+		} else if (maxResults <= 0) {
+			throw new Exception("max_results must be positive");
 		}
 
+		SpatialFilter area = SpatialFilter.fromArguments(args);
+		String cursor = (String) args.get("cursor");
+		boolean countOnly = Boolean.TRUE.equals(args.get("count_only"));
+		boolean json = isJsonOutput(args);
+		StringBuilder sb = new StringBuilder();
+
 		DataSet ds = MainApplication.getLayerManager().getEditDataSet();
+		if (args.get("layers") != null) {
+			if (cursor != null) {
+				throw new Exception("'cursor' can not be used together with 'layers'");
+			}
+			List<OsmDataLayer> layers = LayerSearch.resolve(args.get("layers"));
+			// BaseTool holds the read lock of the edit DataSet, if any
+			LayerSearch search = new LayerSearch(SearchCache.getInstance().matcher(query), area, ds);
+			if (countOnly) {
+				return countLayers(sb, query, layers, search.count(layers), json);
+			}
+			return writeLayers(sb, query, search.find(layers, maxResults), json);
+		}
 		if (ds == null) {
 			throw new Exception("no active dataset found");
 		}
 
-		SearchCompiler.Match matcher = SearchCompiler.compile(query);
-		Collection<OsmPrimitive> allPrimitives = ds.allPrimitives();
-		List<OsmPrimitive> results = new java.util.ArrayList<>();
-
-		for (OsmPrimitive prim : allPrimitives) {
-			if (matcher.match(prim)) {
-				results.add(prim);
+		// BaseTool holds the read lock
+		ElementSearch search = new ElementSearch(ds, query, area);
+		if (countOnly) {
+			int count = search.count();
+			if (json) {
+				return new JsonWriter(sb).beginObject().name("query").value(query).name("total").value(count)
+						.endObject().toString();
 			}
+			return sb.append("Risultati ricerca per '").append(query).append("': ").append(count).append("\n")
+					.toString();
 		}
 
-		StringBuilder sb = new StringBuilder("Risultati ricerca per '").append(query).append("': ")
-				.append(results.size());
-		if (results.size() > maxResults) {
-			sb.append(" (mostrati primi ").append(maxResults).append(")");
+		ElementSearch.Page page = search.page(cursor, maxResults);
+		if (json) {
+			return writeJson(new JsonWriter(sb), query, page).toString();
+		}
+		sb.append("Risultati ricerca per '").append(query).append("': ");
+		if (page.total != null) {
+			sb.append(page.total);
+		} else {
+			sb.append("mostrati ").append(page.items.size()).append(", altri disponibili");
 		}
 		sb.append("\n");
 
-		int count = 0;
-		for (OsmPrimitive prim : results) {
-			if (count >= maxResults)
-				break;
-			sb.append("- ").append(prim.getDisplayName(new DefaultNameFormatter())).append(" (ID: ")
-					.append(prim.getId()).append(", tipo: ").append(prim.getType()).append(", tags: ")
-					.append(prim.getKeys()).append(")\n");
-			count++;
+		DefaultNameFormatter formatter = DefaultNameFormatter.getInstance();
+		for (OsmPrimitive prim : page.items) {
+			sb.append("- ").append(prim.getDisplayName(formatter)).append(" (ID: ").append(prim.getUniqueId())
+					.append(", tipo: ").append(prim.getType()).append(", tags: ");
+			appendTags(sb, prim).append(")\n");
+		}
+		if (page.nextCursor != null) {
+			sb.append("cursor: ").append(page.nextCursor).append("\n");
+		}
+
+		return sb.toString();
+	}
+
+	private static String countLayers(StringBuilder sb, String query, List<OsmDataLayer> layers,
+			List<Integer> counts, boolean json) {
+		int total = counts.stream().mapToInt(Integer::intValue).sum();
+		if (json) {
+			JsonWriter w = new JsonWriter(sb).beginObject().name("query").value(query).name("total").value(total);
+			w.name("layers").beginArray();
+			for (int i = 0; i < layers.size(); i++) {
+				w.beginObject().name("name").value(layers.get(i).getName()).name("count").value(counts.get(i))
+						.endObject();
+			}
+			return w.endArray().endObject().toString();
+		}
+		sb.append("Risultati ricerca per '").append(query).append("' in ").append(layers.size()).append(" layer: ")
+				.append(total).append("\n");
+		for (int i = 0; i < layers.size(); i++) {
+			sb.append("- ").append(layers.get(i).getName()).append(": ").append(counts.get(i)).append("\n");
 		}
+		return sb.toString();
+	}
 
+	private static String writeLayers(StringBuilder sb, String query, LayerSearch.Result result, boolean json) {
+		DefaultNameFormatter formatter = DefaultNameFormatter.getInstance();
+		int found = result.matches.stream().mapToInt(List::size).sum();
+		if (json) {
+			JsonWriter w = new JsonWriter(sb).beginObject().name("query").value(query).name("total");
+			if (result.more) {
+				w.nullValue();
+			} else {
+				w.value(found);
+			}
+			w.name("next_cursor").nullValue().name("elements").beginArray();
+			for (int i = 0; i < result.layers.size(); i++) {
+				String layer = result.layers.get(i).getName();
+				for (OsmPrimitive prim : result.matches.get(i)) {
+					w.beginObject().name("layer").value(layer).name("id").value(prim.getUniqueId()).name("type")
+							.value(prim.getType().getAPIName()).name("name").value(prim.getDisplayName(formatter))
+							.name("tags").tags(prim).endObject();
+				}
+			}
+			return w.endArray().endObject().toString();
+		}
+		sb.append("Risultati ricerca per '").append(query).append("' in ").append(result.layers.size())
+				.append(" layer: ");
+		if (result.more) {
+			sb.append("mostrati ").append(found).append(", altri disponibili");
+		} else {
+			sb.append(found);
+		}
+		sb.append("\n");
+		for (int i = 0; i < result.layers.size(); i++) {
+			String layer = result.layers.get(i).getName();
+			for (OsmPrimitive prim : result.matches.get(i)) {
+				sb.append("- ").append(prim.getDisplayName(formatter)).append(" (ID: ").append(prim.getUniqueId())
+						.append(", tipo: ").append(prim.getType()).append(", layer: ").append(layer)
+						.append(", tags: ");
+				appendTags(sb, prim).append(")\n");
+			}
+		}
 		return sb.toString();
 	}
+
+	private static JsonWriter writeJson(JsonWriter w, String query, ElementSearch.Page page) {
+		DefaultNameFormatter formatter = DefaultNameFormatter.getInstance();
+		w.beginObject().name("query").value(query);
+		w.name("total");
+		if (page.total != null) {
+			w.value(page.total.intValue());
+		} else {
+			w.nullValue();
+		}
+		w.name("next_cursor").value(page.nextCursor);
+		w.name("elements").beginArray();
+		for (OsmPrimitive prim : page.items) {
+			w.beginObject().name("id").value(prim.getUniqueId()).name("type").value(prim.getType().getAPIName())
+					.name("name").value(prim.getDisplayName(formatter)).name("tags").tags(prim).endObject();
+		}
+		return w.endArray().endObject();
+	}
+
+	@Override
+	public Map<String, Object> getOutputSchema() {
+		Map<String, Object> element = Map.of("type", "object", "properties",
+				Map.of("id", Map.of("type", "integer"), "type", Map.of("type", "string"), "name",
+						Map.of("type", "string"), "layer", Map.of("type", "string"), "tags", Map.of("type", "object")));
+		Map<String, Object> props = new java.util.HashMap<>();
+		props.put("query", Map.of("type", "string"));
+		props.put("total", Map.of("type", Arrays.asList("integer", "null")));
+		props.put("next_cursor", Map.of("type", Arrays.asList("string", "null")));
+		props.put("elements", Map.of("type", "array", "items", element));
+		props.put("layers", Map.of("type", "array", "items", Map.of("type", "object", "properties",
+				Map.of("name", Map.of("type", "string"), "count", Map.of("type", "integer")))));
+		return Map.of("type", "object", "properties", props, "required", Arrays.asList("query", "total"));
+	}
 }
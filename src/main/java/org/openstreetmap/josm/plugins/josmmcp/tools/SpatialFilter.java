@@ -0,0 +1,207 @@
+/*
+ * JosmMCPPlugin - JOSM plugin to integrate JOSM with the Model Context Protocol
+ * Copyright (C) 2025-2026 Pengunaria.dev
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.openstreetmap.josm.plugins.josmmcp.tools;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.openstreetmap.josm.data.coor.LatLon;
+import org.openstreetmap.josm.data.osm.BBox;
+import org.openstreetmap.josm.data.osm.DataSet;
+import org.openstreetmap.josm.data.osm.Node;
+import org.openstreetmap.josm.data.osm.OsmPrimitive;
+import org.openstreetmap.josm.data.osm.Relation;
+import org.openstreetmap.josm.data.osm.Way;
+
+/**
+ * Area restriction shared by the tools accepting a <code>bbox</code> or a
+ * <code>center</code> + <code>radius</code> argument.
+ *
+ * Candidates are taken from the DataSet spatial index, so the cost of a
+ * regional query depends on the size of the area and not on the size of the
+ * whole dataset. Nodes are selected by their exact position. In a bounding box
+ * ways and relations are selected when their bounding box intersects it, in a
+ * circle when their closest point is within the radius, or when they enclose
+ * the center.
+ */
+public final class SpatialFilter {
+
+	private static final double METERS_PER_DEGREE = 111_320.0;
+
+	private final BBox bbox;
+	private final LatLon center;
+	private final double radius;
+	private final NearestElements.Distance distance;
+
+	private SpatialFilter(BBox bbox, LatLon center, double radius) {
+		this.bbox = bbox;
+		this.center = center;
+		this.radius = radius;
+		this.distance = center != null ? new NearestElements.Distance(center.lat(), center.lon()) : null;
+	}
+
+	/**
+	 * Adds the <code>bbox</code>, <code>center</code> and <code>radius</code>
+	 * properties to a tool input schema.
+	 */
+	public static void addSchema(Map<String, Object> props) {
+		Map<String, Object> number = Map.of("type", "number");
+		Map<String, Object> bboxProp = new java.util.HashMap<>();
+		bboxProp.put("type", "object");
+		bboxProp.put("description", "Restrict to a bounding box (degrees)");
+		bboxProp.put("properties",
+				Map.of("min_lat", number, "min_lon", number, "max_lat", number, "max_lon", number));
+		bboxProp.put("required", List.of("min_lat", "min_lon", "max_lat", "max_lon"));
+		props.put("bbox", bboxProp);
+		Map<String, Object> centerProp = new java.util.HashMap<>();
+		centerProp.put("type", "object");
+		centerProp.put("description", "Restrict to a circle around this point, together with 'radius'");
+		centerProp.put("properties", Map.of("latitude", number, "longitude", number));
+		centerProp.put("required", List.of("latitude", "longitude"));
+		props.put("center", centerProp);
+		Map<String, Object> radiusProp = new java.util.HashMap<>();
+		radiusProp.put("type", "number");
+		radiusProp.put("description",
+				"Radius in meters around 'center'; ways and relations match when their closest point is within it");
+		props.put("radius", radiusProp);
+	}
+
+	/**
+	 * Builds the filter from the tool arguments.
+	 *
+	 * @return the filter, or <code>null</code> when no area was requested
+	 */
+	@SuppressWarnings("unchecked")
+	public static SpatialFilter fromArguments(Map<String, Object> args) throws Exception {
+		Object bboxArg = args.get("bbox");
+		Object centerArg = args.get("center");
+		if (bboxArg != null && centerArg != null) {
+			throw new Exception("specify either 'bbox' or 'center' and 'radius', not both");
+		}
+		if (bboxArg != null) {
+			Map<String, Object> b = (Map<String, Object>) bboxArg;
+			double minLat = toDouble(b, "min_lat");
+			double minLon = toDouble(b, "min_lon");
+			double maxLat = toDouble(b, "max_lat");
+			double maxLon = toDouble(b, "max_lon");
+			if (minLat > maxLat || minLon > maxLon) {
+				throw new Exception("invalid bbox: min values must not exceed max values");
+			}
+			return new SpatialFilter(new BBox(minLon, minLat, maxLon, maxLat), null, 0);
+		}
+		if (centerArg != null) {
+			Map<String, Object> c = (Map<String, Object>) centerArg;
+			LatLon ll = new LatLon(toDouble(c, "latitude"), toDouble(c, "longitude"));
+			Object radiusArg = args.get("radius");
+			if (radiusArg == null) {
+				throw new Exception("'radius' is required together with 'center'");
+			}
+			if (!(radiusArg instanceof Number)) {
+				throw new Exception("invalid 'radius' '" + radiusArg + "', expected a number of meters");
+			}
+			double radius = ((Number) radiusArg).doubleValue();
+			if (!(radius > 0) || Double.isInfinite(radius)) {
+				throw new Exception("'radius' must be positive");
+			}
+			double dLat = radius / METERS_PER_DEGREE;
+			double dLon = radius / (METERS_PER_DEGREE * Math.max(Math.cos(Math.toRadians(ll.lat())), 1e-6));
+			BBox box = new BBox(ll.lon() - dLon, ll.lat() - dLat, ll.lon() + dLon, ll.lat() + dLat);
+			return new SpatialFilter(box, ll, radius);
+		}
+		return null;
+	}
+
+	private static double toDouble(Map<String, Object> map, String key) throws Exception {
+		Object v = map.get(key);
+		if (!(v instanceof Number)) {
+			throw new Exception("missing or invalid '" + key + "'");
+		}
+		return ((Number) v).doubleValue();
+	}
+
+	public BBox getBBox() {
+		return bbox;
+	}
+
+	/**
+	 * Tells if a primitive falls inside the area.
+	 */
+	public boolean contains(OsmPrimitive prim) {
+		if (prim instanceof Node) {
+			Node nd = (Node) prim;
+			if (!nd.isLatLonKnown()) {
+				return false;
+			}
+			return center != null ? center.greatCircleDistance(nd) <= radius : bbox.bounds(nd.getCoor());
+		}
+		BBox b = prim.getBBox();
+		if (b == null || !b.intersects(bbox)) {
+			return false;
+		}
+		return center == null || distance.to(prim) <= radius;
+	}
+
+	/**
+	 * Returns the primitives inside the area, looked up through the DataSet
+	 * spatial index. The caller should hold the DataSet read lock.
+	 */
+	public List<OsmPrimitive> candidates(DataSet ds) {
+		List<Node> nodes = ds.searchNodes(bbox);
+		List<Way> ways = ds.searchWays(bbox);
+		List<Relation> relations = ds.searchRelations(bbox);
+		List<OsmPrimitive> result = new ArrayList<>(nodes.size() + ways.size() + relations.size());
+		if (center == null) {
+			result.addAll(nodes);
+		} else {
+			for (Node nd : nodes) {
+				if (center.greatCircleDistance(nd) <= radius) {
+					result.add(nd);
+				}
+			}
+		}
+		if (center == null) {
+			result.addAll(ways);
+			result.addAll(relations);
+		} else {
+			for (Way w : ways) {
+				if (distance.to(w) <= radius) {
+					result.add(w);
+				}
+			}
+			for (Relation r : relations) {
+				if (distance.to(r) <= radius) {
+					result.add(r);
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns a stable textual key of the area, suitable for caches and cursors.
+	 */
+	@Override
+	public String toString() {
+		if (center != null) {
+			return "circle(" + center.lat() + "," + center.lon() + "," + radius + ")";
+		}
+		return "bbox(" + bbox.getBottomRightLat() + "," + bbox.getTopLeftLon() + "," + bbox.getTopLeftLat() + ","
+				+ bbox.getBottomRightLon() + ")";
+	}
+}
@@ -17,7 +17,9 @@
  */
 package org.openstreetmap.josm.plugins.josmmcp.tools;
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 import org.openstreetmap.josm.data.Bounds;
 import org.openstreetmap.josm.data.Version;
@@ -42,6 +44,16 @@ public class StateTool extends BaseTool {
 		return "Ottieni lo stato corrente di JOSM: versione, layer scaricati e informazioni sui dati";
 	}
 
+	@Override
+	public boolean isReadOnly() {
+		return true;
+	}
+
+	@Override
+	public boolean isCacheable(Map<String, Object> args) {
+		return true;
+	}
+
 	@Override
 	public JsonSchema getInputSchema() {
 		McpSchema.JsonSchema emptySchema = new McpSchema.JsonSchema("object", new java.util.HashMap<>(), null, null,
@@ -51,6 +63,10 @@ public class StateTool extends BaseTool {
 
 	@Override
 	public String handle(McpTransportContext exchange, CallToolRequest params) throws Exception {
+		if (isJsonOutput(params.arguments())) {
+			return handleJson();
+		}
+
 		StringBuilder sb = new StringBuilder();
 
 		// Versione JOSM
@@ -86,4 +102,44 @@ public class StateTool extends BaseTool {
 		return sb.toString();
 	}
 
+	private String handleJson() {
+		JsonWriter w = new JsonWriter().beginObject();
+		w.name("version").value(Version.getInstance().getVersionString());
+		w.name("layers").beginArray();
+		for (Layer layer : MainApplication.getLayerManager().getLayers()) {
+			w.beginObject().name("name").value(layer.getName()).name("type").value(layer.getClass().getSimpleName())
+					.endObject();
+		}
+		w.endArray();
+
+		DataSet ds = MainApplication.getLayerManager().getEditDataSet();
+		w.name("data");
+		if (ds != null) {
+			w.beginObject();
+			w.name("nodes").value(ds.getNodes().size());
+			w.name("ways").value(ds.getWays().size());
+			w.name("relations").value(ds.getRelations().size());
+			w.name("bounds").beginArray();
+			for (Bounds b : ds.getDataSourceBounds()) {
+				w.beginObject().name("min_lat").value(b.getMinLat()).name("min_lon").value(b.getMinLon())
+						.name("max_lat").value(b.getMaxLat()).name("max_lon").value(b.getMaxLon()).endObject();
+			}
+			w.endArray().endObject();
+		} else {
+			w.nullValue();
+		}
+		return w.endObject().toString();
+	}
+
+	@Override
+	public Map<String, Object> getOutputSchema() {
+		Map<String, Object> integer = Map.of("type", "integer");
+		Map<String, Object> layer = Map.of("type", "object", "properties",
+				Map.of("name", Map.of("type", "string"), "type", Map.of("type", "string")));
+		Map<String, Object> data = Map.of("type", Arrays.asList("object", "null"), "properties",
+				Map.of("nodes", integer, "ways", integer, "relations", integer, "bounds",
+						Map.of("type", "array", "items", Map.of("type", "object"))));
+		return Map.of("type", "object", "properties", Map.of("version", Map.of("type", "string"), "layers",
+				Map.of("type", "array", "items", layer), "data", data));
+	}
 }
@@ -0,0 +1,100 @@
+/*
+ * JosmMCPPlugin - JOSM plugin to integrate JOSM with the Model Context Protocol
+ * Copyright (C) 2025-2026 Pengunaria.dev
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.openstreetmap.josm.plugins.josmmcp.tools;
+
+import java.util.Map;
+
+import org.openstreetmap.josm.data.osm.DataSet;
+import org.openstreetmap.josm.gui.MainApplication;
+import org.openstreetmap.josm.plugins.josmmcp.server.ChangeSubscriptions;
+import org.openstreetmap.josm.plugins.josmmcp.server.McpHttpServer;
+
+import io.modelcontextprotocol.common.McpTransportContext;
+import io.modelcontextprotocol.server.McpAsyncServerExchange;
+import io.modelcontextprotocol.spec.McpSchema;
+import io.modelcontextprotocol.spec.McpSchema.CallToolRequest;
+import io.modelcontextprotocol.spec.McpSchema.JsonSchema;
+
+/**
+ * Subscribes the calling session to the changes of the elements matching a
+ * query or an area. Only available on the session-based endpoint.
+ */
+public class SubscribeChanges extends BaseTool {
+
+	@Override
+	public String getName() {
+		return "subscribe_changes";
+	}
+
+	@Override
+	public String getDescription() {
+		return "Subscribe to the changes of the elements matching a JOSM query and/or an area of the edit layer. "
+				+ "Changes are pushed as logging notifications of the logger '" + ChangeSubscriptions.LOGGER
+				+ "' whose data is JSON: {subscription, journal, seq, resync, changes: [{type, id, changes}]}. "
+				+ "When resync is true some changes were lost and the data must be read again";
+	}
+
+	@Override
+	public boolean isReadOnly() {
+		return true;
+	}
+
+	@Override
+	public JsonSchema getInputSchema() {
+		Map<String, Object> subscribeProps = new java.util.HashMap<>();
+		Map<String, Object> queryProp = new java.util.HashMap<>();
+		queryProp.put("type", "string");
+		queryProp.put("description", "JOSM query, all the elements when omitted");
+		subscribeProps.put("query", queryProp);
+		SpatialFilter.addSchema(subscribeProps);
+
+		McpSchema.JsonSchema subscribeSchema = new McpSchema.JsonSchema("object", subscribeProps, null, null, null,
+				null);
+		return subscribeSchema;
+	}
+
+	@Override
+	public String handle(McpTransportContext exchange, CallToolRequest params) throws Exception {
+		Map<String, Object> args = params.arguments();
+
+		McpAsyncServerExchange session = (McpAsyncServerExchange) exchange.get(McpHttpServer.SESSION);
+		if (session == null) {
+			throw new Exception("subscriptions need a session, connect to " + McpHttpServer.SESSION_PATH);
+		}
+		DataSet ds = MainApplication.getLayerManager().getEditDataSet();
+		if (ds == null) {
+			throw new Exception("no active dataset found");
+		}
+
+		ChangeSubscriptions.Subscription sub = ChangeSubscriptions.getInstance().subscribe(session, ds,
+				(String) args.get("query"), SpatialFilter.fromArguments(args));
+
+		if (isJsonOutput(args)) {
+			return new JsonWriter().beginObject().name("subscription").value(sub.getId()).name("journal")
+					.value(sub.getJournalId()).name("seq").value(sub.getSequence()).endObject().toString();
+		}
+		return "subscription: " + sub.getId() + "\njournal: " + sub.getJournalId() + "\nseq: " + sub.getSequence()
+				+ "\n";
+	}
+
+	@Override
+	public Map<String, Object> getOutputSchema() {
+		return Map.of("type", "object", "properties", Map.of("subscription", Map.of("type", "string"), "journal",
+				Map.of("type", "string"), "seq", Map.of("type", "integer")));
+	}
+}
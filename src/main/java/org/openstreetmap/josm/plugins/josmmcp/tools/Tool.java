@@ -17,6 +17,8 @@
  */
 package org.openstreetmap.josm.plugins.josmmcp.tools;
 
+import java.util.Map;
+
 import io.modelcontextprotocol.common.McpTransportContext;
 import io.modelcontextprotocol.spec.McpSchema;
 import io.modelcontextprotocol.spec.McpSchema.CallToolRequest;
@@ -28,5 +30,29 @@ public interface Tool {
 
 	public McpSchema.JsonSchema getInputSchema();
 
+	/**
+	 * JSON schema of the structured output, for the tools that can answer in
+	 * JSON when called with <code>format=json</code>.
+	 */
+	public default Map<String, Object> getOutputSchema() {
+		return null;
+	}
+
+	/**
+	 * Tells if the tool only reads the data. Read-only tools run concurrently
+	 * under the DataSet read lock, the others one at a time on the writer
+	 * thread.
+	 */
+	public boolean isReadOnly();
+
+	/**
+	 * Tells if the response of a read-only tool called with these arguments
+	 * only depends on them and on the data of the edit layer, so an identical
+	 * call can be answered from the response cache until the data changes.
+	 */
+	public default boolean isCacheable(Map<String, Object> args) {
+		return false;
+	}
+
 	public String handle(McpTransportContext exchange, CallToolRequest params) throws Exception;
 }
@@ -0,0 +1,74 @@
+/*
+ * JosmMCPPlugin - JOSM plugin to integrate JOSM with the Model Context Protocol
+ * Copyright (C) 2025-2026 Pengunaria.dev
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.openstreetmap.josm.plugins.josmmcp.tools;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import org.openstreetmap.josm.plugins.josmmcp.server.ChangeSubscriptions;
+import org.openstreetmap.josm.plugins.josmmcp.server.McpHttpServer;
+
+import io.modelcontextprotocol.common.McpTransportContext;
+import io.modelcontextprotocol.server.McpAsyncServerExchange;
+import io.modelcontextprotocol.spec.McpSchema;
+import io.modelcontextprotocol.spec.McpSchema.CallToolRequest;
+import io.modelcontextprotocol.spec.McpSchema.JsonSchema;
+
+public class UnsubscribeChanges extends BaseTool {
+
+	@Override
+	public String getName() {
+		return "unsubscribe_changes";
+	}
+
+	@Override
+	public String getDescription() {
+		return "Cancel a subscription made with subscribe_changes";
+	}
+
+	@Override
+	public boolean isReadOnly() {
+		return true;
+	}
+
+	@Override
+	public JsonSchema getInputSchema() {
+		Map<String, Object> unsubscribeProps = new java.util.HashMap<>();
+		Map<String, Object> idProp = new java.util.HashMap<>();
+		idProp.put("type", "string");
+		idProp.put("description", "Subscription id");
+		unsubscribeProps.put("subscription", idProp);
+
+		McpSchema.JsonSchema unsubscribeSchema = new McpSchema.JsonSchema("object", unsubscribeProps,
+				Arrays.asList("subscription"), null, null, null);
+		return unsubscribeSchema;
+	}
+
+	@Override
+	public String handle(McpTransportContext exchange, CallToolRequest params) throws Exception {
+		McpAsyncServerExchange session = (McpAsyncServerExchange) exchange.get(McpHttpServer.SESSION);
+		if (session == null) {
+			throw new Exception("subscriptions need a session, connect to " + McpHttpServer.SESSION_PATH);
+		}
+		String id = (String) params.arguments().get("subscription");
+		if (!ChangeSubscriptions.getInstance().unsubscribe(session, id)) {
+			throw new Exception("subscription " + id + " not found");
+		}
+		return "Subscription " + id + " cancelled";
+	}
+}
@@ -21,7 +21,6 @@ import java.util.Arrays;
 import java.util.Map;
 
 import org.openstreetmap.josm.command.MoveCommand;
-import org.openstreetmap.josm.data.UndoRedoHandler;
 import org.openstreetmap.josm.data.coor.LatLon;
 import org.openstreetmap.josm.data.osm.DataSet;
 import org.openstreetmap.josm.data.osm.Node;
@@ -46,6 +45,11 @@ public class UpdateNode extends BaseTool {
 		return "Move a node by Id in current Dataset";
 	}
 
+	@Override
+	public boolean isReadOnly() {
+		return false;
+	}
+
 	@Override
 	public JsonSchema getInputSchema() {
 		Map<String, Object> editProps = new java.util.HashMap<>();
@@ -80,7 +84,7 @@ public class UpdateNode extends BaseTool {
 		LatLon ll = new LatLon(latitude, longitude);
 
 		MoveCommand c = new MoveCommand(nd, ll);
-		UndoRedoHandler.getInstance().add(c);
+		execute(exchange, ds, c);
 
 		return "";
 	}
@@ -0,0 +1,283 @@
+/*
+ * JosmMCPPlugin - JOSM plugin to integrate JOSM with the Model Context Protocol
+ * Copyright (C) 2025-2026 Pengunaria.dev
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.openstreetmap.josm.plugins.josmmcp.tools;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.openstreetmap.josm.command.ChangeNodesCommand;
+import org.openstreetmap.josm.data.osm.DataSet;
+import org.openstreetmap.josm.data.osm.Node;
+import org.openstreetmap.josm.data.osm.OsmPrimitiveType;
+import org.openstreetmap.josm.data.osm.Way;
+import org.openstreetmap.josm.gui.MainApplication;
+
+import io.modelcontextprotocol.common.McpTransportContext;
+import io.modelcontextprotocol.spec.McpSchema;
+import io.modelcontextprotocol.spec.McpSchema.CallToolRequest;
+import io.modelcontextprotocol.spec.McpSchema.JsonSchema;
+
+/**
+ * Changes the node list of an existing way in one {@link ChangeNodesCommand},
+ * keeping its id, tags and history.
+ *
+ * The new list is given whole or as insert/remove/splice operations. Only the
+ * nodes between the common prefix and the common suffix of the old and new
+ * lists are looked up, so editing a few nodes of a long way costs in the size
+ * of the edit rather than of the way.
+ */
+public class UpdateWay extends BaseTool {
+
+	@Override
+	public String getName() {
+		return "update_way";
+	}
+
+	@Override
+	public String getDescription() {
+		return "Change the nodes of an existing way, keeping its Id, tags and history. Give either the complete new "
+				+ "'node_ids' list, or 'operations' (insert, remove or splice node Ids at an index) applied in "
+				+ "order. Use it instead of deleting and recreating a way";
+	}
+
+	@Override
+	public boolean isReadOnly() {
+		return false;
+	}
+
+	@Override
+	public JsonSchema getInputSchema() {
+		Map<String, Object> idList = Map.of("type", "array", "items", Map.of("type", "number"));
+
+		Map<String, Object> opProps = new java.util.HashMap<>();
+		Map<String, Object> kindProp = new java.util.HashMap<>();
+		kindProp.put("type", "string");
+		kindProp.put("enum", Arrays.asList("insert", "remove", "splice"));
+		opProps.put("op", kindProp);
+		Map<String, Object> indexProp = new java.util.HashMap<>();
+		indexProp.put("type", "integer");
+		indexProp.put("description", "Position in the node list as left by the previous operations");
+		opProps.put("index", indexProp);
+		Map<String, Object> countProp = new java.util.HashMap<>();
+		countProp.put("type", "integer");
+		countProp.put("description", "Number of nodes removed by remove and splice, default 1");
+		opProps.put("count", countProp);
+		Map<String, Object> opNodesProp = new java.util.HashMap<>(idList);
+		opNodesProp.put("description", "Node Ids inserted by insert and splice");
+		opProps.put("node_ids", opNodesProp);
+		Map<String, Object> opSchema = new java.util.HashMap<>();
+		opSchema.put("type", "object");
+		opSchema.put("properties", opProps);
+		opSchema.put("required", Arrays.asList("op", "index"));
+
+		Map<String, Object> updateProps = new java.util.HashMap<>();
+		Map<String, Object> idProp = new java.util.HashMap<>();
+		idProp.put("type", "number");
+		updateProps.put("id", idProp);
+		Map<String, Object> nodesProp = new java.util.HashMap<>(idList);
+		nodesProp.put("description", "Complete new list of node Ids");
+		updateProps.put("node_ids", nodesProp);
+		Map<String, Object> opsProp = new java.util.HashMap<>();
+		opsProp.put("type", "array");
+		opsProp.put("items", opSchema);
+		updateProps.put("operations", opsProp);
+		McpSchema.JsonSchema updateSchema = new McpSchema.JsonSchema("object", updateProps, Arrays.asList("id"),
+				null, null, null);
+		return updateSchema;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public String handle(McpTransportContext exchange, CallToolRequest params) throws Exception {
+		Map<String, Object> args = params.arguments();
+
+		DataSet ds = MainApplication.getLayerManager().getEditDataSet();
+		if (ds == null) {
+			throw new Exception("no active dataset found");
+		}
+		if (args.get("id") == null) {
+			throw new Exception("missing 'id'");
+		}
+		long id = Long.parseLong(args.get("id").toString());
+		List<Object> nodeIds = (List<Object>) args.get("node_ids");
+		List<Map<String, Object>> operations = (List<Map<String, Object>>) args.get("operations");
+		if ((nodeIds == null) == (operations == null)) {
+			throw new Exception("give either 'node_ids' or 'operations'");
+		}
+
+		Way w;
+		Edit edit;
+		List<Node> newNodes;
+		lockRead(ds);
+		try {
+			w = (Way) ds.getPrimitiveById(id, OsmPrimitiveType.WAY);
+			if (w == null || w.isDeleted()) {
+				throw new Exception("way " + id + " not found");
+			}
+			if (w.isIncomplete()) {
+				throw new Exception("way " + id + " is incomplete, download it first");
+			}
+			long[] oldIds = new long[w.getNodesCount()];
+			for (int i = 0; i < oldIds.length; i++) {
+				oldIds[i] = w.getNodeId(i);
+			}
+			long[] newIds = nodeIds != null ? toIds(nodeIds) : apply(oldIds, operations);
+			if (newIds.length < 2) {
+				throw new Exception("a way needs at least two nodes");
+			}
+			edit = Edit.between(oldIds, newIds);
+			newNodes = edit.isEmpty() ? null : build(ds, w, newIds, edit);
+		} finally {
+			ds.getReadLock().unlock();
+		}
+
+		if (newNodes != null) {
+			execute(exchange, ds, new ChangeNodesCommand(w, newNodes));
+		}
+		int size = edit.oldLength - edit.removed + edit.inserted;
+
+		if (isJsonOutput(args)) {
+			return new JsonWriter().beginObject().name("id").value(id).name("changed").value(!edit.isEmpty())
+					.name("index").value(edit.index).name("removed").value(edit.removed).name("inserted")
+					.value(edit.inserted).name("nodes").value(size).endObject().toString();
+		}
+		if (edit.isEmpty()) {
+			return "Way " + id + " unchanged (" + size + " nodes)";
+		}
+		return "Way " + id + ": replaced " + edit.removed + " nodes with " + edit.inserted + " at index " + edit.index
+				+ " (" + size + " nodes)";
+	}
+
+	private static long[] toIds(List<Object> values) throws Exception {
+		long[] ids = new long[values.size()];
+		for (int i = 0; i < ids.length; i++) {
+			try {
+				ids[i] = Long.parseLong(values.get(i).toString());
+			} catch (NumberFormatException e) {
+				throw new Exception("invalid node id '" + values.get(i) + "'");
+			}
+		}
+		return ids;
+	}
+
+	/**
+	 * Applies the operations in order to a copy of the node ids.
+	 */
+	@SuppressWarnings("unchecked")
+	static long[] apply(long[] ids, List<Map<String, Object>> operations) throws Exception {
+		long[] current = ids;
+		for (int i = 0; i < operations.size(); i++) {
+			Map<String, Object> op = operations.get(i);
+			String kind = (String) op.get("op");
+			if (!(op.get("index") instanceof Number)) {
+				throw new Exception("operation " + i + ": missing 'index'");
+			}
+			int index = ((Number) op.get("index")).intValue();
+			int count = op.get("count") != null ? ((Number) op.get("count")).intValue() : 1;
+			long[] inserted = op.get("node_ids") != null ? toIds((List<Object>) op.get("node_ids")) : new long[0];
+			if ("insert".equals(kind)) {
+				count = 0;
+			} else if ("remove".equals(kind)) {
+				inserted = new long[0];
+			} else if (!"splice".equals(kind)) {
+				throw new Exception("operation " + i + ": unknown operation '" + kind + "'");
+			}
+			if (index < 0 || count < 0 || index + count > current.length) {
+				throw new Exception("operation " + i + ": index " + index + " and count " + count
+						+ " out of the node list of " + current.length + " nodes");
+			}
+			if (!"remove".equals(kind) && inserted.length == 0) {
+				throw new Exception("operation " + i + ": missing 'node_ids'");
+			}
+			long[] next = new long[current.length - count + inserted.length];
+			System.arraycopy(current, 0, next, 0, index);
+			System.arraycopy(inserted, 0, next, index, inserted.length);
+			System.arraycopy(current, index + count, next, index + inserted.length, current.length - index - count);
+			current = next;
+		}
+		return current;
+	}
+
+	/**
+	 * Builds the new node list, reusing the current nodes outside the edited
+	 * range and only looking up the inserted ones.
+	 */
+	private static List<Node> build(DataSet ds, Way w, long[] newIds, Edit edit) throws Exception {
+		List<Node> nodes = new ArrayList<>(newIds.length);
+		for (int i = 0; i < edit.index; i++) {
+			nodes.add(w.getNode(i));
+		}
+		for (int i = edit.index; i < edit.index + edit.inserted; i++) {
+			Node nd = (Node) ds.getPrimitiveById(newIds[i], OsmPrimitiveType.NODE);
+			if (nd == null || nd.isDeleted()) {
+				throw new Exception("node " + newIds[i] + " not found");
+			}
+			nodes.add(nd);
+		}
+		for (int i = edit.index + edit.removed; i < edit.oldLength; i++) {
+			nodes.add(w.getNode(i));
+		}
+		return nodes;
+	}
+
+	/**
+	 * The edit turning a node list into another: <code>removed</code> nodes at
+	 * <code>index</code> replaced by <code>inserted</code> nodes, between the
+	 * longest common prefix and suffix of the two lists.
+	 */
+	static final class Edit {
+		final int oldLength;
+		final int index;
+		final int removed;
+		final int inserted;
+
+		private Edit(int oldLength, int index, int removed, int inserted) {
+			this.oldLength = oldLength;
+			this.index = index;
+			this.removed = removed;
+			this.inserted = inserted;
+		}
+
+		static Edit between(long[] oldIds, long[] newIds) {
+			int prefix = 0;
+			int max = Math.min(oldIds.length, newIds.length);
+			while (prefix < max && oldIds[prefix] == newIds[prefix]) {
+				prefix++;
+			}
+			int suffix = 0;
+			while (suffix < max - prefix
+					&& oldIds[oldIds.length - 1 - suffix] == newIds[newIds.length - 1 - suffix]) {
+				suffix++;
+			}
+			return new Edit(oldIds.length, prefix, oldIds.length - prefix - suffix, newIds.length - prefix - suffix);
+		}
+
+		boolean isEmpty() {
+			return removed == 0 && inserted == 0;
+		}
+	}
+
+	@Override
+	public Map<String, Object> getOutputSchema() {
+		Map<String, Object> integer = Map.of("type", "integer");
+		return Map.of("type", "object", "properties", Map.of("id", integer, "changed", Map.of("type", "boolean"),
+				"index", integer, "removed", integer, "inserted", integer, "nodes", integer));
+	}
+}
@@ -0,0 +1,302 @@
+/*
+ * JosmMCPPlugin - JOSM plugin to integrate JOSM with the Model Context Protocol
+ * Copyright (C) 2025-2026 Pengunaria.dev
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.openstreetmap.josm.plugins.josmmcp.tools;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.openstreetmap.josm.data.osm.DataSet;
+import org.openstreetmap.josm.data.osm.OsmPrimitive;
+import org.openstreetmap.josm.data.osm.search.SearchCompiler;
+import org.openstreetmap.josm.data.validation.Severity;
+import org.openstreetmap.josm.gui.MainApplication;
+import org.openstreetmap.josm.plugins.josmmcp.data.ChangeJournal;
+import org.openstreetmap.josm.plugins.josmmcp.data.ValidationCache;
+
+import io.modelcontextprotocol.common.McpTransportContext;
+import io.modelcontextprotocol.spec.McpSchema;
+import io.modelcontextprotocol.spec.McpSchema.CallToolRequest;
+import io.modelcontextprotocol.spec.McpSchema.JsonSchema;
+
+/**
+ * Runs the JOSM validator on an area, the result of a query, the modified
+ * elements or the elements changed since a journal sequence number. The issues
+ * are cached per element by {@link ValidationCache} and returned in pages.
+ */
+public class Validate extends BaseTool {
+
+	@Override
+	public String getName() {
+		return "validate";
+	}
+
+	@Override
+	public String getDescription() {
+		return "Run the enabled JOSM validator tests on the elements matching a JOSM query and/or an area, on the "
+				+ "modified elements, or on the elements changed since a sequence number of get_changes_since, and "
+				+ "return the issues with their severity and elements. Unchanged elements are not validated again. "
+				+ "The returned 'seq' can be passed as 'since' to validate only the following edits";
+	}
+
+	@Override
+	public boolean isReadOnly() {
+		return true;
+	}
+
+	@Override
+	public JsonSchema getInputSchema() {
+		Map<String, Object> validateProps = new java.util.HashMap<>();
+		Map<String, Object> queryProp = new java.util.HashMap<>();
+		queryProp.put("type", "string");
+		queryProp.put("description", "Only validate the elements matching this JOSM query");
+		validateProps.put("query", queryProp);
+		SpatialFilter.addSchema(validateProps);
+		Map<String, Object> modifiedProp = new java.util.HashMap<>();
+		modifiedProp.put("type", "boolean");
+		modifiedProp.put("description", "Only validate the elements modified in the layer");
+		validateProps.put("modified", modifiedProp);
+		Map<String, Object> sinceProp = new java.util.HashMap<>();
+		sinceProp.put("type", "integer");
+		sinceProp.put("description", "Only validate the elements changed since this sequence number");
+		validateProps.put("since", sinceProp);
+		Map<String, Object> journalProp = new java.util.HashMap<>();
+		journalProp.put("type", "string");
+		journalProp.put("description", "Journal id returned together with the sequence number");
+		validateProps.put("journal", journalProp);
+		Map<String, Object> severityProp = new java.util.HashMap<>();
+		severityProp.put("type", "string");
+		severityProp.put("enum", Arrays.asList("error", "warning", "other"));
+		severityProp.put("description", "Lowest severity returned, default 'other' (all the issues)");
+		validateProps.put("severity", severityProp);
+		Map<String, Object> maxProp = new java.util.HashMap<>();
+		maxProp.put("type", "integer");
+		maxProp.put("description", "Maximum number of issues per page, default 100");
+		validateProps.put("max_issues", maxProp);
+		Map<String, Object> cursorProp = new java.util.HashMap<>();
+		cursorProp.put("type", "string");
+		cursorProp.put("description", "Cursor returned by the previous call, to get the following page");
+		validateProps.put("cursor", cursorProp);
+
+		McpSchema.JsonSchema validateSchema = new McpSchema.JsonSchema("object", validateProps, null, null, null,
+				null);
+		return validateSchema;
+	}
+
+	@Override
+	public String handle(McpTransportContext exchange, CallToolRequest params) throws Exception {
+		Map<String, Object> args = params.arguments();
+
+		String query = (String) args.get("query");
+		SpatialFilter area = SpatialFilter.fromArguments(args);
+		boolean modified = Boolean.TRUE.equals(args.get("modified"));
+		Object since = args.get("since");
+		if (modified && since != null) {
+			throw new Exception("specify either 'modified' or 'since', not both");
+		}
+		Severity minSeverity = Severity.OTHER;
+		if (args.get("severity") != null) {
+			try {
+				minSeverity = Severity.valueOf(args.get("severity").toString().toUpperCase(Locale.ROOT));
+			} catch (IllegalArgumentException e) {
+				throw new Exception("unknown severity '" + args.get("severity") + "'");
+			}
+		}
+		int max = args.get("max_issues") != null ? ((Number) args.get("max_issues")).intValue() : 100;
+		if (max <= 0) {
+			throw new Exception("max_issues must be positive");
+		}
+		String scope = query + "|" + area + "|" + modified + "|" + since + "|" + args.get("journal") + "|"
+				+ minSeverity;
+		int offset = args.get("cursor") != null ? decodeCursor((String) args.get("cursor"), scope) : 0;
+
+		DataSet ds = MainApplication.getLayerManager().getEditDataSet();
+		if (ds == null) {
+			throw new Exception("no active dataset found");
+		}
+
+		// BaseTool holds the read lock
+		ChangeJournal journal = ChangeJournal.get(ds);
+		long seq = journal.getSequence();
+		Collection<OsmPrimitive> primitives;
+		if (since != null) {
+			primitives = changedSince(ds, journal, ((Number) since).longValue(), (String) args.get("journal"));
+		} else if (modified) {
+			primitives = ds.allModifiedPrimitives();
+		} else {
+			primitives = null;
+		}
+		if (primitives == null) {
+			primitives = new ElementSearch(ds, query != null ? query : "", area).all();
+		} else if (query != null || area != null) {
+			SearchCompiler.Match matcher = query != null ? SearchCache.getInstance().matcher(query) : null;
+			List<OsmPrimitive> filtered = new ArrayList<>();
+			for (OsmPrimitive prim : primitives) {
+				if ((matcher == null || matcher.match(prim)) && (area == null || area.contains(prim))) {
+					filtered.add(prim);
+				}
+			}
+			primitives = filtered;
+		}
+
+		ValidationCache.Result result = ValidationCache.validate(ds, primitives);
+		List<ValidationCache.Issue> issues = new ArrayList<>();
+		int[] bySeverity = new int[Severity.values().length];
+		for (ValidationCache.Issue issue : result.issues) {
+			if (issue.getSeverity().compareTo(minSeverity) <= 0) {
+				issues.add(issue);
+				bySeverity[issue.getSeverity().ordinal()]++;
+			}
+		}
+		int end = Math.min(issues.size(), offset + max);
+		List<ValidationCache.Issue> page = offset < end ? issues.subList(offset, end) : List.of();
+		String nextCursor = end < issues.size() ? encodeCursor(scope, end) : null;
+
+		if (isJsonOutput(args)) {
+			JsonWriter w = new JsonWriter().beginObject().name("journal").value(journal.getId()).name("seq")
+					.value(seq).name("validated").value(result.validated).name("reused").value(result.reused)
+					.name("total").value(issues.size()).name("by_severity").beginObject();
+			for (Severity severity : Severity.values()) {
+				w.name(severityName(severity)).value(bySeverity[severity.ordinal()]);
+			}
+			w.endObject().name("issues").beginArray();
+			for (ValidationCache.Issue issue : page) {
+				w.beginObject().name("severity").value(severityName(issue.getSeverity())).name("test")
+						.value(issue.getTest()).name("code").value(issue.getCode()).name("message")
+						.value(issue.getMessage());
+				if (issue.getDescription() != null) {
+					w.name("description").value(issue.getDescription());
+				}
+				w.name("elements").beginArray();
+				for (int i = 0; i < issue.getPrimitiveCount(); i++) {
+					w.beginObject().name("type").value(issue.getPrimitiveType(i).getAPIName()).name("id")
+							.value(issue.getPrimitiveId(i)).endObject();
+				}
+				w.endArray().endObject();
+			}
+			return w.endArray().name("next_cursor").value(nextCursor).endObject().toString();
+		}
+
+		StringBuilder sb = new StringBuilder();
+		sb.append("Validated ").append(result.validated).append(" elements (").append(result.reused)
+				.append(" unchanged since the last validation)\n");
+		sb.append("Issues: ").append(issues.size()).append(" (");
+		for (Severity severity : Severity.values()) {
+			if (severity.ordinal() > 0) {
+				sb.append(", ");
+			}
+			sb.append(severityName(severity)).append(": ").append(bySeverity[severity.ordinal()]);
+		}
+		sb.append(")\n");
+		for (ValidationCache.Issue issue : page) {
+			sb.append("- [").append(severityName(issue.getSeverity())).append("] ").append(issue.getMessage());
+			if (issue.getDescription() != null) {
+				sb.append(": ").append(issue.getDescription());
+			}
+			sb.append(" (").append(issue.getTest()).append(")");
+			for (int i = 0; i < issue.getPrimitiveCount(); i++) {
+				sb.append(i == 0 ? " - " : ", ").append(issue.getPrimitiveType(i).getAPIName()).append(' ')
+						.append(issue.getPrimitiveId(i));
+			}
+			sb.append("\n");
+		}
+		if (nextCursor != null) {
+			sb.append("cursor: ").append(nextCursor).append("\n");
+		}
+		sb.append("journal: ").append(journal.getId()).append("\n");
+		sb.append("seq: ").append(seq).append("\n");
+		return sb.toString();
+	}
+
+	/**
+	 * Returns the elements still in the layer among those changed since a
+	 * sequence number.
+	 */
+	private static Collection<OsmPrimitive> changedSince(DataSet ds, ChangeJournal journal, long since,
+			String journalId) throws Exception {
+		List<ChangeJournal.Change> changes = journalId == null || journalId.equals(journal.getId())
+				? journal.since(since, Integer.MAX_VALUE)
+				: null;
+		if (changes == null) {
+			throw new Exception("the changes since " + since
+					+ " are no longer available, validate the area or the modified elements instead");
+		}
+		Set<OsmPrimitive> changed = new LinkedHashSet<>();
+		for (ChangeJournal.Change c : changes) {
+			OsmPrimitive prim = ds.getPrimitiveById(c.id, c.type);
+			if (prim != null && !prim.isDeleted()) {
+				changed.add(prim);
+			}
+		}
+		return changed;
+	}
+
+	private static String severityName(Severity severity) {
+		return severity.name().toLowerCase(Locale.ROOT);
+	}
+
+	private static String encodeCursor(String scope, int offset) {
+		String raw = scope.hashCode() + ":" + offset;
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.US_ASCII));
+	}
+
+	private static int decodeCursor(String token, String scope) throws Exception {
+		String[] f;
+		try {
+			f = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.US_ASCII).split(":");
+			if (f.length == 2 && Integer.parseInt(f[0]) == scope.hashCode()) {
+				return Integer.parseInt(f[1]);
+			}
+		} catch (IllegalArgumentException e) {
+			throw new Exception("invalid cursor");
+		}
+		throw new Exception("the cursor belongs to a different validation");
+	}
+
+	@Override
+	public Map<String, Object> getOutputSchema() {
+		Map<String, Object> integer = Map.of("type", "integer");
+		Map<String, Object> string = Map.of("type", "string");
+		Map<String, Object> element = Map.of("type", "object", "properties", Map.of("type", string, "id", integer));
+		Map<String, Object> issueProps = new java.util.HashMap<>();
+		issueProps.put("severity", Map.of("type", "string", "enum", Arrays.asList("error", "warning", "other")));
+		issueProps.put("test", string);
+		issueProps.put("code", integer);
+		issueProps.put("message", string);
+		issueProps.put("description", string);
+		issueProps.put("elements", Map.of("type", "array", "items", element));
+		Map<String, Object> props = new java.util.HashMap<>();
+		props.put("journal", string);
+		props.put("seq", integer);
+		props.put("validated", integer);
+		props.put("reused", integer);
+		props.put("total", integer);
+		props.put("by_severity", Map.of("type", "object", "properties",
+				Map.of("error", integer, "warning", integer, "other", integer)));
+		props.put("issues", Map.of("type", "array", "items", Map.of("type", "object", "properties", issueProps)));
+		props.put("next_cursor", Map.of("type", Arrays.asList("string", "null")));
+		return Map.of("type", "object", "properties", props);
+	}
+}
@@ -0,0 +1,133 @@
+/*
+ * JosmMCPPlugin - JOSM plugin to integrate JOSM with the Model Context Protocol
+ * Copyright (C) 2025-2026 Pengunaria.dev
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.openstreetmap.josm.plugins.josmmcp.data;
+
+import java.util.Arrays;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+public class TagIndexTest extends TestCase {
+
+	private static void assertCodes(long[] expected, long[] actual) {
+		assertTrue(Arrays.toString(actual), Arrays.equals(expected, actual));
+	}
+
+	private static TagIndex.Postings built(long... codes) {
+		TagIndex.Postings p = new TagIndex.Postings();
+		for (long code : codes) {
+			p.append(code);
+		}
+		p.sort();
+		return p;
+	}
+
+	public void testBuildSorts() {
+		assertCodes(new long[] { 1, 5, 9 }, built(9, 1, 5).snapshot());
+		assertCodes(new long[0], built().snapshot());
+	}
+
+	public void testAddAndRemove() {
+		TagIndex.Postings p = built(4, 8);
+		p.add(6);
+		p.add(2);
+		p.add(6);
+		p.remove(8);
+		p.remove(7);
+		assertCodes(new long[] { 2, 4, 6 }, p.snapshot());
+	}
+
+	public void testRemoveThenAddBack() {
+		TagIndex.Postings p = built(4, 8);
+		p.remove(4);
+		p.add(4);
+		assertCodes(new long[] { 4, 8 }, p.snapshot());
+		p.add(5);
+		p.remove(5);
+		assertCodes(new long[] { 4, 8 }, p.snapshot());
+	}
+
+	public void testCompactsLargePendingLists() {
+		TagIndex.Postings p = built();
+		for (long code = 1000; code > 0; code--) {
+			p.add(code);
+		}
+		for (long code = 2; code <= 1000; code += 2) {
+			p.remove(code);
+		}
+		long[] codes = p.snapshot();
+		assertEquals(500, codes.length);
+		for (int i = 0; i < codes.length; i++) {
+			assertEquals(2 * i + 1, codes[i]);
+		}
+	}
+
+	public void testIntersect() {
+		assertCodes(new long[] { 3, 9 }, TagIndex.intersect(new long[] { 1, 3, 9, 20 }, new long[] { 2, 3, 4, 9, 10 }));
+		assertCodes(new long[0], TagIndex.intersect(new long[] { 1, 2 }, new long[] { 3, 4 }));
+		assertCodes(new long[0], TagIndex.intersect(new long[0], new long[] { 3, 4 }));
+		assertCodes(new long[0], TagIndex.intersect(new long[] { 1 }, new long[0]));
+		assertCodes(new long[] { 4 }, TagIndex.intersect(new long[] { 4, 5 }, new long[] { 1, 2, 3, 4 }));
+	}
+
+	private static void assertTerms(String query, String... expected) {
+		assertEquals(query, Arrays.asList(expected), TagIndex.terms(query));
+	}
+
+	private static void assertFullScan(String query) {
+		List<String> terms = TagIndex.terms(query);
+		assertNull(query + " -> " + terms, terms);
+	}
+
+	public void testKeyValueTerms() {
+		assertTerms("highway=residential", "highway\0residential");
+		assertTerms("  highway=primary_link  ", "highway\0primary_link");
+		assertTerms("highway=residential name=*", "highway\0residential", "name");
+		assertTerms("building=*", "building");
+		assertTerms("\"name\"=\"Roma\"", "name\0Roma");
+		assertTerms("ref=A-4", "ref\0A-4");
+	}
+
+	public void testNegationsAreLeftToTheMatcher() {
+		assertTerms("highway=* -name", "highway");
+		assertTerms("-oneway=yes highway=service", "highway\0service");
+		assertFullScan("-name");
+		assertFullScan("-name -ref=*");
+	}
+
+	public void testUnsupportedSyntaxFallsBack() {
+		assertFullScan(null);
+		assertFullScan("");
+		assertFullScan("highway");
+		assertFullScan("a=b OR c=d");
+		assertFullScan("a=b | c=d");
+		assertFullScan("a=b AND c=d");
+		assertFullScan("(a=b)");
+		assertFullScan("name~Roma");
+		assertFullScan("name=Ro*");
+		assertFullScan("name=\"Via Roma\"");
+		assertFullScan("\"addr street\"=x");
+		assertFullScan("name=\"a\\\"b\"");
+		assertFullScan("addr:street=Roma");
+		assertFullScan("type:way highway=*");
+		assertFullScan("a=");
+		assertFullScan("a==b");
+		assertFullScan("maxspeed>50");
+		assertFullScan("!highway=*");
+	}
+}
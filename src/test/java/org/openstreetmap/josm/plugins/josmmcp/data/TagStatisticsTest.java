@@ -0,0 +1,138 @@
+/*
+ * JosmMCPPlugin - JOSM plugin to integrate JOSM with the Model Context Protocol
+ * Copyright (C) 2025-2026 Pengunaria.dev
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.openstreetmap.josm.plugins.josmmcp.data;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.openstreetmap.josm.data.Preferences;
+import org.openstreetmap.josm.data.coor.LatLon;
+import org.openstreetmap.josm.data.osm.DataSet;
+import org.openstreetmap.josm.data.osm.Node;
+import org.openstreetmap.josm.data.osm.OsmPrimitive;
+import org.openstreetmap.josm.data.projection.ProjectionRegistry;
+import org.openstreetmap.josm.data.projection.Projections;
+import org.openstreetmap.josm.spi.preferences.Config;
+
+import junit.framework.TestCase;
+
+public class TagStatisticsTest extends TestCase {
+
+	private DataSet ds;
+
+	@Override
+	protected void setUp() {
+		Config.setPreferencesInstance(Preferences.main());
+		ProjectionRegistry.setProjection(Projections.getProjectionByCode("EPSG:3857"));
+		ds = new DataSet();
+	}
+
+	private Node node(String key, String value) {
+		Node nd = new Node(new LatLon(45.0, 9.0));
+		nd.put(key, value);
+		return nd;
+	}
+
+	private void assertSameAsRecount() {
+		TagStatistics live = TagStatistics.of(ds);
+		TagStatistics recount = new TagStatistics();
+		for (OsmPrimitive prim : ds.allPrimitives()) {
+			recount.add(prim);
+		}
+		assertTrue(Arrays.equals(recount.getTypeCounts(), live.getTypeCounts()));
+		assertTrue(Arrays.equals(recount.getUntaggedCounts(), live.getUntaggedCounts()));
+		List<Map.Entry<String, long[]>> expected = recount.topKeys(100);
+		List<Map.Entry<String, long[]>> actual = live.topKeys(100);
+		assertEquals(expected.size(), actual.size());
+		for (Map.Entry<String, long[]> key : expected) {
+			assertEquals(key.getKey(), recount.topValues(key.getKey(), 100), live.topValues(key.getKey(), 100));
+		}
+	}
+
+	public void testTagChangeThenDeleteInOneUpdate() {
+		Node nd = node("highway", "primary");
+		ds.addPrimitive(nd);
+		ds.addPrimitive(node("highway", "secondary"));
+		assertSameAsRecount();
+
+		ds.beginUpdate();
+		try {
+			nd.put("highway", "tertiary");
+			nd.setDeleted(true);
+		} finally {
+			ds.endUpdate();
+		}
+		assertSameAsRecount();
+		assertEquals(1, TagStatistics.of(ds).getValueCount("highway"));
+		assertEquals(1, TagStatistics.of(ds).getTypeCounts()[0]);
+	}
+
+	public void testAddThenTagChangeInOneUpdate() {
+		ds.addPrimitive(node("amenity", "cafe"));
+		assertSameAsRecount();
+
+		Node nd = node("amenity", "bar");
+		ds.beginUpdate();
+		try {
+			ds.addPrimitive(nd);
+			nd.put("amenity", "pub");
+			nd.put("name", "Da Mario");
+		} finally {
+			ds.endUpdate();
+		}
+		assertSameAsRecount();
+		assertEquals(1, TagStatistics.of(ds).topKeys(10).stream().filter(k -> k.getKey().equals("name")).count());
+	}
+
+	public void testManyChangesDeliveredTogether() {
+		Node[] nodes = new Node[50];
+		for (int i = 0; i < nodes.length; i++) {
+			nodes[i] = node("building", "yes");
+			ds.addPrimitive(nodes[i]);
+		}
+		assertSameAsRecount();
+
+		ds.beginUpdate();
+		try {
+			for (int i = 0; i < nodes.length; i++) {
+				nodes[i].put("building", "house");
+				if (i % 2 == 0) {
+					nodes[i].setDeleted(true);
+				}
+				if (i % 10 == 0) {
+					nodes[i].setDeleted(false);
+					nodes[i].remove("building");
+				}
+			}
+			ds.addPrimitive(node("shop", "bakery"));
+		} finally {
+			ds.endUpdate();
+		}
+		assertSameAsRecount();
+	}
+
+	public void testPurge() {
+		Node nd = node("highway", "primary");
+		ds.addPrimitive(nd);
+		assertSameAsRecount();
+		ds.removePrimitive(nd);
+		assertSameAsRecount();
+		assertEquals(0, TagStatistics.of(ds).getKeyCount());
+	}
+}
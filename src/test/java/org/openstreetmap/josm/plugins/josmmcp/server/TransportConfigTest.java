@@ -0,0 +1,151 @@
+/*
+ * JosmMCPPlugin - JOSM plugin to integrate JOSM with the Model Context Protocol
+ * Copyright (C) 2025-2026 Pengunaria.dev
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.openstreetmap.josm.plugins.josmmcp.server;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.servlet.ServletContextHandler;
+import org.eclipse.jetty.servlet.ServletHolder;
+
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import junit.framework.TestCase;
+
+/**
+ * Checks the compression and the protocols negotiated by the server built
+ * from a {@link TransportConfig}.
+ */
+public class TransportConfigTest extends TestCase {
+
+	private static final String PAYLOAD = largeResponse();
+
+	private static String largeResponse() {
+		StringBuilder sb = new StringBuilder("Risultati ricerca per 'highway=*': 500\n");
+		for (int i = 0; i < 500; i++) {
+			sb.append("- Via Roma (ID: ").append(100000 + i * 37).append(", tipo: way, tags: {highway=residential, ")
+					.append("name=Via Roma, maxspeed=30, surface=asphalt, lit=yes})\n");
+		}
+		return sb.toString();
+	}
+
+	private static class PayloadServlet extends HttpServlet {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+			resp.setContentType("text/plain");
+			resp.setCharacterEncoding("UTF-8");
+			byte[] bytes = PAYLOAD.getBytes(StandardCharsets.UTF_8);
+			resp.setContentLength(bytes.length);
+			resp.getOutputStream().write(bytes);
+		}
+	}
+
+	/**
+	 * Fetches the payload from a server with the given configuration, without
+	 * decoding the response body.
+	 */
+	private static HttpResponse<byte[]> fetch(TransportConfig config, HttpClient.Version version)
+			throws Exception {
+		ServletContextHandler context = new ServletContextHandler();
+		context.addServlet(new ServletHolder(new PayloadServlet()), "/payload");
+		Server server = config.setPort(0).setBindAddress("127.0.0.1").createServer(context);
+		server.start();
+		try {
+			int port = ((ServerConnector) server.getConnectors()[0]).getLocalPort();
+			HttpClient client = HttpClient.newBuilder().version(version).build();
+			HttpRequest request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port + "/payload"))
+					.header("Accept-Encoding", "gzip").GET().build();
+			HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+			assertEquals(200, response.statusCode());
+			return response;
+		} finally {
+			server.stop();
+		}
+	}
+
+	private static String gunzip(byte[] bytes) throws IOException {
+		try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+			return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+		}
+	}
+
+	public void testGzipEncodesLargeResponses() throws Exception {
+		HttpResponse<byte[]> response = fetch(new TransportConfig().setGzip(true), HttpClient.Version.HTTP_1_1);
+		assertEquals("gzip", response.headers().firstValue("Content-Encoding").orElse(null));
+		assertTrue("compressed " + response.body().length + " bytes", response.body().length * 5 < PAYLOAD.length());
+		assertEquals(PAYLOAD, gunzip(response.body()));
+	}
+
+	public void testGzipDisabled() throws Exception {
+		HttpResponse<byte[]> response = fetch(new TransportConfig().setGzip(false), HttpClient.Version.HTTP_1_1);
+		assertFalse(response.headers().firstValue("Content-Encoding").isPresent());
+		assertEquals(PAYLOAD, new String(response.body(), StandardCharsets.UTF_8));
+	}
+
+	public void testSmallResponsesAreNotCompressed() throws Exception {
+		HttpResponse<byte[]> response = fetch(
+				new TransportConfig().setGzip(true).setGzipMinSize(PAYLOAD.length() + 1), HttpClient.Version.HTTP_1_1);
+		assertFalse(response.headers().firstValue("Content-Encoding").isPresent());
+		assertEquals(PAYLOAD, new String(response.body(), StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Opens a connection with the HTTP/2 preface and a SETTINGS frame, as a
+	 * client with prior knowledge of h2c does, and returns the first bytes of
+	 * the answer.
+	 */
+	private static byte[] h2cPreface(TransportConfig config) throws Exception {
+		Server server = config.setPort(0).setBindAddress("127.0.0.1").createServer(new ServletContextHandler());
+		server.start();
+		try (Socket socket = new Socket("127.0.0.1", ((ServerConnector) server.getConnectors()[0]).getLocalPort())) {
+			socket.setSoTimeout(5000);
+			OutputStream out = socket.getOutputStream();
+			out.write("PRI * HTTP/2.0\r\n\r\nSM\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+			out.write(new byte[] { 0, 0, 0, 4, 0, 0, 0, 0, 0 });
+			out.flush();
+			return socket.getInputStream().readNBytes(9);
+		} finally {
+			server.stop();
+		}
+	}
+
+	public void testH2cAnswersWithSettings() throws Exception {
+		byte[] frame = h2cPreface(new TransportConfig().setH2c(true));
+		assertEquals(9, frame.length);
+		// frame type of the server preface
+		assertEquals(4, frame[3]);
+	}
+
+	public void testH2cDisabled() throws Exception {
+		byte[] answer = h2cPreface(new TransportConfig().setH2c(false));
+		assertTrue(new String(answer, StandardCharsets.US_ASCII).startsWith("HTTP/1.1"));
+	}
+}
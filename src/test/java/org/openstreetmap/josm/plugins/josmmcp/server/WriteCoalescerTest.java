@@ -0,0 +1,169 @@
+/*
+ * JosmMCPPlugin - JOSM plugin to integrate JOSM with the Model Context Protocol
+ * Copyright (C) 2025-2026 Pengunaria.dev
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.openstreetmap.josm.plugins.josmmcp.server;
+
+import java.util.List;
+
+import org.openstreetmap.josm.command.ChangePropertyCommand;
+import org.openstreetmap.josm.command.Command;
+import org.openstreetmap.josm.data.Preferences;
+import org.openstreetmap.josm.data.UndoRedoHandler;
+import org.openstreetmap.josm.data.coor.LatLon;
+import org.openstreetmap.josm.data.osm.DataSet;
+import org.openstreetmap.josm.data.osm.Node;
+import org.openstreetmap.josm.data.osm.event.AbstractDatasetChangedEvent;
+import org.openstreetmap.josm.data.osm.event.DataChangedEvent;
+import org.openstreetmap.josm.data.osm.event.DataSetListener;
+import org.openstreetmap.josm.data.osm.event.NodeMovedEvent;
+import org.openstreetmap.josm.data.osm.event.PrimitivesAddedEvent;
+import org.openstreetmap.josm.data.osm.event.PrimitivesRemovedEvent;
+import org.openstreetmap.josm.data.osm.event.RelationMembersChangedEvent;
+import org.openstreetmap.josm.data.osm.event.TagsChangedEvent;
+import org.openstreetmap.josm.data.osm.event.WayNodesChangedEvent;
+import org.openstreetmap.josm.data.projection.ProjectionRegistry;
+import org.openstreetmap.josm.data.projection.Projections;
+import org.openstreetmap.josm.gui.MainApplication;
+import org.openstreetmap.josm.gui.layer.OsmDataLayer;
+import org.openstreetmap.josm.spi.preferences.Config;
+
+import junit.framework.TestCase;
+
+public class WriteCoalescerTest extends TestCase {
+
+	private DataSet ds;
+	private OsmDataLayer layer;
+	private Node node;
+	private int events;
+
+	@Override
+	protected void setUp() {
+		Config.setPreferencesInstance(Preferences.main());
+		ProjectionRegistry.setProjection(Projections.getProjectionByCode("EPSG:3857"));
+		ds = new DataSet();
+		node = new Node(new LatLon(45.0, 9.0));
+		node.put("name", "start");
+		ds.addPrimitive(node);
+		layer = new OsmDataLayer(ds, "test", null);
+		MainApplication.getLayerManager().addLayer(layer);
+		UndoRedoHandler.getInstance().clean();
+		ds.addDataSetListener(new Counter());
+	}
+
+	@Override
+	protected void tearDown() {
+		UndoRedoHandler.getInstance().clean();
+		MainApplication.getLayerManager().removeLayer(layer);
+	}
+
+	public void testTwoClientsEditingTheSameNode() {
+		WriteCoalescer coalescer = new WriteCoalescer(60_000, 100);
+		coalescer.execute("a", ds, new ChangePropertyCommand(node, "name", "A"));
+		coalescer.execute("b", ds, new ChangePropertyCommand(node, "name", "B"));
+		coalescer.execute("a", ds, new ChangePropertyCommand(node, "ref", "1"));
+		assertEquals("B", node.get("name"));
+		// the events are held until the window closes
+		assertEquals(0, events);
+		assertFalse(UndoRedoHandler.getInstance().hasUndoCommands());
+
+		coalescer.flush();
+		assertTrue(events > 0);
+		List<Command> history = UndoRedoHandler.getInstance().getUndoCommands();
+		assertEquals(1, history.size());
+		assertEquals("MCP edits (3 commands, 2 clients)", history.get(0).getDescriptionText());
+		assertEquals("B", node.get("name"));
+		assertEquals("1", node.get("ref"));
+
+		UndoRedoHandler.getInstance().undo();
+		assertEquals("start", node.get("name"));
+		assertNull(node.get("ref"));
+		UndoRedoHandler.getInstance().redo();
+		assertEquals("B", node.get("name"));
+		assertEquals("1", node.get("ref"));
+	}
+
+	public void testMaxCommandsClosesTheWindow() {
+		WriteCoalescer coalescer = new WriteCoalescer(60_000, 2);
+		coalescer.execute("a", ds, new ChangePropertyCommand(node, "name", "A"));
+		coalescer.execute("a", ds, new ChangePropertyCommand(node, "name", "B"));
+		assertTrue(events > 0);
+		coalescer.execute("a", ds, new ChangePropertyCommand(node, "name", "C"));
+		coalescer.flush();
+		assertEquals(2, UndoRedoHandler.getInstance().getUndoCommands().size());
+		UndoRedoHandler.getInstance().undo();
+		assertEquals("B", node.get("name"));
+		UndoRedoHandler.getInstance().undo();
+		assertEquals("start", node.get("name"));
+	}
+
+	public void testUserEditKeepsExecutionOrder() {
+		WriteCoalescer coalescer = new WriteCoalescer(60_000, 100);
+		coalescer.execute("a", ds, new ChangePropertyCommand(node, "name", "A"));
+		coalescer.execute("b", ds, new ChangePropertyCommand(node, "name", "B"));
+		// an edit made in JOSM while the window is open
+		UndoRedoHandler.getInstance().add(new ChangePropertyCommand(node, "name", "user"));
+		List<Command> history = UndoRedoHandler.getInstance().getUndoCommands();
+		assertEquals(2, history.size());
+		assertEquals("user", node.get("name"));
+		UndoRedoHandler.getInstance().undo();
+		assertEquals("B", node.get("name"));
+		UndoRedoHandler.getInstance().undo();
+		assertEquals("start", node.get("name"));
+	}
+
+	private final class Counter implements DataSetListener {
+		@Override
+		public void primitivesAdded(PrimitivesAddedEvent e) {
+			events++;
+		}
+
+		@Override
+		public void primitivesRemoved(PrimitivesRemovedEvent e) {
+			events++;
+		}
+
+		@Override
+		public void tagsChanged(TagsChangedEvent e) {
+			events++;
+		}
+
+		@Override
+		public void nodeMoved(NodeMovedEvent e) {
+			events++;
+		}
+
+		@Override
+		public void wayNodesChanged(WayNodesChangedEvent e) {
+			events++;
+		}
+
+		@Override
+		public void relationMembersChanged(RelationMembersChangedEvent e) {
+			events++;
+		}
+
+		@Override
+		public void otherDatasetChange(AbstractDatasetChangedEvent e) {
+			events++;
+		}
+
+		@Override
+		public void dataChanged(DataChangedEvent e) {
+			events++;
+		}
+	}
+}
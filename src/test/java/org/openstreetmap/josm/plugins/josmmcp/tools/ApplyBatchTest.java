@@ -0,0 +1,129 @@
+/*
+ * JosmMCPPlugin - JOSM plugin to integrate JOSM with the Model Context Protocol
+ * Copyright (C) 2025-2026 Pengunaria.dev
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.openstreetmap.josm.plugins.josmmcp.tools;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.openstreetmap.josm.command.Command;
+import org.openstreetmap.josm.data.Preferences;
+import org.openstreetmap.josm.data.coor.LatLon;
+import org.openstreetmap.josm.data.osm.DataSet;
+import org.openstreetmap.josm.data.osm.Node;
+import org.openstreetmap.josm.data.projection.ProjectionRegistry;
+import org.openstreetmap.josm.data.projection.Projections;
+import org.openstreetmap.josm.spi.preferences.Config;
+
+import junit.framework.TestCase;
+
+public class ApplyBatchTest extends TestCase {
+
+	@Override
+	protected void setUp() {
+		Config.setPreferencesInstance(Preferences.main());
+		ProjectionRegistry.setProjection(Projections.getProjectionByCode("EPSG:3857"));
+	}
+
+	private static Map<String, Object> move(long id, double lat, double lon) {
+		Map<String, Object> op = new HashMap<>();
+		op.put("op", "update_node");
+		op.put("id", id);
+		op.put("latitude", lat);
+		op.put("longitude", lon);
+		return op;
+	}
+
+	public void testNodeMovedTwiceEndsAtLastPosition() throws Exception {
+		DataSet ds = new DataSet();
+		Node nd = new Node(new LatLon(45.0, 9.0));
+		ds.addPrimitive(nd);
+		ApplyBatch.Batch batch = new ApplyBatch.Batch(ds);
+		batch.add(move(nd.getUniqueId(), 45.1, 9.1));
+		batch.add(move(nd.getUniqueId(), 45.2, 9.2));
+		assertEquals(1, batch.commands.size());
+		for (Command c : batch.commands) {
+			c.executeCommand();
+		}
+		assertEquals(45.2, nd.lat(), 1e-7);
+		assertEquals(9.2, nd.lon(), 1e-7);
+	}
+
+	private static Map<String, Object> tag(long id, String key, String value) {
+		Map<String, Object> op = new HashMap<>();
+		op.put("op", "modify_tags");
+		op.put("element_type", "node");
+		op.put("id", id);
+		op.put("tags", Map.of(key, value));
+		return op;
+	}
+
+	public void testTagsChangedTwiceEndAtLastValue() throws Exception {
+		DataSet ds = new DataSet();
+		Node nd = new Node(new LatLon(45.0, 9.0));
+		nd.put("highway", "primary");
+		ds.addPrimitive(nd);
+		ApplyBatch.Batch batch = new ApplyBatch.Batch(ds);
+		batch.add(tag(nd.getUniqueId(), "highway", "secondary"));
+		batch.add(tag(nd.getUniqueId(), "name", "Via Roma"));
+		batch.add(tag(nd.getUniqueId(), "highway", "primary"));
+		assertEquals(1, batch.commands.size());
+		for (Command c : batch.commands) {
+			c.executeCommand();
+		}
+		assertEquals("primary", nd.get("highway"));
+		assertEquals("Via Roma", nd.get("name"));
+	}
+
+	public void testDuplicateDeleteIsRejected() throws Exception {
+		DataSet ds = new DataSet();
+		Node nd = new Node(new LatLon(45.0, 9.0));
+		ds.addPrimitive(nd);
+		ApplyBatch.Batch batch = new ApplyBatch.Batch(ds);
+		Map<String, Object> delete = new HashMap<>();
+		delete.put("op", "delete_node");
+		delete.put("id", nd.getUniqueId());
+		batch.add(delete);
+		try {
+			batch.add(delete);
+			fail("a node was deleted twice");
+		} catch (Exception e) {
+			assertTrue(e.getMessage(), e.getMessage().contains("deleted by an earlier operation"));
+		}
+		try {
+			batch.add(tag(nd.getUniqueId(), "name", "x"));
+			fail("a deleted node was tagged");
+		} catch (Exception e) {
+			assertTrue(e.getMessage(), e.getMessage().contains("deleted by an earlier operation"));
+		}
+		assertEquals(1, batch.commands.size());
+	}
+
+	public void testNumericRefIsRejected() {
+		Map<String, Object> op = new HashMap<>();
+		op.put("op", "create_node");
+		op.put("ref", "-1");
+		op.put("latitude", 45.0);
+		op.put("longitude", 9.0);
+		try {
+			new ApplyBatch.Batch(new DataSet()).add(op);
+			fail("a numeric ref was accepted");
+		} catch (Exception e) {
+			assertTrue(e.getMessage(), e.getMessage().contains("ref '-1'"));
+		}
+	}
+}
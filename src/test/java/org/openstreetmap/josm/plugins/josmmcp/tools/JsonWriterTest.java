@@ -0,0 +1,74 @@
+/*
+ * JosmMCPPlugin - JOSM plugin to integrate JOSM with the Model Context Protocol
+ * Copyright (C) 2025-2026 Pengunaria.dev
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.openstreetmap.josm.plugins.josmmcp.tools;
+
+import org.openstreetmap.josm.data.osm.Node;
+
+import junit.framework.TestCase;
+
+public class JsonWriterTest extends TestCase {
+
+	public void testNestedContainers() {
+		JsonWriter json = new JsonWriter().beginObject();
+		json.name("id").value(-3L);
+		json.name("list").beginArray().value(1L).beginObject().endObject().beginArray().endArray().value(true)
+				.endArray();
+		json.name("inner").beginObject().name("a").nullValue().name("b").value(false).endObject();
+		json.name("after").value("x");
+		assertEquals("{\"id\":-3,\"list\":[1,{},[],true],\"inner\":{\"a\":null,\"b\":false},\"after\":\"x\"}",
+				json.endObject().toString());
+	}
+
+	public void testTopLevelArrayOfObjects() {
+		JsonWriter json = new JsonWriter().beginArray();
+		for (int i = 0; i < 3; i++) {
+			json.beginObject().name("i").value((long) i).endObject();
+		}
+		assertEquals("[{\"i\":0},{\"i\":1},{\"i\":2}]", json.endArray().toString());
+	}
+
+	public void testStringEscapes() {
+		String s = new JsonWriter().value("a\"b\\c\nd\re\tf\u0001g\u001f\u00e8/").toString();
+		assertEquals("\"a\\\"b\\\\c\\nd\\re\\tf\\u0001g\\u001f\u00e8/\"", s);
+		assertEquals("[\"\",null]", new JsonWriter().beginArray().value("").value((String) null).endArray().toString());
+	}
+
+	public void testEscapedNames() {
+		assertEquals("{\"a\\\"b\":1}", new JsonWriter().beginObject().name("a\"b").value(1L).endObject().toString());
+	}
+
+	public void testDoubles() {
+		JsonWriter json = new JsonWriter().beginArray();
+		json.value(1.5).value(-0.25).value(Double.NaN).value(Double.POSITIVE_INFINITY).value(0.0);
+		assertEquals("[1.5,-0.25,null,null,0.0]", json.endArray().toString());
+	}
+
+	public void testAppendsToGivenBuffer() {
+		StringBuilder sb = new StringBuilder("prefix:");
+		new JsonWriter(sb).beginObject().endObject();
+		assertEquals("prefix:{}", sb.toString());
+	}
+
+	public void testTags() {
+		Node nd = new Node();
+		assertEquals("{\"tags\":{}}", new JsonWriter().beginObject().name("tags").tags(nd).endObject().toString());
+		nd.put("name", "Via \"Roma\"");
+		assertEquals("{\"tags\":{\"name\":\"Via \\\"Roma\\\"\"},\"n\":1}",
+				new JsonWriter().beginObject().name("tags").tags(nd).name("n").value(1L).endObject().toString());
+	}
+}
@@ -0,0 +1,65 @@
+/*
+ * JosmMCPPlugin - JOSM plugin to integrate JOSM with the Model Context Protocol
+ * Copyright (C) 2025-2026 Pengunaria.dev
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.openstreetmap.josm.plugins.josmmcp.tools;
+
+import junit.framework.TestCase;
+
+public class RegionWriterTest extends TestCase {
+
+	private static String coord(double value) {
+		StringBuilder sb = new StringBuilder();
+		RegionWriter.appendCoord(sb, value);
+		return sb.toString();
+	}
+
+	public void testWholeDegrees() {
+		assertEquals("0", coord(0));
+		assertEquals("45", coord(45));
+		assertEquals("-180", coord(-180));
+	}
+
+	public void testTrailingZerosAreDropped() {
+		assertEquals("45.5", coord(45.5));
+		assertEquals("9.19", coord(9.19));
+		assertEquals("-73.9857", coord(-73.9857));
+	}
+
+	public void testLeadingZerosOfTheFraction() {
+		assertEquals("45.0000001", coord(45.0000001));
+		assertEquals("12.05", coord(12.05));
+		assertEquals("0.001", coord(0.001));
+	}
+
+	public void testNegativeBelowOneDegree() {
+		assertEquals("-0.5", coord(-0.5));
+		assertEquals("-0.0000001", coord(-0.0000001));
+	}
+
+	public void testRoundsToSevenDecimals() {
+		assertEquals("1.2345679", coord(1.23456789));
+		assertEquals("2", coord(1.99999999));
+		assertEquals("0", coord(-0.00000004));
+	}
+
+	public void testMatchesParsedValue() {
+		for (double value = -90; value <= 90; value += 0.3183099) {
+			double expected = Math.round(value * 1e7) / 1e7;
+			assertEquals(coord(value), expected, Double.parseDouble(coord(value)), 0);
+		}
+	}
+}
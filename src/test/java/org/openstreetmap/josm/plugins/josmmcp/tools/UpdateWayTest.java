@@ -0,0 +1,126 @@
+/*
+ * JosmMCPPlugin - JOSM plugin to integrate JOSM with the Model Context Protocol
+ * Copyright (C) 2025-2026 Pengunaria.dev
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.openstreetmap.josm.plugins.josmmcp.tools;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+public class UpdateWayTest extends TestCase {
+
+	private static void assertEdit(long[] oldIds, long[] newIds, int index, int removed, int inserted) {
+		UpdateWay.Edit edit = UpdateWay.Edit.between(oldIds, newIds);
+		assertEquals(oldIds.length, edit.oldLength);
+		assertEquals("index", index, edit.index);
+		assertEquals("removed", removed, edit.removed);
+		assertEquals("inserted", inserted, edit.inserted);
+	}
+
+	public void testUnchangedList() {
+		long[] ids = { 1, 2, 3 };
+		assertEdit(ids, ids.clone(), 3, 0, 0);
+		assertTrue(UpdateWay.Edit.between(ids, ids.clone()).isEmpty());
+		assertTrue(UpdateWay.Edit.between(new long[0], new long[0]).isEmpty());
+	}
+
+	public void testReplaceInTheMiddle() {
+		assertEdit(new long[] { 1, 2, 3, 4 }, new long[] { 1, 5, 6, 4 }, 1, 2, 2);
+	}
+
+	public void testInsertAtTheEnd() {
+		assertEdit(new long[] { 1, 2, 3 }, new long[] { 1, 2, 3, 4, 5 }, 3, 0, 2);
+	}
+
+	public void testInsertAtTheStart() {
+		assertEdit(new long[] { 1, 2, 3 }, new long[] { 0, 1, 2, 3 }, 0, 0, 1);
+	}
+
+	public void testPrefixAndSuffixOverlap() {
+		// the prefix takes 1 and 1, the suffix must not count the same node again
+		assertEdit(new long[] { 1, 1 }, new long[] { 1, 1, 1 }, 2, 0, 1);
+		assertEdit(new long[] { 1, 1, 1 }, new long[] { 1, 1 }, 2, 1, 0);
+		// closed way: the first and last node are the same
+		assertEdit(new long[] { 1, 2, 3, 1 }, new long[] { 1, 3, 1 }, 1, 1, 0);
+	}
+
+	public void testRemoveAll() {
+		assertEdit(new long[] { 1, 2 }, new long[0], 0, 2, 0);
+	}
+
+	private static Map<String, Object> op(String kind, int index, Integer count, Long... ids) {
+		Map<String, Object> op = new HashMap<>();
+		op.put("op", kind);
+		op.put("index", index);
+		if (count != null) {
+			op.put("count", count);
+		}
+		if (ids.length > 0) {
+			op.put("node_ids", Arrays.asList((Object[]) ids));
+		}
+		return op;
+	}
+
+	public void testApplyInOrder() throws Exception {
+		long[] ids = { 1, 2, 3 };
+		long[] result = UpdateWay.apply(ids, List.of(op("insert", 3, null, 4L, 5L), op("remove", 0, 1),
+				op("splice", 1, 2, 9L)));
+		assertTrue(Arrays.toString(result), Arrays.equals(new long[] { 2, 9, 5 }, result));
+		assertTrue(Arrays.equals(new long[] { 1, 2, 3 }, ids));
+	}
+
+	public void testApplyNoOperations() throws Exception {
+		long[] ids = { 1, 2, 3 };
+		assertTrue(Arrays.equals(ids, UpdateWay.apply(ids, List.of())));
+	}
+
+	public void testSpliceOutOfRange() {
+		try {
+			UpdateWay.apply(new long[] { 1, 2, 3 }, List.of(op("splice", 2, 2, 7L)));
+			fail();
+		} catch (Exception e) {
+			assertTrue(e.getMessage(), e.getMessage().contains("out of the node list of 3 nodes"));
+		}
+		try {
+			UpdateWay.apply(new long[] { 1, 2, 3 }, List.of(op("insert", 4, null, 7L)));
+			fail();
+		} catch (Exception e) {
+			assertTrue(e.getMessage(), e.getMessage().contains("out of the node list"));
+		}
+	}
+
+	public void testInsertWithoutNodes() {
+		try {
+			UpdateWay.apply(new long[] { 1 }, List.of(op("insert", 0, null)));
+			fail();
+		} catch (Exception e) {
+			assertEquals("operation 0: missing 'node_ids'", e.getMessage());
+		}
+	}
+
+	public void testUnknownOperation() {
+		try {
+			UpdateWay.apply(new long[] { 1 }, List.of(op("move", 0, null)));
+			fail();
+		} catch (Exception e) {
+			assertEquals("operation 0: unknown operation 'move'", e.getMessage());
+		}
+	}
+}